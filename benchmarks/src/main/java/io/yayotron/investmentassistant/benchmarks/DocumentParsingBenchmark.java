@@ -0,0 +1,95 @@
+package io.yayotron.investmentassistant.benchmarks;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.segment.TextSegment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.yayotron.investmentassistant.crawler.CrawlStream;
+import io.yayotron.investmentassistant.crawler.CrawledFile;
+import io.yayotron.investmentassistant.crawler.LocalDocumentCrawler;
+import io.yayotron.investmentassistant.storage.EmbeddingConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and splitting with the feeder's crawler and splitters: one file on the calling thread, and a whole
+ * directory through the crawler's parallel stream, splitting on the crawler threads like the feeder does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class DocumentParsingBenchmark {
+
+    private static final int FILES = 8;
+
+    @Param({"1000", "10000"})
+    int rowsPerFile;
+
+    @Param({"recursive", "adaptive"})
+    String splitterKind;
+
+    private Path dataDirectory;
+    private LocalDocumentCrawler crawler;
+    private DocumentSplitter splitter;
+    private List<Path> files;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDirectory = Files.createTempDirectory("benchmark-data");
+        for (int i = 0; i < FILES; i++) {
+            SampleData.writeQuotes(dataDirectory.resolve("quotes-" + i + ".csv"), rowsPerFile, i);
+        }
+        crawler = new LocalDocumentCrawler(dataDirectory.toUri().toString(), 0, 16);
+        splitter = new EmbeddingConfiguration(0, "", 0, splitterKind, 250, 25, 40)
+                .documentSplitter(new SimpleMeterRegistry());
+        files = crawler.crawlFiles();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(dataDirectory);
+    }
+
+    @Benchmark
+    public List<TextSegment> parseAndSplitOneFile() {
+        Document document = crawler.loadFile(files.get(0));
+        return splitter.split(document);
+    }
+
+    @Benchmark
+    public int crawlParseAndSplitAll() {
+        int segments = 0;
+        try (CrawlStream<List<TextSegment>> stream = crawler.stream(files,
+                file -> splitter.split(crawler.loadFile(file)))) {
+            while (stream.hasNext()) {
+                CrawledFile<List<TextSegment>> crawledFile = stream.next();
+                if (crawledFile.failed()) {
+                    throw crawledFile.error();
+                }
+                segments += crawledFile.content().size();
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,56 @@
+package io.yayotron.investmentassistant.benchmarks;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per {@code embedAll} batch; segments per second is the batch size divided by the score. "caller" embeds
+ * the batch on the calling thread like the feeder's workers do, "parallel" is the model's default executor
+ * the presenter uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class EmbeddingBenchmark {
+
+    @Param({"1", "8", "32", "128"})
+    int batchSize;
+
+    @Param({"caller", "parallel"})
+    String executor;
+
+    private EmbeddingModel embeddingModel;
+    private List<TextSegment> batch;
+
+    @Setup
+    public void setUp() {
+        embeddingModel = executor.equals("caller")
+                ? new AllMiniLmL6V2EmbeddingModel(Runnable::run)
+                : new AllMiniLmL6V2EmbeddingModel();
+        batch = SampleData.segments(batchSize, 42);
+    }
+
+    @Benchmark
+    public List<Embedding> embedAll() {
+        return embeddingModel.embedAll(batch).content();
+    }
+}
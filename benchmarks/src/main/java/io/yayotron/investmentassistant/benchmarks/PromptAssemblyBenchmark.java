@@ -0,0 +1,81 @@
+package io.yayotron.investmentassistant.benchmarks;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import dev.langchain4j.model.embedding.onnx.HuggingFaceTokenCountEstimator;
+import dev.langchain4j.rag.DefaultRetrievalAugmentor;
+import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import io.yayotron.investmentassistant.cache.AnswerCache;
+import io.yayotron.investmentassistant.memory.SharedChatMemoryProvider;
+import io.yayotron.investmentassistant.model.RAGConfiguration;
+import io.yayotron.investmentassistant.prompt.FormatPromptEnricher;
+import io.yayotron.investmentassistant.prompt.InvestmentAnalystPromptEnricher;
+import io.yayotron.investmentassistant.prompt.LimitationPromptEnricher;
+import io.yayotron.investmentassistant.prompt.SystemPrompt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The system prompt chain on its own, and a whole question through {@link RAGConfiguration} with a stub chat
+ * model: memory, retrieval augmentation and prompt assembly, everything but generation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class PromptAssemblyBenchmark {
+
+    private final SystemPrompt systemPrompt = new SystemPrompt(List.of(
+            new FormatPromptEnricher(), new InvestmentAnalystPromptEnricher(), new LimitationPromptEnricher()),
+            new HuggingFaceTokenCountEstimator());
+
+    private RAGConfiguration ragConfiguration;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        InMemoryEmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
+        for (int i = 0; i < 1000; i++) {
+            embeddingStore.add(SampleData.unitVector(random), TextSegment.from(SampleData.sentence(random, 40)));
+        }
+        ragConfiguration = new RAGConfiguration(new StubChatModel(), new StubChatModel.Streaming(),
+                new SharedChatMemoryProvider(10, memoryId -> MessageWindowChatMemory.withMaxMessages(10)),
+                systemPrompt,
+                DefaultRetrievalAugmentor.builder()
+                        .contentRetriever(EmbeddingStoreContentRetriever.builder()
+                                .embeddingStore(embeddingStore)
+                                .embeddingModel(new QueryEmbeddingModel(1024, 7))
+                                .maxResults(3)
+                                .build())
+                        .build(),
+                Optional.empty(),
+                AnswerCache.disabled());
+    }
+
+    // What RAGConfiguration hands to AiServices as the system message provider, the prefix is compiled in advance
+    @Benchmark
+    public String systemPrompt() {
+        return systemPrompt.render(RAGConfiguration.DEFAULT_SESSION_ID);
+    }
+
+    @Benchmark
+    public String askWithStubModel() {
+        return ragConfiguration.ask("How should I split 1000 PLN a month between stocks and crypto?");
+    }
+}
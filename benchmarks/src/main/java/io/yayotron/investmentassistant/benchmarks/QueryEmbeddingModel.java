@@ -0,0 +1,41 @@
+package io.yayotron.investmentassistant.benchmarks;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Hands out pre-computed random query vectors in turn, so retrieval benchmarks measure the store rather than the
+ * embedding model, without every query hitting the same cached neighbourhood.
+ */
+class QueryEmbeddingModel implements EmbeddingModel {
+
+    private final List<Embedding> queries = new ArrayList<>();
+    private int next;
+
+    QueryEmbeddingModel(int queries, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < queries; i++) {
+            this.queries.add(SampleData.unitVector(random));
+        }
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+        for (int i = 0; i < textSegments.size(); i++) {
+            embeddings.add(queries.get(next++ % queries.size()));
+        }
+        return Response.from(embeddings);
+    }
+
+    @Override
+    public int dimension() {
+        return SampleData.DIMENSION;
+    }
+}
@@ -0,0 +1,106 @@
+package io.yayotron.investmentassistant.benchmarks;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import io.yayotron.investmentassistant.index.EmbeddingSnapshot;
+import io.yayotron.investmentassistant.index.EmbeddingSnapshotWriter;
+import io.yayotron.investmentassistant.index.SearchMode;
+import io.yayotron.investmentassistant.index.SearchParameters;
+import io.yayotron.investmentassistant.storage.HnswEmbeddingStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EmbeddingStoreContentRetriever} over langchain4j's in-memory store, as a brute force baseline, and over
+ * the presenter's snapshot store in each of its search modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class RetrievalBenchmark {
+
+    @Param({"1000", "20000"})
+    int segments;
+
+    @Param({"in-memory", "hnsw", "int8", "binary"})
+    String store;
+
+    private Path snapshotFile;
+    private ContentRetriever retriever;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        List<String> ids = new ArrayList<>(segments);
+        List<Embedding> embeddings = new ArrayList<>(segments);
+        List<TextSegment> textSegments = new ArrayList<>(segments);
+        for (int i = 0; i < segments; i++) {
+            ids.add("segment-" + i);
+            embeddings.add(SampleData.unitVector(random));
+            textSegments.add(TextSegment.from(SampleData.sentence(random, 40)));
+        }
+
+        EmbeddingStore<TextSegment> embeddingStore;
+        if (store.equals("in-memory")) {
+            InMemoryEmbeddingStore<TextSegment> inMemoryStore = new InMemoryEmbeddingStore<>();
+            inMemoryStore.addAll(ids, embeddings, textSegments);
+            embeddingStore = inMemoryStore;
+        } else {
+            EmbeddingSnapshotWriter writer = new EmbeddingSnapshotWriter(SampleData.DIMENSION, 16, 200);
+            for (int i = 0; i < segments; i++) {
+                writer.add(ids.get(i), embeddings.get(i).vector(), textSegments.get(i).text(), Map.of());
+            }
+            snapshotFile = Files.createTempFile("benchmark", ".snapshot");
+            writer.write(snapshotFile);
+            SearchMode mode = SearchMode.valueOf(store.toUpperCase());
+            embeddingStore = new HnswEmbeddingStore(EmbeddingSnapshot.open(snapshotFile), new SearchParameters(mode, 64, 4));
+        }
+
+        retriever = EmbeddingStoreContentRetriever.builder()
+                .embeddingStore(embeddingStore)
+                .embeddingModel(new QueryEmbeddingModel(1024, 7))
+                .maxResults(5)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (snapshotFile != null) {
+            Files.deleteIfExists(snapshotFile);
+        }
+    }
+
+    @Benchmark
+    public List<Content> retrieve() {
+        return retriever.retrieve(Query.from("How did banking stocks do last quarter?"));
+    }
+}
@@ -0,0 +1,83 @@
+package io.yayotron.investmentassistant.benchmarks;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic stand-ins for the market data and questions the applications handle.
+ */
+final class SampleData {
+
+    static final int DIMENSION = 384;
+
+    private static final String[] TICKERS = {"PKO", "PZU", "KGH", "PKN", "CDR", "ALE", "LPP", "DNP", "SPL", "PEO"};
+    private static final String[] WORDS = {"market", "index", "closed", "higher", "lower", "volume", "dividend",
+            "earnings", "guidance", "inflation", "rates", "bond", "yield", "crypto", "bitcoin", "ETF", "sector",
+            "banking", "energy", "retail", "quarter", "revenue", "margin", "analyst", "forecast", "risk", "PLN"};
+
+    private SampleData() {
+    }
+
+    static List<TextSegment> segments(int count, long seed) {
+        Random random = new Random(seed);
+        List<TextSegment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segments.add(TextSegment.from(sentence(random, 120)));
+        }
+        return segments;
+    }
+
+    static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(i % 15 == 0 ? ". " : " ");
+            }
+            sentence.append(i % 7 == 0 ? TICKERS[random.nextInt(TICKERS.length)] : WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.append('.').toString();
+    }
+
+    static Embedding unitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return Embedding.from(vector);
+    }
+
+    /**
+     * Daily quotes in the shape of the exported stock exchange files the feeder ingests.
+     */
+    static void writeQuotes(Path file, int rows, long seed) {
+        Random random = new Random(seed);
+        LocalDate date = LocalDate.of(2024, 1, 2);
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write("Date,Ticker,Open,High,Low,Close,Volume\n");
+            for (int row = 0; row < rows; row++) {
+                double open = 10 + random.nextDouble() * 490;
+                double close = open * (0.95 + random.nextDouble() * 0.1);
+                writer.write("%s,%s,%.2f,%.2f,%.2f,%.2f,%d%n".formatted(date.plusDays(row / TICKERS.length),
+                        TICKERS[row % TICKERS.length], open, Math.max(open, close) * 1.01,
+                        Math.min(open, close) * 0.99, close, random.nextInt(5_000_000)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
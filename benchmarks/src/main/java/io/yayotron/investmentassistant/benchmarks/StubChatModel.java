@@ -0,0 +1,42 @@
+package io.yayotron.investmentassistant.benchmarks;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * Answers instantly with a canned reply, so the benchmarks measure everything around the model and run offline.
+ */
+class StubChatModel implements ChatModel {
+
+    static final String ANSWER = "Split the monthly 1000 PLN between a broad index ETF and two dividend stocks.";
+
+    @Override
+    public ChatResponse doChat(ChatRequest chatRequest) {
+        return response();
+    }
+
+    private static ChatResponse response() {
+        return ChatResponse.builder()
+                .aiMessage(AiMessage.from(ANSWER))
+                .tokenUsage(new TokenUsage(1000, 20))
+                .finishReason(FinishReason.STOP)
+                .build();
+    }
+
+    static class Streaming implements StreamingChatModel {
+
+        @Override
+        public void doChat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+            for (String token : ANSWER.split("(?<= )")) {
+                handler.onPartialResponse(token);
+            }
+            handler.onCompleteResponse(response());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.yayotron.investmentassistant.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Loads the wrapped model on a daemon thread as soon as it is created, so the application carries on starting while
+ * an ONNX session is built. Embedding calls made before the model is loaded wait for it; the dimension has to be
+ * known up front, as the caches are opened before that.
+ */
+public class BackgroundEmbeddingModel implements EmbeddingModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundEmbeddingModel.class);
+
+    private final CompletableFuture<EmbeddingModel> model = new CompletableFuture<>();
+    private final int dimension;
+
+    public BackgroundEmbeddingModel(Supplier<EmbeddingModel> loader, int dimension) {
+        this.dimension = dimension;
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                model.complete(loader.get());
+                logger.info("Loaded the embedding model in the background in {} ms", System.currentTimeMillis() - start);
+            } catch (Throwable e) {
+                logger.error("Could not load the embedding model", e);
+                model.completeExceptionally(e);
+            }
+        }, "embedding-model-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Completes once the model is loaded, exceptionally if it could not be.
+     */
+    public CompletableFuture<EmbeddingModel> loaded() {
+        return model.copy();
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        return model().embedAll(textSegments);
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    private EmbeddingModel model() {
+        try {
+            return model.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("The embedding model could not be loaded", e.getCause());
+        }
+    }
+}
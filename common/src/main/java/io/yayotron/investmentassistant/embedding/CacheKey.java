@@ -0,0 +1,48 @@
+package io.yayotron.investmentassistant.embedding;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * SHA-256 of the model id and the normalized text, kept as four longs so it is cheap to hold in memory.
+ */
+record CacheKey(long first, long second, long third, long fourth) {
+
+    static final int BYTES = 4 * Long.BYTES;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    static CacheKey of(String modelId, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelId.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(normalize(text).getBytes(StandardCharsets.UTF_8));
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+            return new CacheKey(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static CacheKey read(ByteBuffer buffer, int offset) {
+        return new CacheKey(buffer.getLong(offset), buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16), buffer.getLong(offset + 24));
+    }
+
+    void write(ByteBuffer buffer, int offset) {
+        buffer.putLong(offset, first);
+        buffer.putLong(offset + 8, second);
+        buffer.putLong(offset + 16, third);
+        buffer.putLong(offset + 24, fourth);
+    }
+
+    // Whitespace does not change what the tokenizer sees, so it should not change the key either
+    static String normalize(String text) {
+        return WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC)).replaceAll(" ").strip();
+    }
+}
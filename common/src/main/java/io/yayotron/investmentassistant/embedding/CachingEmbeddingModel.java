@@ -0,0 +1,149 @@
+package io.yayotron.investmentassistant.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves embeddings from an in-memory LRU tier, then from an optional {@link DiskEmbeddingCache}, and only
+ * asks the wrapped model for texts seen in neither. Keys are content hashes of the normalized text and the
+ * model id, so identical segments and repeated queries are embedded once.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel, AutoCloseable {
+
+    private final EmbeddingModel delegate;
+    private final String modelId;
+    private final Map<CacheKey, float[]> memory;
+    private final DiskEmbeddingCache disk;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, String modelId, int memoryEntries, DiskEmbeddingCache disk) {
+        this.delegate = delegate;
+        this.modelId = modelId;
+        this.disk = disk;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, float[]> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+    }
+
+    /**
+     * Caches in memory and, unless {@code diskFile} is {@code null}, in a memory-mapped file of up to {@code diskEntries}.
+     */
+    public static CachingEmbeddingModel of(EmbeddingModel delegate, String modelId,
+                                           int memoryEntries, Path diskFile, int diskEntries) {
+        DiskEmbeddingCache disk = diskFile == null
+                ? null
+                : DiskEmbeddingCache.open(diskFile, modelId, delegate.dimension(), diskEntries);
+        return new CachingEmbeddingModel(delegate, modelId, memoryEntries, disk);
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+        Embedding[] embeddings = new Embedding[textSegments.size()];
+        Map<CacheKey, List<Integer>> missing = new LinkedHashMap<>();
+        List<TextSegment> toEmbed = new ArrayList<>();
+
+        for (int i = 0; i < textSegments.size(); i++) {
+            TextSegment textSegment = textSegments.get(i);
+            CacheKey key = CacheKey.of(modelId, textSegment.text());
+            float[] vector = lookup(key);
+            if (vector != null) {
+                embeddings[i] = Embedding.from(vector.clone());
+                continue;
+            }
+            List<Integer> positions = missing.get(key);
+            if (positions == null) {
+                positions = new ArrayList<>(1);
+                missing.put(key, positions);
+                toEmbed.add(textSegment);
+                misses.increment();
+            } else {
+                // Repeated within the same call, embedded once
+                memoryHits.increment();
+            }
+            positions.add(i);
+        }
+
+        if (toEmbed.isEmpty()) {
+            return Response.from(Arrays.asList(embeddings));
+        }
+
+        Response<List<Embedding>> response = delegate.embedAll(toEmbed);
+        int next = 0;
+        for (Map.Entry<CacheKey, List<Integer>> entry : missing.entrySet()) {
+            Embedding embedding = response.content().get(next++);
+            store(entry.getKey(), embedding.vector());
+            for (int position : entry.getValue()) {
+                embeddings[position] = Embedding.from(embedding.vector().clone());
+            }
+        }
+        return Response.from(Arrays.asList(embeddings), response.tokenUsage(), response.finishReason(), response.metadata());
+    }
+
+    @Override
+    public int dimension() {
+        return delegate.dimension();
+    }
+
+    /**
+     * The wrapped model, for callers that have to reach it past the cache, such as a warm-up.
+     */
+    public EmbeddingModel delegate() {
+        return delegate;
+    }
+
+    public EmbeddingCacheStats stats() {
+        return new EmbeddingCacheStats(memoryHits.sum(), diskHits.sum(), misses.sum());
+    }
+
+    @Override
+    public void close() {
+        if (disk != null) {
+            disk.close();
+        }
+    }
+
+    private float[] lookup(CacheKey key) {
+        float[] vector;
+        synchronized (memory) {
+            vector = memory.get(key);
+        }
+        if (vector != null) {
+            memoryHits.increment();
+            return vector;
+        }
+        if (disk != null && (vector = disk.get(key)) != null) {
+            diskHits.increment();
+            synchronized (memory) {
+                memory.put(key, vector);
+            }
+            return vector;
+        }
+        return null;
+    }
+
+    private void store(CacheKey key, float[] vector) {
+        float[] copy = vector.clone();
+        synchronized (memory) {
+            memory.put(key, copy);
+        }
+        if (disk != null) {
+            disk.put(key, copy);
+        }
+    }
+}
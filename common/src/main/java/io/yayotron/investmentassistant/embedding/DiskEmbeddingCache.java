@@ -0,0 +1,148 @@
+package io.yayotron.investmentassistant.embedding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only, memory-mapped file of fixed size entries (key followed by the vector). The whole file is
+ * mapped up front, so lookups read straight from the page cache and entries survive restarts. Once full,
+ * new embeddings are simply not persisted.
+ */
+public class DiskEmbeddingCache implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskEmbeddingCache.class);
+
+    private static final int MAGIC = 0x49414543;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int COUNT_OFFSET = 24;
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+    private final int dimension;
+    private final int capacity;
+    private final int entryBytes;
+    private final Map<CacheKey, Integer> slots = new ConcurrentHashMap<>();
+    private int count;
+    private boolean full;
+
+    private DiskEmbeddingCache(FileChannel channel, FileLock lock, String modelId, int dimension, int capacity) throws IOException {
+        this.channel = channel;
+        this.lock = lock;
+        this.dimension = dimension;
+        this.capacity = capacity;
+        this.entryBytes = CacheKey.BYTES + dimension * Float.BYTES;
+
+        long fileBytes = HEADER_BYTES + (long) capacity * entryBytes;
+        if (fileBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Embedding cache of %d entries does not fit in a single mapping".formatted(capacity));
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+
+        int modelHash = modelId.hashCode();
+        if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION && buffer.getInt(8) == dimension
+                && buffer.getInt(12) == modelHash && buffer.getInt(16) == capacity) {
+            count = buffer.getInt(COUNT_OFFSET);
+            for (int slot = 0; slot < count; slot++) {
+                slots.put(CacheKey.read(buffer, offset(slot)), slot);
+            }
+        } else {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, dimension);
+            buffer.putInt(12, modelHash);
+            buffer.putInt(16, capacity);
+            buffer.putInt(COUNT_OFFSET, 0);
+        }
+    }
+
+    /**
+     * @return the cache, or {@code null} when another process already holds the file
+     */
+    public static DiskEmbeddingCache open(Path file, String modelId, int dimension, int capacity) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                channel.close();
+                logger.warn("Embedding cache {} is in use by another process, continuing without it", file);
+                return null;
+            }
+            DiskEmbeddingCache cache = new DiskEmbeddingCache(channel, lock, modelId, dimension, capacity);
+            logger.info("Opened embedding cache {} with {} of {} entries used", file, cache.size(), capacity);
+            return cache;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    float[] get(CacheKey key) {
+        Integer slot = slots.get(key);
+        if (slot == null) {
+            return null;
+        }
+        float[] vector = new float[dimension];
+        int offset = offset(slot) + CacheKey.BYTES;
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = buffer.getFloat(offset + i * Float.BYTES);
+        }
+        return vector;
+    }
+
+    synchronized void put(CacheKey key, float[] vector) {
+        if (vector.length != dimension || slots.containsKey(key)) {
+            return;
+        }
+        if (count == capacity) {
+            if (!full) {
+                logger.warn("Embedding cache is full with {} entries, new embeddings will not be persisted", capacity);
+                full = true;
+            }
+            return;
+        }
+
+        int offset = offset(count);
+        key.write(buffer, offset);
+        for (int i = 0; i < dimension; i++) {
+            buffer.putFloat(offset + CacheKey.BYTES + i * Float.BYTES, vector[i]);
+        }
+        // Count last, so an interrupted write never exposes a half written entry
+        buffer.putInt(COUNT_OFFSET, count + 1);
+        slots.put(key, count++);
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            buffer.force();
+            lock.release();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int offset(int slot) {
+        return HEADER_BYTES + slot * entryBytes;
+    }
+}
@@ -0,0 +1,15 @@
+package io.yayotron.investmentassistant.embedding;
+
+public record EmbeddingCacheStats(long memoryHits, long diskHits, long misses) {
+
+    public double hitRate() {
+        long lookups = memoryHits + diskHits + misses;
+        return lookups == 0 ? 0 : (double) (memoryHits + diskHits) / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "memoryHits=%d, diskHits=%d, misses=%d, hitRate=%.1f%%"
+                .formatted(memoryHits, diskHits, misses, hitRate() * 100);
+    }
+}
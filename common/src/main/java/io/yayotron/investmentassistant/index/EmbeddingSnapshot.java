@@ -0,0 +1,238 @@
+package io.yayotron.investmentassistant.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static io.yayotron.investmentassistant.index.EmbeddingSnapshotWriter.*;
+
+/**
+ * Read-only view of a file written by {@link EmbeddingSnapshotWriter}. The file is memory-mapped, so vectors
+ * and the graph stay off-heap and opening it costs the same no matter how many segments it holds. A snapshot of no
+ * segments, exported once every file was deleted, finds nothing.
+ */
+public class EmbeddingSnapshot implements HnswGraph {
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int dimension;
+    private final int m;
+    private final int entryPoint;
+    private final int maxLevel;
+    private final Instant createdAt;
+    private final FloatBuffer vectors;
+    private final IntBuffer levels;
+    private final IntBuffer layer0;
+    private final IntBuffer upperIndex;
+    private final IntBuffer upperData;
+    private final long segmentIndexOffset;
+    private final float[] int8Scales;
+    private final ByteBuffer int8Codes;
+    private final LongBuffer binaryCodes;
+    private final int binaryWords;
+
+    private EmbeddingSnapshot(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not an embedding snapshot of version " + VERSION);
+        }
+        this.count = buffer.getInt(8);
+        this.dimension = buffer.getInt(12);
+        this.m = buffer.getInt(16);
+        this.entryPoint = buffer.getInt(20);
+        this.maxLevel = buffer.getInt(24);
+        this.createdAt = Instant.ofEpochMilli(buffer.getLong(32));
+        this.vectors = section(40, (long) count * dimension * Float.BYTES).asFloatBuffer();
+        this.levels = section(48, (long) count * Integer.BYTES).asIntBuffer();
+        this.layer0 = section(56, (long) count * (1 + 2L * m) * Integer.BYTES).asIntBuffer();
+        this.upperIndex = section(64, (long) count * Integer.BYTES).asIntBuffer();
+        this.upperData = section(72, buffer.getLong(80) - buffer.getLong(72)).asIntBuffer();
+        this.segmentIndexOffset = buffer.getLong(88);
+        this.int8Scales = new float[dimension];
+        section(96, (long) dimension * Float.BYTES).asFloatBuffer().get(int8Scales);
+        this.int8Codes = section(104, (long) count * dimension);
+        this.binaryWords = (dimension + 63) / 64;
+        this.binaryCodes = section(112, (long) count * binaryWords * Long.BYTES).asLongBuffer();
+    }
+
+    public static EmbeddingSnapshot open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Snapshots over 2GB are not supported: " + file);
+            }
+            return new EmbeddingSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return whether {@code file} exists and was written in the format this version reads
+     */
+    public static boolean isCurrent(Path file) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC && header.getInt(4) == VERSION;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<Neighbor> search(float[] query, int k, SearchParameters parameters) {
+        if (count == 0) {
+            return List.of();
+        }
+        return switch (parameters.mode()) {
+            case EXACT -> exactSearch(query, k);
+            case HNSW -> search(query, k, parameters.ef());
+            case INT8 -> rerank(query, k, int8Candidates(query, k * parameters.oversampling()));
+            case BINARY -> rerank(query, k, binaryCandidates(query, k * parameters.oversampling()));
+        };
+    }
+
+    public List<Neighbor> exactSearch(float[] query, int k) {
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbor::similarity));
+        for (int node = 0; node < count; node++) {
+            offer(best, new Neighbor(node, similarity(query, node)), k);
+        }
+        return best.stream().sorted(Neighbor.MOST_SIMILAR_FIRST).toList();
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    public float[] vector(int node) {
+        float[] vector = new float[dimension];
+        vectors.get(node * dimension, vector);
+        return vector;
+    }
+
+    public SnapshotSegment segment(int node) {
+        return SegmentReader.read(buffer, (int) buffer.getLong((int) segmentIndexOffset + node * Long.BYTES));
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int entryPoint() {
+        return entryPoint;
+    }
+
+    @Override
+    public int maxLevel() {
+        return maxLevel;
+    }
+
+    @Override
+    public int neighborCount(int node, int level) {
+        return level == 0
+                ? layer0.get(node * (1 + 2 * m))
+                : upperData.get(upperSlot(node, level));
+    }
+
+    @Override
+    public int neighbor(int node, int level, int index) {
+        return level == 0
+                ? layer0.get(node * (1 + 2 * m) + 1 + index)
+                : upperData.get(upperSlot(node, level) + 1 + index);
+    }
+
+    @Override
+    public float similarity(float[] query, int node) {
+        int offset = node * dimension;
+        float sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += query[i] * vectors.get(offset + i);
+        }
+        return sum;
+    }
+
+    // The query stays in floats, scaled by the step of each dimension, so only the stored side is quantized
+    private int[] int8Candidates(float[] query, int candidates) {
+        float[] scaledQuery = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            scaledQuery[i] = query[i] * int8Scales[i];
+        }
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbor::similarity));
+        for (int node = 0; node < count; node++) {
+            int offset = node * dimension;
+            float similarity = 0;
+            for (int i = 0; i < dimension; i++) {
+                similarity += scaledQuery[i] * int8Codes.get(offset + i);
+            }
+            offer(best, new Neighbor(node, similarity), candidates);
+        }
+        return best.stream().mapToInt(Neighbor::node).toArray();
+    }
+
+    private int[] binaryCandidates(float[] query, int candidates) {
+        long[] queryBits = EmbeddingSnapshotWriter.signBits(query);
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbor::similarity));
+        for (int node = 0; node < count; node++) {
+            int offset = node * binaryWords;
+            int distance = 0;
+            for (int i = 0; i < binaryWords; i++) {
+                distance += Long.bitCount(queryBits[i] ^ binaryCodes.get(offset + i));
+            }
+            offer(best, new Neighbor(node, -distance), candidates);
+        }
+        return best.stream().mapToInt(Neighbor::node).toArray();
+    }
+
+    private List<Neighbor> rerank(float[] query, int k, int[] candidates) {
+        return Arrays.stream(candidates)
+                .mapToObj(node -> new Neighbor(node, similarity(query, node)))
+                .sorted(Neighbor.MOST_SIMILAR_FIRST)
+                .limit(k)
+                .toList();
+    }
+
+    private static void offer(PriorityQueue<Neighbor> best, Neighbor neighbor, int limit) {
+        if (best.size() < limit) {
+            best.add(neighbor);
+        } else if (neighbor.similarity() > best.peek().similarity()) {
+            best.poll();
+            best.add(neighbor);
+        }
+    }
+
+    public int level(int node) {
+        return levels.get(node);
+    }
+
+    private int upperSlot(int node, int level) {
+        return upperIndex.get(node) + (level - 1) * (1 + m);
+    }
+
+    private ByteBuffer section(int offsetField, long length) {
+        int offset = (int) buffer.getLong(offsetField);
+        return buffer.slice(offset, (int) length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,245 @@
+package io.yayotron.investmentassistant.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Collects segments with their embeddings, indexes them in an HNSW graph and writes everything to a file
+ * that {@link EmbeddingSnapshot} maps without rebuilding anything.
+ *
+ * <pre>
+ * header   magic, version, count, dimension, m, entry point, max level, created at, section offsets
+ * vectors  count * dimension floats, unit length
+ * levels   count ints
+ * layer 0  count * (1 + 2m) ints, neighbor count followed by the neighbor slots
+ * upper    count ints pointing into the upper layer data (-1 when the node only lives on layer 0),
+ *          then level * (1 + m) ints per node
+ * segments id, text and metadata per segment
+ * index    count + 1 longs, where each segment starts
+ * scales   dimension floats, the int8 step of each dimension
+ * int8     count * dimension bytes, each component divided by the step of its dimension
+ * binary   count * ceil(dimension / 64) longs, one sign bit per component
+ * </pre>
+ * All numbers are little-endian.
+ */
+public class EmbeddingSnapshotWriter {
+
+    static final int MAGIC = 0x49414553;
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 128;
+
+    static final byte STRING = 1;
+    static final byte INTEGER = 2;
+    static final byte LONG = 3;
+    static final byte FLOAT = 4;
+    static final byte DOUBLE = 5;
+    static final byte UUID_VALUE = 6;
+
+    private final int dimension;
+    private final HnswGraphBuilder graph;
+    private final List<SnapshotSegment> segments = new ArrayList<>();
+
+    public EmbeddingSnapshotWriter(int dimension, int m, int efConstruction) {
+        this.dimension = dimension;
+        this.graph = new HnswGraphBuilder(m, efConstruction);
+    }
+
+    public void add(String id, float[] vector, String text, Map<String, Object> metadata) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected %d dimensions but got %d".formatted(dimension, vector.length));
+        }
+        graph.add(VectorMath.normalize(vector));
+        segments.add(new SnapshotSegment(id, text, metadata));
+    }
+
+    public int size() {
+        return segments.size();
+    }
+
+    /**
+     * Writes next to {@code file} first and moves it into place, so readers never see a partial snapshot.
+     */
+    public void write(Path file) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeTo(channel);
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeTo(FileChannel channel) throws IOException {
+        int count = segments.size();
+        int m = graph.m();
+        int m0 = graph.maxConnections(0);
+        SnapshotOutput output = new SnapshotOutput(channel, HEADER_BYTES);
+
+        long vectorsOffset = output.position();
+        for (int node = 0; node < count; node++) {
+            for (float value : graph.vector(node)) {
+                output.putFloat(value);
+            }
+        }
+
+        long levelsOffset = output.position();
+        for (int node = 0; node < count; node++) {
+            output.putInt(graph.level(node));
+        }
+
+        long layer0Offset = output.position();
+        for (int node = 0; node < count; node++) {
+            writeNeighbors(output, node, 0, m0);
+        }
+
+        long upperIndexOffset = output.position();
+        int upperPosition = 0;
+        for (int node = 0; node < count; node++) {
+            int level = graph.level(node);
+            output.putInt(level == 0 ? -1 : upperPosition);
+            upperPosition += level * (1 + m);
+        }
+        long upperDataOffset = output.position();
+        for (int node = 0; node < count; node++) {
+            for (int level = 1; level <= graph.level(node); level++) {
+                writeNeighbors(output, node, level, m);
+            }
+        }
+
+        long segmentsOffset = output.position();
+        long[] segmentPositions = new long[count + 1];
+        for (int node = 0; node < count; node++) {
+            segmentPositions[node] = output.position();
+            writeSegment(output, segments.get(node));
+        }
+        segmentPositions[count] = output.position();
+        output.padTo(Long.BYTES);
+        long segmentIndexOffset = output.position();
+        for (long segmentPosition : segmentPositions) {
+            output.putLong(segmentPosition);
+        }
+
+        float[] scales = int8Scales(count);
+        long scalesOffset = output.position();
+        for (float scale : scales) {
+            output.putFloat(scale);
+        }
+        long int8Offset = output.position();
+        for (int node = 0; node < count; node++) {
+            float[] vector = graph.vector(node);
+            for (int i = 0; i < dimension; i++) {
+                output.putByte(scales[i] == 0 ? 0 : (byte) Math.round(vector[i] / scales[i]));
+            }
+        }
+        output.padTo(Long.BYTES);
+        long binaryOffset = output.position();
+        for (int node = 0; node < count; node++) {
+            for (long word : signBits(graph.vector(node))) {
+                output.putLong(word);
+            }
+        }
+        output.flush();
+
+        // Header last, once every offset is known
+        SnapshotOutput header = new SnapshotOutput(channel, 0);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(count);
+        header.putInt(dimension);
+        header.putInt(m);
+        header.putInt(graph.entryPoint());
+        header.putInt(graph.maxLevel());
+        header.putInt(0);
+        header.putLong(System.currentTimeMillis());
+        header.putLong(vectorsOffset);
+        header.putLong(levelsOffset);
+        header.putLong(layer0Offset);
+        header.putLong(upperIndexOffset);
+        header.putLong(upperDataOffset);
+        header.putLong(segmentsOffset);
+        header.putLong(segmentIndexOffset);
+        header.putLong(scalesOffset);
+        header.putLong(int8Offset);
+        header.putLong(binaryOffset);
+        header.padTo(HEADER_BYTES);
+        header.flush();
+    }
+
+    // Symmetric per-dimension steps, so that the largest magnitude of each dimension maps to 127
+    private float[] int8Scales(int count) {
+        float[] scales = new float[dimension];
+        for (int node = 0; node < count; node++) {
+            float[] vector = graph.vector(node);
+            for (int i = 0; i < dimension; i++) {
+                scales[i] = Math.max(scales[i], Math.abs(vector[i]));
+            }
+        }
+        for (int i = 0; i < dimension; i++) {
+            scales[i] /= 127;
+        }
+        return scales;
+    }
+
+    static long[] signBits(float[] vector) {
+        long[] words = new long[(vector.length + 63) / 64];
+        for (int i = 0; i < vector.length; i++) {
+            if (vector[i] > 0) {
+                words[i / 64] |= 1L << (i % 64);
+            }
+        }
+        return words;
+    }
+
+    private void writeNeighbors(SnapshotOutput output, int node, int level, int slots) throws IOException {
+        int neighborCount = graph.neighborCount(node, level);
+        output.putInt(neighborCount);
+        for (int i = 0; i < slots; i++) {
+            output.putInt(i < neighborCount ? graph.neighbor(node, level, i) : -1);
+        }
+    }
+
+    static void writeSegment(SnapshotOutput output, SnapshotSegment segment) throws IOException {
+        output.putString(segment.id());
+        output.putString(segment.text());
+        output.putInt(segment.metadata().size());
+        for (Map.Entry<String, Object> entry : segment.metadata().entrySet()) {
+            output.putString(entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof Integer integer) {
+                output.putByte(INTEGER);
+                output.putInt(integer);
+            } else if (value instanceof Long longValue) {
+                output.putByte(LONG);
+                output.putLong(longValue);
+            } else if (value instanceof Float floatValue) {
+                output.putByte(FLOAT);
+                output.putFloat(floatValue);
+            } else if (value instanceof Double doubleValue) {
+                output.putByte(DOUBLE);
+                output.putDouble(doubleValue);
+            } else if (value instanceof UUID uuid) {
+                output.putByte(UUID_VALUE);
+                output.putString(uuid.toString());
+            } else {
+                output.putByte(STRING);
+                output.putString(String.valueOf(value));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.yayotron.investmentassistant.index;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Read access to a hierarchical navigable small world graph over unit-length vectors, where similarity is
+ * the dot product. Shared by the in-memory builder and the memory-mapped snapshot.
+ */
+public interface HnswGraph {
+
+    int size();
+
+    int entryPoint();
+
+    int maxLevel();
+
+    int neighborCount(int node, int level);
+
+    int neighbor(int node, int level, int index);
+
+    float similarity(float[] query, int node);
+
+    default List<Neighbor> search(float[] query, int k, int ef) {
+        if (size() == 0) {
+            return List.of();
+        }
+        Neighbor entry = new Neighbor(entryPoint(), similarity(query, entryPoint()));
+        for (int level = maxLevel(); level > 0; level--) {
+            entry = greedySearch(query, entry, level);
+        }
+        PriorityQueue<Neighbor> results = searchLayer(query, entry, Math.max(ef, k), 0, new BitSet(size()));
+        return results.stream()
+                .sorted(Neighbor.MOST_SIMILAR_FIRST)
+                .limit(k)
+                .toList();
+    }
+
+    default Neighbor greedySearch(float[] query, Neighbor entry, int level) {
+        Neighbor current = entry;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < neighborCount(current.node(), level); i++) {
+                int candidate = neighbor(current.node(), level, i);
+                float similarity = similarity(query, candidate);
+                if (similarity > current.similarity()) {
+                    current = new Neighbor(candidate, similarity);
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Beam search of width {@code ef} on one layer.
+     *
+     * @return a min-heap (least similar on top) of the {@code ef} best nodes found
+     */
+    default PriorityQueue<Neighbor> searchLayer(float[] query, Neighbor entry, int ef, int level, BitSet visited) {
+        PriorityQueue<Neighbor> candidates = new PriorityQueue<>(Neighbor.MOST_SIMILAR_FIRST);
+        PriorityQueue<Neighbor> results = new PriorityQueue<>(Comparator.comparingDouble(Neighbor::similarity));
+        visited.set(entry.node());
+        candidates.add(entry);
+        results.add(entry);
+
+        while (!candidates.isEmpty()) {
+            Neighbor closest = candidates.poll();
+            if (closest.similarity() < results.peek().similarity() && results.size() >= ef) {
+                break;
+            }
+            for (int i = 0; i < neighborCount(closest.node(), level); i++) {
+                int candidate = neighbor(closest.node(), level, i);
+                if (visited.get(candidate)) {
+                    continue;
+                }
+                visited.set(candidate);
+                float similarity = similarity(query, candidate);
+                if (results.size() < ef || similarity > results.peek().similarity()) {
+                    Neighbor neighbor = new Neighbor(candidate, similarity);
+                    candidates.add(neighbor);
+                    results.add(neighbor);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    record Neighbor(int node, float similarity) {
+
+        public static final Comparator<Neighbor> MOST_SIMILAR_FIRST =
+                Comparator.comparingDouble(Neighbor::similarity).reversed();
+    }
+}
@@ -0,0 +1,151 @@
+package io.yayotron.investmentassistant.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds an {@link HnswGraph} in memory. Upper layers keep up to {@code m} neighbors per node and the
+ * bottom layer up to {@code 2 * m}, chosen with the diversity heuristic from the HNSW paper.
+ */
+public class HnswGraphBuilder implements HnswGraph {
+
+    private final List<float[]> vectors = new ArrayList<>();
+    private final List<int[][]> neighbors = new ArrayList<>();
+    private final int m;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswGraphBuilder(int m, int efConstruction) {
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    /**
+     * @param vector a unit-length vector
+     * @return the node id, which is the insertion order
+     */
+    public int add(float[] vector) {
+        int node = vectors.size();
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        int[][] nodeNeighbors = new int[level + 1][];
+        Arrays.fill(nodeNeighbors, new int[0]);
+        vectors.add(vector);
+        neighbors.add(nodeNeighbors);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        Neighbor entry = new Neighbor(entryPoint, similarity(vector, entryPoint));
+        for (int l = maxLevel; l > level; l--) {
+            entry = greedySearch(vector, entry, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Neighbor> candidates = searchLayer(vector, entry, efConstruction, l, new BitSet(node + 1)).stream()
+                    .sorted(Neighbor.MOST_SIMILAR_FIRST)
+                    .toList();
+            nodeNeighbors[l] = selectNeighbors(candidates, maxConnections(l));
+            for (int neighbor : nodeNeighbors[l]) {
+                connect(neighbor, node, l);
+            }
+            entry = candidates.get(0);
+        }
+
+        if (level > maxLevel) {
+            entryPoint = node;
+            maxLevel = level;
+        }
+        return node;
+    }
+
+    public int m() {
+        return m;
+    }
+
+    public int maxConnections(int level) {
+        return level == 0 ? 2 * m : m;
+    }
+
+    public int level(int node) {
+        return neighbors.get(node).length - 1;
+    }
+
+    public float[] vector(int node) {
+        return vectors.get(node);
+    }
+
+    @Override
+    public int size() {
+        return vectors.size();
+    }
+
+    @Override
+    public int entryPoint() {
+        return entryPoint;
+    }
+
+    @Override
+    public int maxLevel() {
+        return maxLevel;
+    }
+
+    @Override
+    public int neighborCount(int node, int level) {
+        return neighbors.get(node)[level].length;
+    }
+
+    @Override
+    public int neighbor(int node, int level, int index) {
+        return neighbors.get(node)[level][index];
+    }
+
+    @Override
+    public float similarity(float[] query, int node) {
+        return VectorMath.dot(query, vectors.get(node));
+    }
+
+    private void connect(int node, int newNeighbor, int level) {
+        int[] current = neighbors.get(node)[level];
+        int[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = newNeighbor;
+        if (extended.length <= maxConnections(level)) {
+            neighbors.get(node)[level] = extended;
+            return;
+        }
+
+        float[] vector = vectors.get(node);
+        List<Neighbor> candidates = Arrays.stream(extended)
+                .mapToObj(candidate -> new Neighbor(candidate, similarity(vector, candidate)))
+                .sorted(Neighbor.MOST_SIMILAR_FIRST)
+                .toList();
+        neighbors.get(node)[level] = selectNeighbors(candidates, maxConnections(level));
+    }
+
+    // Prefers candidates that are closer to the node than to any neighbor already picked, then fills up
+    private int[] selectNeighbors(List<Neighbor> candidates, int maxConnections) {
+        List<Neighbor> selected = new ArrayList<>(maxConnections);
+        List<Neighbor> discarded = new ArrayList<>();
+        for (Neighbor candidate : candidates) {
+            if (selected.size() == maxConnections) {
+                break;
+            }
+            float[] candidateVector = vectors.get(candidate.node());
+            boolean diverse = selected.stream()
+                    .noneMatch(picked -> similarity(candidateVector, picked.node()) > candidate.similarity());
+            (diverse ? selected : discarded).add(candidate);
+        }
+        for (int i = 0; i < discarded.size() && selected.size() < maxConnections; i++) {
+            selected.add(discarded.get(i));
+        }
+        return selected.stream().mapToInt(Neighbor::node).toArray();
+    }
+}
@@ -0,0 +1,35 @@
+package io.yayotron.investmentassistant.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into the terms of the lexical index: lower case, diacritics folded (so a query typed without
+ * Polish letters still matches), cut on anything that is not a letter or a digit. Symbols such as CDR, BTC or
+ * ISINs stay whole.
+ */
+public final class LexicalAnalyzer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private LexicalAnalyzer() {
+    }
+
+    public static List<String> terms(String text) {
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .replace('\u0142', 'l')
+                .replace('\u0141', 'L')
+                .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(folded)) {
+            if (term.length() > 1 || (!term.isEmpty() && Character.isDigit(term.charAt(0)))) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
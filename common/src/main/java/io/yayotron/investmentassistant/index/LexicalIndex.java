@@ -0,0 +1,189 @@
+package io.yayotron.investmentassistant.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import static io.yayotron.investmentassistant.index.LexicalIndexWriter.MAGIC;
+import static io.yayotron.investmentassistant.index.LexicalIndexWriter.VERSION;
+
+/**
+ * Read-only BM25 index over a file written by {@link LexicalIndexWriter}. The vocabulary is loaded on the heap,
+ * postings and segments stay memory-mapped, so a query only decodes the postings of its own terms: a ticker that
+ * appears in a handful of segments is looked up in microseconds.
+ */
+public class LexicalIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int DENSE_RATIO = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final Instant createdAt;
+    private final float averageLength;
+    private final int lengthsOffset;
+    private final int postingsOffset;
+    private final int segmentIndexOffset;
+    private final Map<String, Term> vocabulary;
+
+    private LexicalIndex(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a lexical index of version " + VERSION);
+        }
+        this.count = buffer.getInt(8);
+        int termCount = buffer.getInt(12);
+        this.createdAt = Instant.ofEpochMilli(buffer.getLong(16));
+        this.averageLength = buffer.getFloat(24);
+        this.lengthsOffset = (int) buffer.getLong(32);
+        this.postingsOffset = (int) buffer.getLong(40);
+        this.segmentIndexOffset = (int) buffer.getLong(56);
+        this.vocabulary = readVocabulary((int) buffer.getLong(48), termCount);
+    }
+
+    public static LexicalIndex open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Lexical indexes over 2GB are not supported: " + file);
+            }
+            return new LexicalIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return whether {@code file} exists and was written in the format this version reads
+     */
+    public static boolean isCurrent(Path file) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC && header.getInt(4) == VERSION;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int terms() {
+        return vocabulary.size();
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return the {@code k} best documents by BM25, best first; terms are counted once however often they repeat
+     */
+    public List<LexicalMatch> search(String query, int k) {
+        List<Term> terms = LexicalAnalyzer.terms(query).stream()
+                .distinct()
+                .map(vocabulary::get)
+                .filter(Objects::nonNull)
+                .toList();
+        long postings = terms.stream().mapToLong(Term::documentFrequency).sum();
+
+        // Rare terms (symbols, ISINs) touch a few documents, common ones most of them: sparse and dense accumulators
+        PriorityQueue<LexicalMatch> best = new PriorityQueue<>(k + 1, LexicalMatch.BEST_FIRST.reversed());
+        if (postings * DENSE_RATIO < count) {
+            Map<Integer, Float> scores = new HashMap<>();
+            terms.forEach(term -> score(term, (document, score) -> scores.merge(document, score, Float::sum)));
+            scores.forEach((document, score) -> offer(best, new LexicalMatch(document, score), k));
+        } else {
+            float[] scores = new float[count];
+            terms.forEach(term -> score(term, (document, score) -> scores[document] += score));
+            for (int document = 0; document < count; document++) {
+                if (scores[document] > 0) {
+                    offer(best, new LexicalMatch(document, scores[document]), k);
+                }
+            }
+        }
+        return best.stream().sorted(LexicalMatch.BEST_FIRST).toList();
+    }
+
+    public SnapshotSegment segment(int document) {
+        return SegmentReader.read(buffer, (int) buffer.getLong(segmentIndexOffset + document * Long.BYTES));
+    }
+
+    private void score(Term term, DocumentScore documentScore) {
+        float idf = (float) Math.log(1 + (count - term.documentFrequency() + 0.5) / (term.documentFrequency() + 0.5));
+        int position = postingsOffset + (int) term.postingsOffset();
+        int document = 0;
+        for (int i = 0; i < term.documentFrequency(); i++) {
+            int gap = 0;
+            int shift = 0;
+            byte read;
+            do {
+                read = buffer.get(position++);
+                gap |= (read & 0x7F) << shift;
+                shift += 7;
+            } while (read < 0);
+            int frequency = 0;
+            shift = 0;
+            do {
+                read = buffer.get(position++);
+                frequency |= (read & 0x7F) << shift;
+                shift += 7;
+            } while (read < 0);
+            document += gap;
+
+            float length = buffer.getInt(lengthsOffset + document * Integer.BYTES);
+            documentScore.add(document, idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength)));
+        }
+    }
+
+    private static void offer(PriorityQueue<LexicalMatch> best, LexicalMatch match, int k) {
+        if (best.size() < k) {
+            best.add(match);
+        } else if (match.score() > best.peek().score()) {
+            best.poll();
+            best.add(match);
+        }
+    }
+
+    private Map<String, Term> readVocabulary(int offset, int termCount) {
+        Map<String, Term> terms = new HashMap<>(termCount * 4 / 3 + 1);
+        int position = offset;
+        for (int i = 0; i < termCount; i++) {
+            int length = buffer.getInt(position);
+            byte[] bytes = new byte[length];
+            buffer.get(position + Integer.BYTES, bytes);
+            position += Integer.BYTES + length;
+            terms.put(new String(bytes, StandardCharsets.UTF_8), new Term(buffer.getInt(position), buffer.getLong(position + Integer.BYTES)));
+            position += Integer.BYTES + Long.BYTES;
+        }
+        return terms;
+    }
+
+    private record Term(int documentFrequency, long postingsOffset) {
+    }
+
+    @FunctionalInterface
+    private interface DocumentScore {
+
+        void add(int document, float score);
+    }
+}
@@ -0,0 +1,170 @@
+package io.yayotron.investmentassistant.index;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds an inverted index over segments for BM25 scoring and writes it to a file {@link LexicalIndex} maps.
+ *
+ * <pre>
+ * header     magic, version, document count, term count, created at, average length, section offsets
+ * lengths    document count ints, terms per document
+ * vocabulary term, document frequency and postings offset per term, in term order
+ * postings   per term, document gap and term frequency pairs as unsigned varints
+ * segments   id, text and metadata per document, encoded like the embedding snapshot
+ * index      document count + 1 longs, where each segment starts
+ * </pre>
+ * All fixed-size numbers are little-endian.
+ */
+public class LexicalIndexWriter {
+
+    static final int MAGIC = 0x4941424d;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+
+    private final List<SnapshotSegment> segments = new ArrayList<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private int[] lengths = new int[1024];
+
+    public void add(String id, String text, Map<String, Object> metadata) {
+        int document = segments.size();
+        segments.add(new SnapshotSegment(id, text, metadata));
+        List<String> terms = LexicalAnalyzer.terms(text);
+        if (document == lengths.length) {
+            lengths = Arrays.copyOf(lengths, document * 2);
+        }
+        lengths[document] = terms.size();
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new PostingList()).add(document, frequency));
+    }
+
+    public int size() {
+        return segments.size();
+    }
+
+    /**
+     * Writes next to {@code file} first and moves it into place, so readers never see a partial index.
+     */
+    public void write(Path file) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeTo(channel);
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeTo(FileChannel channel) throws IOException {
+        int count = segments.size();
+        Map<String, PostingList> vocabulary = new TreeMap<>(postings);
+        SnapshotOutput output = new SnapshotOutput(channel, HEADER_BYTES);
+
+        long lengthsOffset = output.position();
+        long totalLength = 0;
+        for (int document = 0; document < count; document++) {
+            output.putInt(lengths[document]);
+            totalLength += lengths[document];
+        }
+
+        // Postings go first, the vocabulary refers to them by offset relative to their section
+        long postingsOffset = output.position();
+        Map<String, Long> postingPositions = new HashMap<>();
+        for (Map.Entry<String, PostingList> entry : vocabulary.entrySet()) {
+            postingPositions.put(entry.getKey(), output.position() - postingsOffset);
+            entry.getValue().writeTo(output);
+        }
+
+        long vocabularyOffset = output.position();
+        for (Map.Entry<String, PostingList> entry : vocabulary.entrySet()) {
+            output.putString(entry.getKey());
+            output.putInt(entry.getValue().documentFrequency());
+            output.putLong(postingPositions.get(entry.getKey()));
+        }
+
+        long segmentsOffset = output.position();
+        long[] segmentPositions = new long[count + 1];
+        for (int document = 0; document < count; document++) {
+            segmentPositions[document] = output.position();
+            EmbeddingSnapshotWriter.writeSegment(output, segments.get(document));
+        }
+        segmentPositions[count] = output.position();
+        output.padTo(Long.BYTES);
+        long segmentIndexOffset = output.position();
+        for (long segmentPosition : segmentPositions) {
+            output.putLong(segmentPosition);
+        }
+        output.flush();
+
+        SnapshotOutput header = new SnapshotOutput(channel, 0);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(count);
+        header.putInt(vocabulary.size());
+        header.putLong(System.currentTimeMillis());
+        header.putFloat(count == 0 ? 0 : (float) totalLength / count);
+        header.putInt(0);
+        header.putLong(lengthsOffset);
+        header.putLong(postingsOffset);
+        header.putLong(vocabularyOffset);
+        header.putLong(segmentIndexOffset);
+        header.padTo(HEADER_BYTES);
+        header.flush();
+    }
+
+    private static class PostingList {
+
+        private int[] entries = new int[4];
+        private int size;
+
+        void add(int document, int frequency) {
+            if (size + 2 > entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entries[size++] = document;
+            entries[size++] = frequency;
+        }
+
+        int documentFrequency() {
+            return size / 2;
+        }
+
+        void writeTo(SnapshotOutput output) throws IOException {
+            int previous = 0;
+            for (int i = 0; i < size; i += 2) {
+                putVarint(output, entries[i] - previous);
+                putVarint(output, entries[i + 1]);
+                previous = entries[i];
+            }
+        }
+
+        private static void putVarint(SnapshotOutput output, int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                output.putByte((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            output.putByte((byte) value);
+        }
+    }
+}
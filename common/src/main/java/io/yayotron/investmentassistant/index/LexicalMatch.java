@@ -0,0 +1,8 @@
+package io.yayotron.investmentassistant.index;
+
+import java.util.Comparator;
+
+public record LexicalMatch(int document, float score) {
+
+    static final Comparator<LexicalMatch> BEST_FIRST = Comparator.comparingDouble(LexicalMatch::score).reversed();
+}
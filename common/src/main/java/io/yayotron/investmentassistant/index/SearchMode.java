@@ -0,0 +1,20 @@
+package io.yayotron.investmentassistant.index;
+
+public enum SearchMode {
+    /**
+     * Brute force over the full precision vectors, the reference for recall.
+     */
+    EXACT,
+    /**
+     * Graph traversal over the full precision vectors.
+     */
+    HNSW,
+    /**
+     * Scan over one byte per dimension, then re-rank the best candidates at full precision.
+     */
+    INT8,
+    /**
+     * Scan over one bit per dimension by Hamming distance, then re-rank the best candidates at full precision.
+     */
+    BINARY
+}
@@ -0,0 +1,8 @@
+package io.yayotron.investmentassistant.index;
+
+/**
+ * @param ef           beam width of the HNSW search
+ * @param oversampling candidates kept per requested result by the quantized first pass, before re-ranking
+ */
+public record SearchParameters(SearchMode mode, int ef, int oversampling) {
+}
@@ -0,0 +1,74 @@
+package io.yayotron.investmentassistant.index;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Recall and latency of each {@link SearchMode} against exact search, measured on queries made by perturbing
+ * vectors sampled from the snapshot itself.
+ */
+public record SearchQualityReport(int queries, int k, List<Row> rows) {
+
+    public record Row(SearchParameters parameters, double recall, Duration meanLatency) {
+    }
+
+    public static SearchQualityReport measure(EmbeddingSnapshot snapshot, int queries, int k,
+                                              List<SearchParameters> candidates) {
+        Random random = new Random(42);
+        List<float[]> queryVectors = new ArrayList<>(queries);
+        for (int i = 0; i < queries; i++) {
+            float[] vector = snapshot.vector(random.nextInt(snapshot.size()));
+            float noise = (float) (0.5 / Math.sqrt(vector.length));
+            for (int d = 0; d < vector.length; d++) {
+                vector[d] += (float) random.nextGaussian() * noise;
+            }
+            queryVectors.add(VectorMath.normalize(vector));
+        }
+
+        List<Row> rows = new ArrayList<>();
+        SearchParameters exact = new SearchParameters(SearchMode.EXACT, 0, 1);
+        List<Set<Integer>> expected = new ArrayList<>(queries);
+        long exactNanos = 0;
+        for (float[] query : queryVectors) {
+            long start = System.nanoTime();
+            expected.add(nodes(snapshot.search(query, k, exact)));
+            exactNanos += System.nanoTime() - start;
+        }
+        rows.add(new Row(exact, 1, Duration.ofNanos(exactNanos / Math.max(1, queries))));
+
+        for (SearchParameters parameters : candidates) {
+            long found = 0;
+            long nanos = 0;
+            for (int i = 0; i < queries; i++) {
+                long start = System.nanoTime();
+                Set<Integer> actual = nodes(snapshot.search(queryVectors.get(i), k, parameters));
+                nanos += System.nanoTime() - start;
+                found += actual.stream().filter(expected.get(i)::contains).count();
+            }
+            int relevant = expected.stream().mapToInt(Set::size).sum();
+            rows.add(new Row(parameters, relevant == 0 ? 1 : (double) found / relevant,
+                    Duration.ofNanos(nanos / Math.max(1, queries))));
+        }
+        return new SearchQualityReport(queries, k, rows);
+    }
+
+    private static Set<Integer> nodes(List<HnswGraph.Neighbor> neighbors) {
+        return neighbors.stream().map(HnswGraph.Neighbor::node).collect(Collectors.toSet());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(
+                "Search quality over %d queries, recall@%d:".formatted(queries, k));
+        for (Row row : rows) {
+            report.append("%n  %-6s ef=%-4d oversampling=%-3d recall=%.3f latency=%dus".formatted(
+                    row.parameters().mode(), row.parameters().ef(), row.parameters().oversampling(),
+                    row.recall(), row.meanLatency().toNanos() / 1000));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package io.yayotron.investmentassistant.index;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.yayotron.investmentassistant.index.EmbeddingSnapshotWriter.*;
+
+/**
+ * Decodes a segment written by {@link EmbeddingSnapshotWriter#writeSegment}, reading absolute positions so the
+ * mapped buffer can be shared between threads.
+ */
+final class SegmentReader {
+
+    private final ByteBuffer buffer;
+    private int position;
+
+    private SegmentReader(ByteBuffer buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    static SnapshotSegment read(ByteBuffer buffer, int position) {
+        SegmentReader reader = new SegmentReader(buffer, position);
+        String id = reader.string();
+        String text = reader.string();
+        int metadataSize = reader.integer();
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        for (int i = 0; i < metadataSize; i++) {
+            String key = reader.string();
+            byte type = buffer.get(reader.position++);
+            metadata.put(key, switch (type) {
+                case INTEGER -> reader.integer();
+                case LONG -> reader.longValue();
+                case FLOAT -> reader.floatValue();
+                case DOUBLE -> reader.doubleValue();
+                case UUID_VALUE -> UUID.fromString(reader.string());
+                default -> reader.string();
+            });
+        }
+        return new SnapshotSegment(id, text, metadata);
+    }
+
+    private int integer() {
+        int value = buffer.getInt(position);
+        position += Integer.BYTES;
+        return value;
+    }
+
+    private long longValue() {
+        long value = buffer.getLong(position);
+        position += Long.BYTES;
+        return value;
+    }
+
+    private float floatValue() {
+        float value = buffer.getFloat(position);
+        position += Float.BYTES;
+        return value;
+    }
+
+    private double doubleValue() {
+        double value = buffer.getDouble(position);
+        position += Double.BYTES;
+        return value;
+    }
+
+    private String string() {
+        int length = integer();
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        position += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
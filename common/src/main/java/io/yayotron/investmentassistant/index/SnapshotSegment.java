@@ -0,0 +1,6 @@
+package io.yayotron.investmentassistant.index;
+
+import java.util.Map;
+
+public record SnapshotSegment(String id, String text, Map<String, Object> metadata) {
+}
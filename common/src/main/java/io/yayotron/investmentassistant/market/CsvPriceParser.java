@@ -0,0 +1,114 @@
+package io.yayotron.investmentassistant.market;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads daily bars from CSV files as exported by stooq and most brokers. Columns are found by header name, in
+ * English or Polish, with or without angle brackets ({@code <CLOSE>}). A ticker column splits one file into several
+ * instruments, otherwise the file name is the symbol ({@code cdr_d.csv} is CDR).
+ */
+public final class CsvPriceParser {
+
+    private static final DateTimeFormatter BASIC_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final Map<String, String> COLUMN_ALIASES = Map.ofEntries(
+            Map.entry("date", "date"), Map.entry("data", "date"),
+            Map.entry("open", "open"), Map.entry("otwarcie", "open"),
+            Map.entry("high", "high"), Map.entry("najwyzszy", "high"),
+            Map.entry("low", "low"), Map.entry("najnizszy", "low"),
+            Map.entry("close", "close"), Map.entry("zamkniecie", "close"),
+            Map.entry("volume", "volume"), Map.entry("vol", "volume"), Map.entry("wolumen", "volume"),
+            Map.entry("ticker", "ticker"), Map.entry("symbol", "ticker"));
+
+    private CsvPriceParser() {
+    }
+
+    /**
+     * @return the series in the file, empty when it has no date and close columns (it is not price data)
+     */
+    public static List<PriceSeries> parse(Path file, String market) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return List.of();
+            }
+            String delimiter = header.contains(";") && !header.contains(",") ? ";" : ",";
+            Map<String, Integer> columns = columns(header.split(delimiter));
+            Integer date = columns.get("date");
+            Integer close = columns.get("close");
+            if (date == null || close == null) {
+                return List.of();
+            }
+            Integer ticker = columns.get("ticker");
+            String defaultSymbol = symbol(file);
+            int width = columns.values().stream().mapToInt(Integer::intValue).max().orElse(0) + 1;
+
+            Map<String, PriceSeries> series = new LinkedHashMap<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(delimiter, -1);
+                if (values.length < width) {
+                    continue;
+                }
+                try {
+                    double closePrice = Double.parseDouble(values[close].trim());
+                    String symbol = ticker == null ? defaultSymbol : values[ticker].trim().toUpperCase(Locale.ROOT);
+                    series.computeIfAbsent(symbol, key -> new PriceSeries(key, market)).add(
+                            date(values[date].trim()),
+                            number(values, columns.get("open"), closePrice),
+                            number(values, columns.get("high"), closePrice),
+                            number(values, columns.get("low"), closePrice),
+                            closePrice,
+                            (long) number(values, columns.get("volume"), 0));
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    // Blank or malformed rows (holidays, trailing summaries) are skipped
+                }
+            }
+            return List.copyOf(series.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Integer> columns(String[] header) {
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            String name = header[i].trim().replace("<", "").replace(">", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+            String column = COLUMN_ALIASES.get(name);
+            if (column != null) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        return columns;
+    }
+
+    private static String symbol(Path file) {
+        String name = file.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        String symbol = extension > 0 ? name.substring(0, extension) : name;
+        if (symbol.endsWith("_d")) {
+            symbol = symbol.substring(0, symbol.length() - 2);
+        }
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+
+    private static LocalDate date(String value) {
+        return value.length() == 8 ? LocalDate.parse(value, BASIC_DATE) : LocalDate.parse(value);
+    }
+
+    private static double number(String[] values, Integer column, double fallback) {
+        return column == null || values[column].isBlank() ? fallback : Double.parseDouble(values[column].trim());
+    }
+}
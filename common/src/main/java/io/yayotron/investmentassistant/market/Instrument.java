@@ -0,0 +1,7 @@
+package io.yayotron.investmentassistant.market;
+
+/**
+ * An instrument in {@link MarketData}, with the range of rows its bars occupy in every column.
+ */
+public record Instrument(String symbol, String market, int firstRow, int rows) {
+}
@@ -0,0 +1,37 @@
+package io.yayotron.investmentassistant.market;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Aggregates of one instrument over a date range.
+ *
+ * @param returnRate   last close over first close, minus one
+ * @param volatility   standard deviation of daily log returns, annualized over 252 sessions
+ * @param maxDrawdown  largest fall from a running peak of the close, as a positive fraction
+ */
+public record InstrumentStatistics(String symbol,
+                                   String market,
+                                   LocalDate from,
+                                   LocalDate to,
+                                   int sessions,
+                                   double firstClose,
+                                   double lastClose,
+                                   double high,
+                                   double low,
+                                   double returnRate,
+                                   double volatility,
+                                   double maxDrawdown,
+                                   double averageVolume) {
+
+    /**
+     * One line for a tool answer, a fraction of the tokens the raw rows would take.
+     */
+    public String summary() {
+        return String.format(Locale.ROOT,
+                "%s (%s) %s..%s, %d sessions: close %.2f -> %.2f, return %+.2f%%, volatility %.2f%%, "
+                        + "max drawdown %.2f%%, high %.2f, low %.2f, average volume %.0f",
+                symbol, market, from, to, sessions, firstClose, lastClose, returnRate * 100, volatility * 100,
+                maxDrawdown * 100, high, low, averageVolume);
+    }
+}
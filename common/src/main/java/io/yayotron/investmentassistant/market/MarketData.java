@@ -0,0 +1,210 @@
+package io.yayotron.investmentassistant.market;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.yayotron.investmentassistant.market.MarketDataWriter.*;
+
+/**
+ * Read-only view of a file written by {@link MarketDataWriter}. Columns stay memory-mapped and aggregations scan
+ * the primitive values of the requested rows only, so answering a numeric question touches a few kilobytes.
+ */
+public class MarketData {
+
+    private static final double SESSIONS_PER_YEAR = 252;
+
+    private final Instant createdAt;
+    private final List<Instrument> instruments;
+    private final IntBuffer dates;
+    private final DoubleBuffer high;
+    private final DoubleBuffer low;
+    private final DoubleBuffer close;
+    private final LongBuffer volume;
+
+    private MarketData(MappedByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not market data of version " + VERSION);
+        }
+        int instrumentCount = buffer.getInt(8);
+        int rows = buffer.getInt(12);
+        this.createdAt = Instant.ofEpochMilli(buffer.getLong(16));
+        this.instruments = readInstruments(buffer, (int) buffer.getLong(24), instrumentCount);
+        this.dates = section(buffer, 32, rows * Integer.BYTES).asIntBuffer();
+        this.high = section(buffer, 48, rows * Double.BYTES).asDoubleBuffer();
+        this.low = section(buffer, 56, rows * Double.BYTES).asDoubleBuffer();
+        this.close = section(buffer, 64, rows * Double.BYTES).asDoubleBuffer();
+        this.volume = section(buffer, 72, rows * Long.BYTES).asLongBuffer();
+    }
+
+    public static MarketData open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new MarketData(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return whether {@code file} exists and was written in the format this version reads
+     */
+    public static boolean isCurrent(Path file) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC && header.getInt(4) == VERSION;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    public List<Instrument> instruments() {
+        return instruments;
+    }
+
+    /**
+     * @return instruments per market, markets in alphabetical order
+     */
+    public Map<String, Integer> markets() {
+        Map<String, Integer> markets = new LinkedHashMap<>();
+        instruments.forEach(instrument -> markets.merge(instrument.market(), 1, Integer::sum));
+        return markets;
+    }
+
+    public Optional<Instrument> instrument(String symbol) {
+        return instruments.stream()
+                .filter(instrument -> instrument.symbol().equalsIgnoreCase(symbol))
+                .findFirst();
+    }
+
+    public LocalDate firstDate(Instrument instrument) {
+        return LocalDate.ofEpochDay(dates.get(instrument.firstRow()));
+    }
+
+    public LocalDate lastDate(Instrument instrument) {
+        return LocalDate.ofEpochDay(dates.get(instrument.firstRow() + instrument.rows() - 1));
+    }
+
+    /**
+     * @param from first day included, null for the start of the history
+     * @param to   last day included, null for the end of the history
+     * @return empty when fewer than two sessions fall in the range
+     */
+    public Optional<InstrumentStatistics> statistics(Instrument instrument, LocalDate from, LocalDate to) {
+        int end = instrument.firstRow() + instrument.rows();
+        int first = from == null ? instrument.firstRow() : lowerBound(instrument.firstRow(), end, (int) from.toEpochDay());
+        int last = (to == null ? end : lowerBound(instrument.firstRow(), end, (int) to.toEpochDay() + 1)) - 1;
+        if (last - first < 1) {
+            return Optional.empty();
+        }
+
+        double peak = close.get(first);
+        double maxDrawdown = 0;
+        double highest = high.get(first);
+        double lowest = low.get(first);
+        double volumes = volume.get(first);
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int row = first + 1; row <= last; row++) {
+            double price = close.get(row);
+            double logReturn = Math.log(price / close.get(row - 1));
+            sum += logReturn;
+            sumOfSquares += logReturn * logReturn;
+            peak = Math.max(peak, price);
+            maxDrawdown = Math.max(maxDrawdown, 1 - price / peak);
+            highest = Math.max(highest, high.get(row));
+            lowest = Math.min(lowest, low.get(row));
+            volumes += volume.get(row);
+        }
+        int returns = last - first;
+        double mean = sum / returns;
+        double variance = returns > 1 ? (sumOfSquares - returns * mean * mean) / (returns - 1) : 0;
+
+        return Optional.of(new InstrumentStatistics(instrument.symbol(), instrument.market(),
+                LocalDate.ofEpochDay(dates.get(first)), LocalDate.ofEpochDay(dates.get(last)), returns + 1,
+                close.get(first), close.get(last), highest, lowest,
+                close.get(last) / close.get(first) - 1,
+                Math.sqrt(Math.max(variance, 0) * SESSIONS_PER_YEAR),
+                maxDrawdown,
+                volumes / (returns + 1)));
+    }
+
+    /**
+     * @param market blank for every market
+     */
+    public List<InstrumentStatistics> rank(String market, LocalDate from, LocalDate to,
+                                           RankingMetric metric, int limit, boolean ascending) {
+        Comparator<InstrumentStatistics> order = Comparator.comparingDouble(metric::valueOf);
+        List<InstrumentStatistics> statistics = new ArrayList<>();
+        for (Instrument instrument : instruments) {
+            if (market == null || market.isBlank() || instrument.market().equalsIgnoreCase(market)) {
+                statistics(instrument, from, to).ifPresent(statistics::add);
+            }
+        }
+        return statistics.stream()
+                .sorted(ascending ? order : order.reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private int lowerBound(int start, int end, int epochDay) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dates.get(middle) < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static List<Instrument> readInstruments(ByteBuffer buffer, int offset, int count) {
+        ByteBuffer reader = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(offset);
+        List<Instrument> instruments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int firstRow = reader.getInt();
+            int rows = reader.getInt();
+            instruments.add(new Instrument(string(reader), string(reader), firstRow, rows));
+        }
+        return List.copyOf(instruments);
+    }
+
+    private static String string(ByteBuffer reader) {
+        byte[] bytes = new byte[reader.getInt()];
+        reader.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer section(ByteBuffer buffer, int offsetField, int length) {
+        return buffer.slice((int) buffer.getLong(offsetField), length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
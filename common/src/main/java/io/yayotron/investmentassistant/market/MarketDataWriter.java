@@ -0,0 +1,144 @@
+package io.yayotron.investmentassistant.market;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects daily price series and writes them column by column into a file {@link MarketData} maps as is.
+ *
+ * <pre>
+ * header      magic, version, instrument count, row count, created at, section offsets
+ * instruments first row, row count, symbol and market per instrument, ordered by market and symbol
+ * dates       row count ints, epoch days, ascending within an instrument
+ * open        row count doubles
+ * high        row count doubles
+ * low         row count doubles
+ * close       row count doubles
+ * volume      row count longs
+ * </pre>
+ * Rows of one instrument are contiguous. All numbers are little-endian.
+ */
+public class MarketDataWriter {
+
+    static final int MAGIC = 0x49414d44;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 128;
+
+    private final Map<String, PriceSeries> series = new TreeMap<>();
+
+    /**
+     * Bars of an instrument added twice are merged, a repeated date keeping the bar added last.
+     */
+    public void add(PriceSeries priceSeries) {
+        String key = priceSeries.market().toLowerCase(Locale.ROOT) + '\0' + priceSeries.symbol().toUpperCase(Locale.ROOT);
+        PriceSeries existing = series.putIfAbsent(key, priceSeries);
+        if (existing != null && existing != priceSeries) {
+            existing.addAll(priceSeries);
+        }
+    }
+
+    public int size() {
+        return series.size();
+    }
+
+    /**
+     * Writes next to {@code file} first and moves it into place, so readers never see a partial file.
+     */
+    public void write(Path file) {
+        List<PriceSeries> instruments = new ArrayList<>(series.values());
+        List<int[]> orders = instruments.stream().map(PriceSeries::chronologicalOrder).toList();
+        int rows = orders.stream().mapToInt(order -> order.length).sum();
+
+        long instrumentsBytes = 0;
+        for (PriceSeries instrument : instruments) {
+            instrumentsBytes += 2L * Integer.BYTES + stringBytes(instrument.symbol()) + stringBytes(instrument.market());
+        }
+        long instrumentsOffset = HEADER_BYTES;
+        long datesOffset = align(instrumentsOffset + instrumentsBytes);
+        long openOffset = align(datesOffset + (long) rows * Integer.BYTES);
+        long highOffset = openOffset + (long) rows * Double.BYTES;
+        long lowOffset = highOffset + (long) rows * Double.BYTES;
+        long closeOffset = lowOffset + (long) rows * Double.BYTES;
+        long volumeOffset = closeOffset + (long) rows * Double.BYTES;
+        long fileSize = volumeOffset + (long) rows * Long.BYTES;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Market data over 2GB is not supported");
+        }
+
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.deleteIfExists(temporary);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, instruments.size());
+                buffer.putInt(12, rows);
+                buffer.putLong(16, System.currentTimeMillis());
+                buffer.putLong(24, instrumentsOffset);
+                buffer.putLong(32, datesOffset);
+                buffer.putLong(40, openOffset);
+                buffer.putLong(48, highOffset);
+                buffer.putLong(56, lowOffset);
+                buffer.putLong(64, closeOffset);
+                buffer.putLong(72, volumeOffset);
+
+                buffer.position((int) instrumentsOffset);
+                int row = 0;
+                for (int i = 0; i < instruments.size(); i++) {
+                    PriceSeries instrument = instruments.get(i);
+                    int[] order = orders.get(i);
+                    buffer.putInt(row);
+                    buffer.putInt(order.length);
+                    putString(buffer, instrument.symbol());
+                    putString(buffer, instrument.market());
+                    for (int source : order) {
+                        buffer.putInt((int) datesOffset + row * Integer.BYTES, instrument.date(source));
+                        buffer.putDouble((int) openOffset + row * Double.BYTES, instrument.open(source));
+                        buffer.putDouble((int) highOffset + row * Double.BYTES, instrument.high(source));
+                        buffer.putDouble((int) lowOffset + row * Double.BYTES, instrument.low(source));
+                        buffer.putDouble((int) closeOffset + row * Double.BYTES, instrument.close(source));
+                        buffer.putLong((int) volumeOffset + row * Long.BYTES, instrument.volume(source));
+                        row++;
+                    }
+                }
+                buffer.force();
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void putString(MappedByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static int stringBytes(String value) {
+        return Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
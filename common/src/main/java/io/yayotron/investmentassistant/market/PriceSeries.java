@@ -0,0 +1,110 @@
+package io.yayotron.investmentassistant.market;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Daily bars of one instrument as parallel primitive arrays, the way {@link MarketDataWriter} lays them out.
+ */
+public class PriceSeries {
+
+    private final String symbol;
+    private final String market;
+    private int size;
+    private int[] dates = new int[256];
+    private double[] open = new double[256];
+    private double[] high = new double[256];
+    private double[] low = new double[256];
+    private double[] close = new double[256];
+    private long[] volume = new long[256];
+
+    public PriceSeries(String symbol, String market) {
+        this.symbol = symbol;
+        this.market = market;
+    }
+
+    public void add(LocalDate date, double open, double high, double low, double close, long volume) {
+        if (size == dates.length) {
+            int capacity = size * 2;
+            dates = Arrays.copyOf(dates, capacity);
+            this.open = Arrays.copyOf(this.open, capacity);
+            this.high = Arrays.copyOf(this.high, capacity);
+            this.low = Arrays.copyOf(this.low, capacity);
+            this.close = Arrays.copyOf(this.close, capacity);
+            this.volume = Arrays.copyOf(this.volume, capacity);
+        }
+        dates[size] = (int) date.toEpochDay();
+        this.open[size] = open;
+        this.high[size] = high;
+        this.low[size] = low;
+        this.close[size] = close;
+        this.volume[size] = volume;
+        size++;
+    }
+
+    /**
+     * Appends the bars of {@code other}, e.g. when one instrument is split over several files.
+     */
+    public void addAll(PriceSeries other) {
+        for (int i = 0; i < other.size; i++) {
+            add(LocalDate.ofEpochDay(other.dates[i]), other.open[i], other.high[i], other.low[i], other.close[i], other.volume[i]);
+        }
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    public String market() {
+        return market;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return row order by date, the last bar winning when a date repeats
+     */
+    int[] chronologicalOrder() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> dates[a] != dates[b] ? Integer.compare(dates[a], dates[b]) : Integer.compare(b, a));
+        int[] unique = new int[size];
+        int count = 0;
+        int previousDate = Integer.MIN_VALUE;
+        for (int row : order) {
+            if (dates[row] != previousDate) {
+                unique[count++] = row;
+                previousDate = dates[row];
+            }
+        }
+        return Arrays.copyOf(unique, count);
+    }
+
+    int date(int row) {
+        return dates[row];
+    }
+
+    double open(int row) {
+        return open[row];
+    }
+
+    double high(int row) {
+        return high[row];
+    }
+
+    double low(int row) {
+        return low[row];
+    }
+
+    double close(int row) {
+        return close[row];
+    }
+
+    long volume(int row) {
+        return volume[row];
+    }
+}
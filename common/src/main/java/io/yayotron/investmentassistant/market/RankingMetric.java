@@ -0,0 +1,21 @@
+package io.yayotron.investmentassistant.market;
+
+import java.util.function.ToDoubleFunction;
+
+public enum RankingMetric {
+
+    RETURN(InstrumentStatistics::returnRate),
+    VOLATILITY(InstrumentStatistics::volatility),
+    DRAWDOWN(InstrumentStatistics::maxDrawdown),
+    VOLUME(InstrumentStatistics::averageVolume);
+
+    private final ToDoubleFunction<InstrumentStatistics> value;
+
+    RankingMetric(ToDoubleFunction<InstrumentStatistics> value) {
+        this.value = value;
+    }
+
+    public double valueOf(InstrumentStatistics statistics) {
+        return value.applyAsDouble(statistics);
+    }
+}
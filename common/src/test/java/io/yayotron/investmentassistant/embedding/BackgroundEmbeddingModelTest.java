@@ -0,0 +1,61 @@
+package io.yayotron.investmentassistant.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BackgroundEmbeddingModelTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    void givenModelStillLoading_dimensionIsKnownAndEmbeddingWaitsForIt() {
+        BackgroundEmbeddingModel model = new BackgroundEmbeddingModel(this::slowModel, 2);
+
+        assertEquals(2, model.dimension());
+        assertFalse(model.loaded().isDone());
+
+        release.countDown();
+        assertArrayEquals(new float[]{12, 1}, model.embed("Ticker,Close").content().vector());
+    }
+
+    @Test
+    void givenModelFailingToLoad_embeddingFails() {
+        BackgroundEmbeddingModel model = new BackgroundEmbeddingModel(() -> {
+            throw new IllegalArgumentException("No ONNX runtime");
+        }, 2);
+
+        assertThrows(IllegalStateException.class, () -> model.embed("Ticker,Close"));
+    }
+
+    private EmbeddingModel slowModel() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new EmbeddingModel() {
+            @Override
+            public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+                return Response.from(textSegments.stream()
+                        .map(textSegment -> Embedding.from(new float[]{textSegment.text().length(), 1f}))
+                        .toList());
+            }
+
+            @Override
+            public int dimension() {
+                return 2;
+            }
+        };
+    }
+}
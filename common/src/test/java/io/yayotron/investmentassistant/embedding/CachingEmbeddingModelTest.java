@@ -0,0 +1,101 @@
+package io.yayotron.investmentassistant.embedding;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachingEmbeddingModelTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    private final List<String> embeddedTexts = new ArrayList<>();
+
+    private final EmbeddingModel countingModel = new EmbeddingModel() {
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            textSegments.forEach(textSegment -> embeddedTexts.add(textSegment.text()));
+            return Response.from(textSegments.stream()
+                    .map(textSegment -> Embedding.from(new float[]{textSegment.text().length(), 1f}))
+                    .toList());
+        }
+
+        @Override
+        public int dimension() {
+            return 2;
+        }
+    };
+
+    @Test
+    void givenRepeatedText_itIsEmbeddedOnce() {
+        CachingEmbeddingModel model = new CachingEmbeddingModel(countingModel, "model", 10, null);
+
+        model.embedAll(List.of(TextSegment.from("Ticker,Close"), TextSegment.from("Ticker,Close")));
+        model.embed("Ticker,Close");
+
+        assertEquals(List.of("Ticker,Close"), embeddedTexts);
+        assertEquals(new EmbeddingCacheStats(2, 0, 1), model.stats());
+    }
+
+    @Test
+    void givenWhitespaceVariants_theyShareAnEntry() {
+        CachingEmbeddingModel model = new CachingEmbeddingModel(countingModel, "model", 10, null);
+
+        model.embed("best  performer\non WSE ");
+        Embedding embedding = model.embed("best performer on WSE").content();
+
+        assertEquals(1, embeddedTexts.size());
+        assertArrayEquals(new float[]{23f, 1f}, embedding.vector());
+    }
+
+    @Test
+    void givenEvictedEntry_itIsEmbeddedAgain() {
+        CachingEmbeddingModel model = new CachingEmbeddingModel(countingModel, "model", 1, null);
+
+        model.embed("first");
+        model.embed("second");
+        model.embed("first");
+
+        assertEquals(List.of("first", "second", "first"), embeddedTexts);
+    }
+
+    @Test
+    void givenRestart_embeddingsAreServedFromDisk() {
+        Path cacheFile = cacheDirectory.resolve("embeddings.cache");
+        try (CachingEmbeddingModel model = CachingEmbeddingModel.of(countingModel, "model", 10, cacheFile, 100)) {
+            model.embed("disclaimer");
+        }
+
+        try (CachingEmbeddingModel model = CachingEmbeddingModel.of(countingModel, "model", 10, cacheFile, 100)) {
+            Embedding embedding = model.embed("disclaimer").content();
+
+            assertArrayEquals(new float[]{10f, 1f}, embedding.vector());
+            assertEquals(new EmbeddingCacheStats(0, 1, 0), model.stats());
+        }
+        assertEquals(1, embeddedTexts.size());
+    }
+
+    @Test
+    void givenOtherModel_diskEntriesAreDiscarded() {
+        Path cacheFile = cacheDirectory.resolve("embeddings.cache");
+        try (CachingEmbeddingModel model = CachingEmbeddingModel.of(countingModel, "model", 10, cacheFile, 100)) {
+            model.embed("disclaimer");
+        }
+
+        try (CachingEmbeddingModel model = CachingEmbeddingModel.of(countingModel, "other-model", 10, cacheFile, 100)) {
+            model.embed("disclaimer");
+        }
+
+        assertEquals(2, embeddedTexts.size());
+    }
+}
@@ -0,0 +1,114 @@
+package io.yayotron.investmentassistant.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddingSnapshotTest {
+
+    private static final int DIMENSION = 24;
+
+    @TempDir
+    Path snapshotDirectory;
+
+    private final Random random = new Random(7);
+
+    @Test
+    void givenWrittenSnapshot_segmentsAreReadBack() {
+        UUID uuid = UUID.randomUUID();
+        EmbeddingSnapshotWriter writer = new EmbeddingSnapshotWriter(DIMENSION, 8, 64);
+        writer.add("id-1", randomVector(), "WIG20 closed 2% higher",
+                Map.of("file_name", "wse.csv", "index", 3, "size", 4L, "score", 0.5d, "uuid", uuid));
+        Path file = snapshotDirectory.resolve("embeddings.snapshot");
+        writer.write(file);
+
+        EmbeddingSnapshot snapshot = EmbeddingSnapshot.open(file);
+        SnapshotSegment segment = snapshot.segment(0);
+
+        assertEquals(1, snapshot.size());
+        assertEquals("id-1", segment.id());
+        assertEquals("WIG20 closed 2% higher", segment.text());
+        assertEquals(Map.of("file_name", "wse.csv", "index", 3, "size", 4L, "score", 0.5d, "uuid", uuid), segment.metadata());
+    }
+
+    @Test
+    void givenEmptySnapshot_searchFindsNothing() {
+        Path file = snapshotDirectory.resolve("embeddings.snapshot");
+        new EmbeddingSnapshotWriter(0, 8, 64).write(file);
+
+        EmbeddingSnapshot snapshot = EmbeddingSnapshot.open(file);
+
+        assertEquals(0, snapshot.size());
+        for (SearchMode mode : SearchMode.values()) {
+            assertTrue(snapshot.search(randomVector(), 5, new SearchParameters(mode, 64, 4)).isEmpty());
+        }
+    }
+
+    @Test
+    void givenMappedSnapshot_searchFindsNearestNeighbors() {
+        List<float[]> vectors = new ArrayList<>();
+        EmbeddingSnapshotWriter writer = new EmbeddingSnapshotWriter(DIMENSION, 8, 100);
+        for (int i = 0; i < 2000; i++) {
+            float[] vector = randomVector();
+            vectors.add(VectorMath.normalize(vector));
+            writer.add("id-" + i, vector, "segment " + i, Map.of());
+        }
+        Path file = snapshotDirectory.resolve("embeddings.snapshot");
+        writer.write(file);
+        EmbeddingSnapshot snapshot = EmbeddingSnapshot.open(file);
+
+        int found = 0;
+        for (int query = 0; query < 50; query++) {
+            float[] queryVector = VectorMath.normalize(randomVector());
+            Set<Integer> expected = IntStream.range(0, vectors.size()).boxed()
+                    .sorted(Comparator.comparingDouble(node -> -VectorMath.dot(queryVector, vectors.get(node))))
+                    .limit(10)
+                    .collect(Collectors.toSet());
+            found += (int) snapshot.search(queryVector, 10, 64).stream()
+                    .filter(neighbor -> expected.contains(neighbor.node()))
+                    .count();
+        }
+
+        assertTrue(found / 500d > 0.9, "recall@10 was " + found / 500d);
+    }
+
+    @Test
+    void givenQuantizedSearch_rerankingKeepsRecallHigh() {
+        EmbeddingSnapshotWriter writer = new EmbeddingSnapshotWriter(DIMENSION, 8, 64);
+        for (int i = 0; i < 1000; i++) {
+            writer.add("id-" + i, randomVector(), "segment " + i, Map.of());
+        }
+        Path file = snapshotDirectory.resolve("embeddings.snapshot");
+        writer.write(file);
+        EmbeddingSnapshot snapshot = EmbeddingSnapshot.open(file);
+
+        SearchQualityReport report = SearchQualityReport.measure(snapshot, 50, 10, List.of(
+                new SearchParameters(SearchMode.INT8, 0, 4),
+                new SearchParameters(SearchMode.BINARY, 0, 10)));
+
+        assertTrue(EmbeddingSnapshot.isCurrent(file));
+        assertTrue(report.rows().get(1).recall() > 0.95, report.toString());
+        assertTrue(report.rows().get(2).recall() > 0.6, report.toString());
+    }
+
+    private float[] randomVector() {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,53 @@
+package io.yayotron.investmentassistant.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LexicalIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void givenEmptyIndex_searchFindsNothing() {
+        Path file = directory.resolve("lexical.index");
+        new LexicalIndexWriter().write(file);
+
+        LexicalIndex index = LexicalIndex.open(file);
+
+        assertEquals(0, index.size());
+        assertTrue(index.search("CDR", 3).isEmpty());
+    }
+
+    @Test
+    void givenIndexedSegments_exactSymbolsRankTheirSegmentsFirst() {
+        LexicalIndexWriter writer = new LexicalIndexWriter();
+        for (int i = 0; i < 500; i++) {
+            writer.add("filler-" + i, "Stocks on the exchange closed session " + i + " mixed, banks higher", Map.of());
+        }
+        writer.add("cdr", "CD Projekt (CDR, ISIN PLOPTTC00011) zamkni\u0119cie 180.40 PLN", Map.of("file_name", "cdr_d.csv"));
+        writer.add("btc", "BTC-USD closed above 60000, banks cautious", Map.of());
+        Path file = directory.resolve("lexical.index");
+        writer.write(file);
+
+        LexicalIndex index = LexicalIndex.open(file);
+        List<LexicalMatch> isin = index.search("What is PLOPTTC00011?", 3);
+        List<LexicalMatch> ticker = index.search("How did cdr and the banks do? zamkniecie", 3);
+        List<LexicalMatch> coin = index.search("btc", 3);
+
+        assertTrue(LexicalIndex.isCurrent(file));
+        assertEquals(502, index.size());
+        assertEquals(1, isin.size());
+        assertEquals("cdr", index.segment(isin.get(0).document()).id());
+        assertEquals(Map.of("file_name", "cdr_d.csv"), index.segment(ticker.get(0).document()).metadata());
+        assertEquals("btc", index.segment(coin.get(0).document()).id());
+        assertTrue(index.search("nothing matches this", 3).isEmpty());
+    }
+}
@@ -0,0 +1,54 @@
+package io.yayotron.investmentassistant.market;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MarketDataTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void givenParsedCsvFiles_statisticsAreComputedFromTheColumns() throws Exception {
+        Path cdr = Files.writeString(directory.resolve("cdr_d.csv"), """
+                Data,Otwarcie,Najwyzszy,Najnizszy,Zamkniecie,Wolumen
+                2025-01-03,100,112,99,110,2000
+                2025-01-02,100,101,98,100,1000
+                2025-01-06,110,111,87,88,3000
+                """);
+        Path bulk = Files.writeString(directory.resolve("bulk.csv"), """
+                <TICKER>,<PER>,<DATE>,<TIME>,<OPEN>,<HIGH>,<LOW>,<CLOSE>,<VOL>,<OPENINT>
+                PKO,D,20250102,000000,50,51,49,50,500,0
+                PKO,D,20250103,000000,50,56,50,56,700,0
+                PKN,D,20250102,000000,60,61,59,60,800,0
+                PKN,D,20250103,000000,60,61,56,57,900,0
+                """);
+        MarketDataWriter writer = new MarketDataWriter();
+        CsvPriceParser.parse(cdr, "wse").forEach(writer::add);
+        CsvPriceParser.parse(bulk, "wse").forEach(writer::add);
+        Path file = directory.resolve("market.data");
+        writer.write(file);
+
+        MarketData marketData = MarketData.open(file);
+        InstrumentStatistics statistics = marketData.statistics(marketData.instrument("cdr").orElseThrow(), null, null)
+                .orElseThrow();
+        List<InstrumentStatistics> best = marketData.rank("WSE", LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 3),
+                RankingMetric.RETURN, 2, false);
+
+        assertTrue(MarketData.isCurrent(file));
+        assertEquals(3, statistics.sessions());
+        assertEquals(-0.12, statistics.returnRate(), 1e-9);
+        assertEquals(0.2, statistics.maxDrawdown(), 1e-9);
+        assertEquals(87, statistics.low());
+        assertEquals(2000, statistics.averageVolume());
+        assertEquals(List.of("PKO", "CDR"), best.stream().map(InstrumentStatistics::symbol).toList());
+    }
+}
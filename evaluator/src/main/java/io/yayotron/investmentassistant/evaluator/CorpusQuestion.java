@@ -0,0 +1,8 @@
+package io.yayotron.investmentassistant.evaluator;
+
+/**
+ * One line of the corpus. Questions sharing a session are asked in order within one conversation; {@code expected}
+ * is an optional fragment (a file name or a phrase) at least one retrieved segment should contain.
+ */
+public record CorpusQuestion(String question, String session, String expected) {
+}
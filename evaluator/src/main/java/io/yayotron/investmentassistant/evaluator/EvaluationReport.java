@@ -0,0 +1,91 @@
+package io.yayotron.investmentassistant.evaluator;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of one replay: throughput, retrieval hit rates and latency percentiles of every timed stage.
+ *
+ * @param expectedHitRate share of questions with an {@code expected} fragment that retrieved it, null when the
+ *                        corpus sets none
+ */
+public record EvaluationReport(int questions,
+                               int failures,
+                               int concurrency,
+                               long elapsedMillis,
+                               double questionsPerSecond,
+                               double retrievalHitRate,
+                               Double expectedHitRate,
+                               List<StageLatency> stages) {
+
+    static EvaluationReport of(int questions, int failures, int concurrency, Duration elapsed,
+                               int retrievalHits, int expectedHits, int expectations, MeterRegistry meterRegistry) {
+        List<StageLatency> stages = meterRegistry.getMeters().stream()
+                .filter(Timer.class::isInstance)
+                .map(Timer.class::cast)
+                .filter(timer -> timer.getId().getName().startsWith("ai.") || timer.getId().getName().startsWith("evaluator."))
+                .filter(timer -> timer.count() > 0)
+                .map(StageLatency::of)
+                .sorted(Comparator.comparing(StageLatency::name).thenComparing(StageLatency::tags))
+                .toList();
+        int answered = questions - failures;
+        return new EvaluationReport(questions, failures, concurrency, elapsed.toMillis(),
+                elapsed.isZero() ? 0 : answered * 1000d / elapsed.toMillis(),
+                answered == 0 ? 0 : (double) retrievalHits / answered,
+                expectations == 0 ? null : (double) expectedHits / expectations,
+                stages);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "%d questions (%d failed) at concurrency %d in %d ms: %.2f questions/s, retrieval hit rate %.2f",
+                questions, failures, concurrency, elapsedMillis, questionsPerSecond, retrievalHitRate));
+        if (expectedHitRate != null) {
+            report.append(String.format(Locale.ROOT, ", expected content hit rate %.2f", expectedHitRate));
+        }
+        report.append(String.format(Locale.ROOT, "%n%-24s %-52s %8s %10s %10s %10s %10s",
+                "timer", "tags", "count", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (StageLatency stage : stages) {
+            report.append(String.format(Locale.ROOT, "%n%-24s %-52s %8d %10.1f %10.1f %10.1f %10.1f",
+                    stage.name(), stage.tags(), stage.count(), stage.p50Millis(), stage.p95Millis(), stage.p99Millis(),
+                    stage.maxMillis()));
+        }
+        return report.toString();
+    }
+
+    public record StageLatency(String name, String tags, long count,
+                               double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+
+        static StageLatency of(Timer timer) {
+            Meter.Id id = timer.getId();
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            return new StageLatency(id.getName(),
+                    id.getTags().stream().map(tag -> tag.getKey() + "=" + tag.getValue()).collect(Collectors.joining(",")),
+                    snapshot.count(),
+                    percentile(snapshot, 0.5),
+                    percentile(snapshot, 0.95),
+                    percentile(snapshot, 0.99),
+                    snapshot.max(TimeUnit.MILLISECONDS));
+        }
+
+        private static double percentile(HistogramSnapshot snapshot, double percentile) {
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                if (value.percentile() == percentile) {
+                    return value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.yayotron.investmentassistant.evaluator;
+
+import io.yayotron.investmentassistant.cache.CacheConfiguration;
+import io.yayotron.investmentassistant.cache.IngestionGenerationTracker;
+import io.yayotron.investmentassistant.metrics.ChatModelMetricsListener;
+import io.yayotron.investmentassistant.metrics.RagMetrics;
+import io.yayotron.investmentassistant.model.ChatLatencyListener;
+import io.yayotron.investmentassistant.prompt.FormatPromptEnricher;
+import io.yayotron.investmentassistant.prompt.InvestmentAnalystPromptEnricher;
+import io.yayotron.investmentassistant.prompt.LimitationPromptEnricher;
+import io.yayotron.investmentassistant.prompt.SystemPrompt;
+import io.yayotron.investmentassistant.retrieval.LatencySavings;
+import io.yayotron.investmentassistant.retrieval.RetrievalExecutorConfiguration;
+import io.yayotron.investmentassistant.storage.ContentRetrievalConfiguration;
+import io.yayotron.investmentassistant.storage.HnswEmbeddingStorageConfiguration;
+import io.yayotron.investmentassistant.storage.LexicalIndexConfiguration;
+import io.yayotron.investmentassistant.storage.MongoDbEmbeddingStorageConfiguration;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Replays a corpus of questions through the presenter's retrieval pipeline with a stub chat model, so latency
+ * and hit rates can be compared between changes without a model server. Only the chat model and the chat memory
+ * store are replaced, everything else is the presenter's own configuration.
+ */
+@SpringBootApplication
+@Import({
+        ContentRetrievalConfiguration.class,
+        RetrievalExecutorConfiguration.class,
+        MongoDbEmbeddingStorageConfiguration.class,
+        HnswEmbeddingStorageConfiguration.class,
+        LexicalIndexConfiguration.class,
+        CacheConfiguration.class,
+        IngestionGenerationTracker.class,
+        RagMetrics.class,
+        ChatModelMetricsListener.class,
+        ChatLatencyListener.class,
+        LatencySavings.class,
+        FormatPromptEnricher.class,
+        InvestmentAnalystPromptEnricher.class,
+        LimitationPromptEnricher.class,
+        SystemPrompt.class
+})
+public class EvaluatorApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.exit(SpringApplication.run(EvaluatorApplication.class, args));
+    }
+}
@@ -0,0 +1,61 @@
+package io.yayotron.investmentassistant.evaluator;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.loader.ClassPathDocumentLoader;
+import dev.langchain4j.data.document.loader.FileSystemDocumentLoader;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.HuggingFaceTokenCountEstimator;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Embeds the sample documents into an in-memory store at startup, so a replay needs neither Mongo nor a snapshot.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ai.embedding.store", havingValue = "in-memory")
+public class InMemoryEmbeddingStorageConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryEmbeddingStorageConfiguration.class);
+
+    private final String documents;
+    private final int maxSegmentTokens;
+    private final int overlapTokens;
+
+    public InMemoryEmbeddingStorageConfiguration(@Value("${evaluator.documents}") String documents,
+                                                 @Value("${evaluator.documents.segment.tokens}") int maxSegmentTokens,
+                                                 @Value("${evaluator.documents.overlap.tokens}") int overlapTokens) {
+        this.documents = documents;
+        this.maxSegmentTokens = maxSegmentTokens;
+        this.overlapTokens = overlapTokens;
+    }
+
+    @Bean
+    public EmbeddingStore<TextSegment> embeddingStore(EmbeddingModel embeddingModel) {
+        List<Document> loaded = Files.isDirectory(Path.of(documents))
+                ? FileSystemDocumentLoader.loadDocumentsRecursively(documents)
+                : ClassPathDocumentLoader.loadDocumentsRecursively(documents);
+        InMemoryEmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
+        long start = System.nanoTime();
+        EmbeddingStoreIngestor.builder()
+                .documentSplitter(DocumentSplitters.recursive(maxSegmentTokens, overlapTokens, new HuggingFaceTokenCountEstimator()))
+                .embeddingModel(embeddingModel)
+                .embeddingStore(embeddingStore)
+                .build()
+                .ingest(loaded);
+        logger.info("Embedded {} documents from {} in {} ms", loaded.size(), documents, (System.nanoTime() - start) / 1_000_000);
+        return embeddingStore;
+    }
+}
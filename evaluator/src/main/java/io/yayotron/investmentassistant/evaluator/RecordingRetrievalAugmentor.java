@@ -0,0 +1,34 @@
+package io.yayotron.investmentassistant.evaluator;
+
+import dev.langchain4j.rag.AugmentationRequest;
+import dev.langchain4j.rag.AugmentationResult;
+import dev.langchain4j.rag.RetrievalAugmentor;
+import dev.langchain4j.rag.content.Content;
+
+import java.util.List;
+
+/**
+ * Keeps what the last augmentation on the calling thread retrieved, so the harness can score it after the answer.
+ */
+class RecordingRetrievalAugmentor implements RetrievalAugmentor {
+
+    private final RetrievalAugmentor delegate;
+    private final ThreadLocal<List<Content>> retrieved = ThreadLocal.withInitial(List::of);
+
+    RecordingRetrievalAugmentor(RetrievalAugmentor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public AugmentationResult augment(AugmentationRequest augmentationRequest) {
+        AugmentationResult result = delegate.augment(augmentationRequest);
+        retrieved.set(result.contents() == null ? List.of() : result.contents());
+        return result;
+    }
+
+    List<Content> takeRetrieved() {
+        List<Content> contents = retrieved.get();
+        retrieved.remove();
+        return contents;
+    }
+}
@@ -0,0 +1,200 @@
+package io.yayotron.investmentassistant.evaluator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.rag.RetrievalAugmentor;
+import dev.langchain4j.rag.content.Content;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.yayotron.investmentassistant.cache.AnswerCache;
+import io.yayotron.investmentassistant.memory.SharedChatMemoryProvider;
+import io.yayotron.investmentassistant.model.RAGConfiguration;
+import io.yayotron.investmentassistant.prompt.SystemPrompt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asks every question of the corpus through {@link RAGConfiguration}, {@code repetitions} times, with up to
+ * {@code concurrency} conversations in flight. The questions of a session are asked one after another, like a user
+ * would, so follow-ups see the chat memory and query compression of the earlier turns.
+ */
+@Component
+public class ReplayHarness implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayHarness.class);
+
+    private final RAGConfiguration ragConfiguration;
+    private final RecordingRetrievalAugmentor retrievalAugmentor;
+    private final MeterRegistry meterRegistry;
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final String corpus;
+    private final int concurrency;
+    private final int repetitions;
+    private final String reportFile;
+
+    public ReplayHarness(ChatModel chatModel,
+                         StreamingChatModel streamingChatModel,
+                         SharedChatMemoryProvider chatMemoryProvider,
+                         SystemPrompt systemPrompt,
+                         RetrievalAugmentor retrievalAugmentor,
+                         AnswerCache answerCache,
+                         MeterRegistry meterRegistry,
+                         ResourceLoader resourceLoader,
+                         ObjectMapper objectMapper,
+                         @Value("${evaluator.corpus}") String corpus,
+                         @Value("${evaluator.concurrency}") int concurrency,
+                         @Value("${evaluator.repetitions}") int repetitions,
+                         @Value("${evaluator.report.file}") String reportFile) {
+        this.retrievalAugmentor = new RecordingRetrievalAugmentor(retrievalAugmentor);
+        this.ragConfiguration = new RAGConfiguration(chatModel, streamingChatModel, chatMemoryProvider,
+                systemPrompt, this.retrievalAugmentor, Optional.empty(), answerCache);
+        this.meterRegistry = meterRegistry;
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.corpus = corpus;
+        this.concurrency = concurrency;
+        this.repetitions = repetitions;
+        this.reportFile = reportFile;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Map<String, List<CorpusQuestion>> sessions = sessions(loadCorpus());
+        logger.info("Replaying {} sessions {} times at concurrency {}", sessions.size(), repetitions, concurrency);
+
+        Tally tally = new Tally();
+        ExecutorService conversations = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> replays = new ArrayList<>();
+            for (int repetition = 1; repetition <= repetitions; repetition++) {
+                for (Map.Entry<String, List<CorpusQuestion>> session : sessions.entrySet()) {
+                    String sessionId = repetition + "-" + session.getKey();
+                    replays.add(conversations.submit(() -> replay(sessionId, session.getValue(), tally)));
+                }
+            }
+            for (Future<?> replay : replays) {
+                replay.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replay failed", e.getCause());
+        } finally {
+            conversations.shutdownNow();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        EvaluationReport report = EvaluationReport.of(tally.questions.get(), tally.failures.get(), concurrency, elapsed,
+                tally.retrievalHits.get(), tally.expectedHits.get(), tally.expectations.get(), meterRegistry);
+        logger.info("Evaluation report\n{}", report);
+        if (!reportFile.isBlank()) {
+            Path file = Path.of(reportFile);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+            logger.info("Wrote the report to {}", file.toAbsolutePath());
+        }
+    }
+
+    private void replay(String sessionId, List<CorpusQuestion> questions, Tally tally) {
+        for (CorpusQuestion question : questions) {
+            tally.questions.incrementAndGet();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "success";
+            try {
+                ragConfiguration.ask(sessionId, question.question());
+                List<Content> retrieved = retrievalAugmentor.takeRetrieved();
+                if (!retrieved.isEmpty()) {
+                    tally.retrievalHits.incrementAndGet();
+                }
+                if (question.expected() != null && !question.expected().isBlank()) {
+                    tally.expectations.incrementAndGet();
+                    if (retrieved.stream().anyMatch(content -> contains(content, question.expected()))) {
+                        tally.expectedHits.incrementAndGet();
+                    }
+                }
+            } catch (RuntimeException e) {
+                outcome = "error";
+                tally.failures.incrementAndGet();
+                retrievalAugmentor.takeRetrieved();
+                logger.warn("Question '{}' of session {} failed", question.question(), sessionId, e);
+            }
+            sample.stop(Timer.builder("evaluator.questions")
+                    .description("Questions answered end to end, queueing in the conversation excluded")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static boolean contains(Content content, String expected) {
+        String fragment = expected.toLowerCase(Locale.ROOT);
+        String fileName = content.textSegment().metadata().getString("file_name");
+        return content.textSegment().text().toLowerCase(Locale.ROOT).contains(fragment)
+                || (fileName != null && fileName.toLowerCase(Locale.ROOT).contains(fragment));
+    }
+
+    // Questions without a session are conversations of their own
+    private static Map<String, List<CorpusQuestion>> sessions(List<CorpusQuestion> questions) {
+        Map<String, List<CorpusQuestion>> sessions = new LinkedHashMap<>();
+        for (int i = 0; i < questions.size(); i++) {
+            CorpusQuestion question = questions.get(i);
+            String session = question.session() == null || question.session().isBlank() ? "q" + i : question.session();
+            sessions.computeIfAbsent(session, key -> new ArrayList<>()).add(question);
+        }
+        return sessions;
+    }
+
+    private List<CorpusQuestion> loadCorpus() {
+        Resource resource = resourceLoader.getResource(corpus);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            List<CorpusQuestion> questions = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    questions.add(objectMapper.readValue(line, CorpusQuestion.class));
+                }
+            }
+            logger.info("Loaded {} questions from {}", questions.size(), corpus);
+            return questions;
+        } catch (IOException e) {
+            logger.error("Error reading the corpus {}", corpus, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Tally {
+
+        private final AtomicInteger questions = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger retrievalHits = new AtomicInteger();
+        private final AtomicInteger expectations = new AtomicInteger();
+        private final AtomicInteger expectedHits = new AtomicInteger();
+    }
+}
@@ -0,0 +1,96 @@
+package io.yayotron.investmentassistant.evaluator;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Answers with a canned reply after a configurable latency, standing in for the model server. Listeners are
+ * notified like for a real model, so the chat timers and token counters are filled in.
+ */
+public class StubChatModel implements ChatModel {
+
+    static final String MODEL_NAME = "stub";
+    static final String ANSWER = "Split the monthly 1000 PLN between a broad index ETF and two dividend stocks, "
+            + "rebalancing once a year.";
+
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final List<ChatModelListener> listeners;
+
+    public StubChatModel(long latencyMillis, long jitterMillis, List<ChatModelListener> listeners) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.listeners = listeners;
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest chatRequest) {
+        pause(latencyMillis, jitterMillis);
+        return response(chatRequest);
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return listeners;
+    }
+
+    private static ChatResponse response(ChatRequest chatRequest) {
+        int promptCharacters = chatRequest.messages().stream().mapToInt(message -> message.toString().length()).sum();
+        return ChatResponse.builder()
+                .aiMessage(AiMessage.from(ANSWER))
+                .modelName(MODEL_NAME)
+                .tokenUsage(new TokenUsage(promptCharacters / 4, ANSWER.length() / 4))
+                .finishReason(FinishReason.STOP)
+                .build();
+    }
+
+    private static void pause(long latencyMillis, long jitterMillis) {
+        long millis = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1) : 0);
+        try {
+            Thread.sleep(Math.max(0, millis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the answer", e);
+        }
+    }
+
+    /**
+     * Streams the canned reply word by word, the latency being spent before the first token.
+     */
+    public static class Streaming implements StreamingChatModel {
+
+        private final long latencyMillis;
+        private final long jitterMillis;
+        private final List<ChatModelListener> listeners;
+
+        public Streaming(long latencyMillis, long jitterMillis, List<ChatModelListener> listeners) {
+            this.latencyMillis = latencyMillis;
+            this.jitterMillis = jitterMillis;
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void doChat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+            pause(latencyMillis, jitterMillis);
+            for (String token : ANSWER.split("(?<= )")) {
+                handler.onPartialResponse(token);
+            }
+            handler.onCompleteResponse(response(chatRequest));
+        }
+
+        @Override
+        public List<ChatModelListener> listeners() {
+            return listeners;
+        }
+    }
+}
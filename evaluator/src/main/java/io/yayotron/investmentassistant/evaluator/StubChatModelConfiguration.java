@@ -0,0 +1,47 @@
+package io.yayotron.investmentassistant.evaluator;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.List;
+
+@Configuration
+public class StubChatModelConfiguration {
+
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final long auxiliaryLatencyMillis;
+
+    public StubChatModelConfiguration(
+            @Value("${evaluator.chat.latency.millis}") long latencyMillis,
+            @Value("${evaluator.chat.latency.jitter.millis}") long jitterMillis,
+            @Value("${evaluator.chat.auxiliary.latency.millis}") long auxiliaryLatencyMillis) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.auxiliaryLatencyMillis = auxiliaryLatencyMillis;
+    }
+
+    @Bean
+    @Primary
+    public ChatModel chatModel(List<ChatModelListener> listeners) {
+        return new StubChatModel(latencyMillis, jitterMillis, listeners);
+    }
+
+    /**
+     * Stands in for the small model the presenter compresses, routes and summarizes with.
+     */
+    @Bean
+    public ChatModel auxiliaryChatModel(List<ChatModelListener> listeners) {
+        return new StubChatModel(auxiliaryLatencyMillis, Math.min(jitterMillis, auxiliaryLatencyMillis / 2), listeners);
+    }
+
+    @Bean
+    public StreamingChatModel streamingModel(List<ChatModelListener> listeners) {
+        return new StubChatModel.Streaming(latencyMillis, jitterMillis, listeners);
+    }
+}
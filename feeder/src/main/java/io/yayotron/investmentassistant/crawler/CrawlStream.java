@@ -0,0 +1,78 @@
+package io.yayotron.investmentassistant.crawler;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Parses files on a fixed pool of workers and hands them over through a bounded queue, so workers block
+ * once the consumer falls behind and at most {@code threads + queueCapacity} parsed files are held at once.
+ * Files come out in completion order.
+ */
+public class CrawlStream<T> implements Iterator<CrawledFile<T>>, AutoCloseable {
+
+    private final BlockingQueue<CrawledFile<T>> queue;
+    private final ExecutorService executor;
+    private final int total;
+    private int received;
+
+    CrawlStream(List<Path> files, Function<Path, T> parser, int threads, int queueCapacity) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("crawler-");
+        threadFactory.setDaemon(true);
+
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory);
+        this.total = files.size();
+        files.forEach(file -> executor.execute(() -> parse(file, parser)));
+    }
+
+    @Override
+    public boolean hasNext() {
+        return received < total;
+    }
+
+    @Override
+    public CrawledFile<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            CrawledFile<T> crawledFile = queue.take();
+            received++;
+            return crawledFile;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for crawled files", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void parse(Path file, Function<Path, T> parser) {
+        CrawledFile<T> crawledFile;
+        try {
+            crawledFile = new CrawledFile<>(file, parser.apply(file), null);
+        } catch (RuntimeException e) {
+            crawledFile = new CrawledFile<>(file, null, e);
+        } catch (Throwable e) {
+            // Even an error fails only this file, next() would otherwise wait for it forever
+            crawledFile = new CrawledFile<>(file, null, new IllegalStateException("Could not parse " + file, e));
+        }
+        try {
+            queue.put(crawledFile);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package io.yayotron.investmentassistant.crawler;
+
+import java.nio.file.Path;
+
+public record CrawledFile<T>(Path file, T content, RuntimeException error) {
+
+    public boolean failed() {
+        return error != null;
+    }
+}
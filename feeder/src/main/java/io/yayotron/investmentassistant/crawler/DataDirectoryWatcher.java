@@ -0,0 +1,187 @@
+package io.yayotron.investmentassistant.crawler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches the data directory and its subdirectories. A daemon thread collects the events into a set of pending
+ * files, so a file written in many chunks, or copied together with others, becomes a single change.
+ * {@link #awaitChanges} hands the pending files out once no event has arrived for the quiet period, or once the
+ * oldest of them has waited for the maximum delay.
+ * <p>
+ * Lost events and deletions that may be directories, whose files are not reported one by one, ask for a rescan.
+ */
+public class DataDirectoryWatcher implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataDirectoryWatcher.class);
+
+    private final Predicate<Path> supportedFiles;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    private final Thread collector;
+
+    private final Object lock = new Object();
+    private Set<Path> pending = new LinkedHashSet<>();
+    private boolean rescan;
+    private long firstEventNanos;
+    private long lastEventNanos;
+
+    public DataDirectoryWatcher(Path root, Predicate<Path> supportedFiles) {
+        this.supportedFiles = supportedFiles;
+        try {
+            this.watchService = root.getFileSystem().newWatchService();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registerTree(root, false);
+        this.collector = new Thread(this::collect, "data-directory-watcher");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    /**
+     * Blocks until files have changed and the changes have settled.
+     */
+    public DirectoryChanges awaitChanges(Duration quietPeriod, Duration maxDelay) throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                if (pending.isEmpty() && !rescan) {
+                    lock.wait();
+                    continue;
+                }
+                long now = System.nanoTime();
+                long quietLeft = quietPeriod.toNanos() - (now - lastEventNanos);
+                long delayLeft = maxDelay.toNanos() - (now - firstEventNanos);
+                if (quietLeft <= 0 || delayLeft <= 0) {
+                    DirectoryChanges changes = new DirectoryChanges(pending, rescan, firstEventNanos);
+                    pending = new LinkedHashSet<>();
+                    rescan = false;
+                    return changes;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, Math.min(quietLeft, delayLeft));
+            }
+        }
+    }
+
+    /**
+     * Files changed and not handed out yet.
+     */
+    public int pending() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * How long the oldest pending change has been waiting, zero when there is none.
+     */
+    public Duration pendingAge() {
+        synchronized (lock) {
+            return pending.isEmpty() && !rescan ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - firstEventNanos);
+        }
+    }
+
+    @Override
+    public void close() {
+        collector.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Error closing the watch service", e);
+        }
+    }
+
+    private void collect() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path directory = directories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW || directory == null) {
+                    changed(null, true);
+                    continue;
+                }
+                Path path = directory.resolve((Path) event.context());
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    if (event.kind() == ENTRY_CREATE) {
+                        registerTree(path, true);
+                    }
+                } else if (supportedFiles.test(path)) {
+                    changed(path, false);
+                } else if (event.kind() == ENTRY_DELETE) {
+                    changed(null, true);
+                }
+            }
+            if (!key.reset()) {
+                directories.remove(key);
+            }
+        }
+    }
+
+    // Files already in a new directory were written before it was registered, they get no events of their own
+    private void registerTree(Path root, boolean reportFiles) {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.forEach(path -> {
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    register(path);
+                } else if (reportFiles && supportedFiles.test(path)) {
+                    changed(path, false);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Error watching {}, rescanning: {}", root, e.getMessage());
+            changed(null, true);
+        }
+    }
+
+    private void register(Path directory) {
+        try {
+            directories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void changed(Path file, boolean rescanNeeded) {
+        synchronized (lock) {
+            long now = System.nanoTime();
+            if (pending.isEmpty() && !rescan) {
+                firstEventNanos = now;
+            }
+            lastEventNanos = now;
+            if (file != null) {
+                pending.add(file);
+            }
+            rescan |= rescanNeeded;
+            lock.notifyAll();
+        }
+    }
+}
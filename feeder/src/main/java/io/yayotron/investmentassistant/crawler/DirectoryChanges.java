@@ -0,0 +1,11 @@
+package io.yayotron.investmentassistant.crawler;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Files changed since the previous batch, or a request for a full rescan when events were lost or a directory went
+ * away. {@code firstEventNanos} is the {@link System#nanoTime()} of the oldest event in the batch.
+ */
+public record DirectoryChanges(Set<Path> files, boolean rescan, long firstEventNanos) {
+}
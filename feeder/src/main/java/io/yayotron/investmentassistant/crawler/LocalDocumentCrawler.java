@@ -3,43 +3,85 @@ package io.yayotron.investmentassistant.crawler;
 import dev.langchain4j.data.document.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ResourceUtils;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
-import static dev.langchain4j.data.document.loader.FileSystemDocumentLoader.loadDocuments;
+import static dev.langchain4j.data.document.loader.FileSystemDocumentLoader.loadDocument;
 
 @Service
 public class LocalDocumentCrawler {
 
     private static final Logger logger = LoggerFactory.getLogger(LocalDocumentCrawler.class);
 
-    public List<Document> crawlDocuments() {
-        try {
-            List<Document> allDocuments = Stream.concat(loadDocuments(
-                                    ResourceUtils.getFile("classpath:data/").toPath(),
-                                    pathMatcher(".csv")
-                            ).stream(),
-                            loadDocuments(
-                                    ResourceUtils.getFile("classpath:data/").toPath(),
-                                    pathMatcher(".pdf")
-                            ).stream())
-                    .toList();
+    private final String dataLocation;
+    private final int threads;
+    private final int queueCapacity;
+    private final PagedPdfParser pdfParser = new PagedPdfParser();
+    private final PathMatcher supportedFiles = pathMatcher(".csv", ".pdf");
 
-            logger.info("Crawled {} documents from local storage", allDocuments.size());
+    public LocalDocumentCrawler(@Value("${feeder.data.location}") String dataLocation,
+                                @Value("${feeder.crawler.threads}") int threads,
+                                @Value("${feeder.crawler.queue.capacity}") int queueCapacity) {
+        this.dataLocation = dataLocation;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+    }
 
-            return allDocuments;
+    public Path dataDirectory() {
+        try {
+            return ResourceUtils.getFile(dataLocation).toPath();
         } catch (FileNotFoundException e) {
-            logger.error("Error loading documents", e);
+            logger.error("Error locating data directory", e);
             throw new RuntimeException(e);
         }
     }
 
-    private PathMatcher pathMatcher(String fileExtension) {
-        return path -> path.getFileName().toString().endsWith(fileExtension);
+    public List<Path> crawlFiles() {
+        try (Stream<Path> paths = Files.walk(dataDirectory())) {
+            List<Path> files = paths
+                    .filter(Files::isRegularFile)
+                    .filter(this::isSupported)
+                    .sorted()
+                    .toList();
+
+            logger.info("Crawled {} files from local storage", files.size());
+
+            return files;
+        } catch (IOException e) {
+            logger.error("Error listing documents", e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isSupported(Path file) {
+        return supportedFiles.matches(file);
+    }
+
+    public <T> CrawlStream<T> stream(List<Path> files, Function<Path, T> parser) {
+        return new CrawlStream<>(files, parser, threads, queueCapacity);
+    }
+
+    // PDFs keep their page breaks for the splitter, other files go through the parser easy-rag provides
+    public Document loadFile(Path file) {
+        if (file.getFileName().toString().endsWith(".pdf")) {
+            return loadDocument(file, pdfParser);
+        }
+        return loadDocument(file);
+    }
+
+    private static PathMatcher pathMatcher(String... fileExtensions) {
+        return path -> Stream.of(fileExtensions)
+                .anyMatch(fileExtension -> path.getFileName().toString().endsWith(fileExtension));
     }
 }
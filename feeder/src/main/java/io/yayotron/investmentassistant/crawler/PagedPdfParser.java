@@ -0,0 +1,70 @@
+package io.yayotron.investmentassistant.crawler;
+
+import dev.langchain4j.data.document.BlankDocumentException;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentParser;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.pdf.PDFParser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.ToTextContentHandler;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Extracts the text of a PDF with the same Tika parser easy-rag uses, but ends each page with a form feed, so the
+ * splitter can keep segments within a page.
+ */
+public class PagedPdfParser implements DocumentParser {
+
+    @Override
+    public Document parse(InputStream inputStream) {
+        StringWriter text = new StringWriter();
+        try {
+            new PDFParser().parse(inputStream, new BodyContentHandler(new PageBreakingHandler(text)), new Metadata(),
+                    new ParseContext());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SAXException | TikaException e) {
+            throw new IllegalArgumentException("Could not parse the PDF", e);
+        }
+        if (text.toString().isBlank()) {
+            throw new BlankDocumentException();
+        }
+        return Document.from(text.toString());
+    }
+
+    // Tika wraps every PDF page in <div class="page">
+    private static class PageBreakingHandler extends ToTextContentHandler {
+
+        private final Deque<Boolean> divs = new ArrayDeque<>();
+
+        PageBreakingHandler(StringWriter writer) {
+            super(writer);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            super.startElement(uri, localName, qName, attributes);
+            if ("div".equals(localName)) {
+                divs.push("page".equals(attributes.getValue("class")));
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            super.endElement(uri, localName, qName);
+            if ("div".equals(localName) && !divs.isEmpty() && divs.pop()) {
+                characters(new char[]{'\f'}, 0, 1);
+            }
+        }
+    }
+}
@@ -1,35 +1,83 @@
 package io.yayotron.investmentassistant.ingestor;
 
-import dev.langchain4j.data.document.Document;
-import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
-import io.yayotron.investmentassistant.crawler.LocalDocumentCrawler;
+import io.yayotron.investmentassistant.crawler.DirectoryChanges;
+import io.yayotron.investmentassistant.embedding.CachingEmbeddingModel;
+import io.yayotron.investmentassistant.storage.EmbeddingSnapshotExporter;
+import io.yayotron.investmentassistant.storage.IngestionGenerationPublisher;
+import io.yayotron.investmentassistant.storage.MarketDataExporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-
 @Service
 public class DocumentIngestorRunner implements CommandLineRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentIngestorRunner.class);
 
-    private final LocalDocumentCrawler localDocumentCrawler;
-    private final EmbeddingStoreIngestor ingestor;
+    private final IncrementalIngestionService ingestionService;
+    private final CachingEmbeddingModel embeddingModel;
+    private final EmbeddingSnapshotExporter snapshotExporter;
+    private final MarketDataExporter marketDataExporter;
+    private final IngestionGenerationPublisher generationPublisher;
+    private final WatchModeIngestor watchModeIngestor;
+    private final boolean snapshotEnabled;
+    private final boolean marketDataEnabled;
+    private final boolean watchEnabled;
 
-    public DocumentIngestorRunner(LocalDocumentCrawler localDocumentCrawler,
-                                  EmbeddingStoreIngestor ingestor) {
-        this.localDocumentCrawler = localDocumentCrawler;
-        this.ingestor = ingestor;
+    public DocumentIngestorRunner(IncrementalIngestionService ingestionService,
+                                  CachingEmbeddingModel embeddingModel,
+                                  EmbeddingSnapshotExporter snapshotExporter,
+                                  MarketDataExporter marketDataExporter,
+                                  IngestionGenerationPublisher generationPublisher,
+                                  WatchModeIngestor watchModeIngestor,
+                                  @Value("${feeder.snapshot.enabled}") boolean snapshotEnabled,
+                                  @Value("${feeder.market.enabled}") boolean marketDataEnabled,
+                                  @Value("${feeder.watch.enabled}") boolean watchEnabled) {
+        this.ingestionService = ingestionService;
+        this.embeddingModel = embeddingModel;
+        this.snapshotExporter = snapshotExporter;
+        this.marketDataExporter = marketDataExporter;
+        this.generationPublisher = generationPublisher;
+        this.watchModeIngestor = watchModeIngestor;
+        this.snapshotEnabled = snapshotEnabled;
+        this.marketDataEnabled = marketDataEnabled;
+        this.watchEnabled = watchEnabled;
     }
 
 
     @Override
     public void run(String... args) {
-        List<Document> documents = localDocumentCrawler.crawlDocuments();
-        ingestor.ingest(documents);
-        logger.info("Successfully ingested {} documents", documents.size());
+        if (watchEnabled) {
+            watchModeIngestor.watch();
+        }
+        IngestionReport report = ingestionService.synchronize();
+        logger.info("Successfully synchronized documents: {}", report);
+        publish(report, true, true);
+        if (watchEnabled) {
+            watchModeIngestor.start(this::publishBatch);
+        }
+    }
+
+    // A batch only parses the prices again when a CSV file changed, and leaves the search quality to full runs
+    private void publishBatch(IngestionReport report, DirectoryChanges changes) {
+        boolean pricesChanged = changes.rescan() || changes.files().stream()
+                .anyMatch(file -> file.getFileName().toString().endsWith(".csv"));
+        publish(report, pricesChanged, false);
     }
 
+    private void publish(IngestionReport report, boolean pricesChanged, boolean measureSearchQuality) {
+        logger.info("Embedding cache: {}", embeddingModel.stats());
+        if (snapshotEnabled && (report.hasChanges() || !snapshotExporter.snapshotIsCurrent())) {
+            snapshotExporter.export(measureSearchQuality);
+        }
+        if (marketDataEnabled && (pricesChanged && report.hasChanges() || !marketDataExporter.marketDataIsCurrent())) {
+            marketDataExporter.export();
+        }
+        // Published last, so the presenter only drops its caches once the exports it may read are in place
+        if (report.hasChanges()) {
+            generationPublisher.publish();
+        }
+    }
 }
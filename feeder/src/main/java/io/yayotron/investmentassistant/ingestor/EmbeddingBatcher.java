@@ -0,0 +1,247 @@
+package io.yayotron.investmentassistant.ingestor;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Groups the segments of many files into fixed size embedding batches, embeds up to {@code workers} batches
+ * in parallel and writes the results in bulk once {@code storeBatchSize} embeddings are buffered.
+ * Submitting blocks while all workers are busy, and the future of a file completes once all its segments
+ * are stored.
+ * <p>
+ * When a batch fails, its files fail as a whole: their remaining segments are neither embedded nor written, and
+ * the segments they already stored are removed once none of their batches is in flight any more.
+ */
+public class EmbeddingBatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingBatcher.class);
+
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final int batchSize;
+    private final int storeBatchSize;
+    private final ExecutorService workers;
+    private final Semaphore batchesInFlight;
+    private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Object bufferLock = new Object();
+    private List<EmbeddedSegment> writeBuffer = new ArrayList<>();
+    private List<PendingSegment> pending = new ArrayList<>();
+
+    private final long startedAt = System.nanoTime();
+    private final LongAdder segments = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder embedNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+
+    EmbeddingBatcher(EmbeddingModel embeddingModel,
+                     EmbeddingStore<TextSegment> embeddingStore,
+                     int batchSize,
+                     int workers,
+                     int storeBatchSize) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("embedding-");
+        threadFactory.setDaemon(true);
+
+        this.embeddingModel = embeddingModel;
+        this.embeddingStore = embeddingStore;
+        this.batchSize = batchSize;
+        this.storeBatchSize = storeBatchSize;
+        this.workers = Executors.newFixedThreadPool(workers, threadFactory);
+        this.batchesInFlight = new Semaphore(workers);
+    }
+
+    public CompletableFuture<List<String>> submit(List<TextSegment> segments) {
+        if (segments.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        PendingFile file = new PendingFile(segments.stream().map(segment -> UUID.randomUUID().toString()).toList());
+        for (int i = 0; i < segments.size(); i++) {
+            pending.add(new PendingSegment(file.segmentIds.get(i), segments.get(i), file));
+            if (pending.size() >= batchSize) {
+                dispatch();
+            }
+        }
+        return file.stored;
+    }
+
+    public void flush() {
+        if (!pending.isEmpty()) {
+            dispatch();
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+
+        List<EmbeddedSegment> remaining;
+        synchronized (bufferLock) {
+            remaining = writeBuffer;
+            writeBuffer = new ArrayList<>();
+        }
+        write(remaining);
+    }
+
+    public EmbeddingStats stats() {
+        return new EmbeddingStats(segments.sum(), batches.sum(), writes.sum(),
+                Duration.ofNanos(System.nanoTime() - startedAt),
+                Duration.ofNanos(embedNanos.sum()),
+                Duration.ofNanos(writeNanos.sum()));
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    private void dispatch() {
+        List<PendingSegment> batch = pending;
+        pending = new ArrayList<>(batchSize);
+
+        try {
+            batchesInFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an embedding worker", e);
+        }
+        CompletableFuture<Void> embedding = CompletableFuture.runAsync(() -> embed(batch), workers);
+        inFlight.add(embedding);
+        embedding.whenComplete((result, error) -> {
+            inFlight.remove(embedding);
+            batchesInFlight.release();
+        });
+    }
+
+    private void embed(List<PendingSegment> dispatched) {
+        List<PendingSegment> batch = withoutFailedFiles(dispatched, Function.identity());
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Embedding> embeddings;
+        long start = System.nanoTime();
+        try {
+            embeddings = embeddingModel.embedAll(batch.stream().map(PendingSegment::segment).toList()).content();
+        } catch (RuntimeException e) {
+            fail(batch, e);
+            return;
+        }
+        embedNanos.add(System.nanoTime() - start);
+        batches.increment();
+
+        List<EmbeddedSegment> toWrite;
+        synchronized (bufferLock) {
+            for (int i = 0; i < batch.size(); i++) {
+                writeBuffer.add(new EmbeddedSegment(batch.get(i), embeddings.get(i)));
+            }
+            if (writeBuffer.size() < storeBatchSize) {
+                return;
+            }
+            toWrite = writeBuffer;
+            writeBuffer = new ArrayList<>();
+        }
+        write(toWrite);
+    }
+
+    private void write(List<EmbeddedSegment> buffered) {
+        List<EmbeddedSegment> embeddedSegments = withoutFailedFiles(buffered, EmbeddedSegment::pending);
+        if (embeddedSegments.isEmpty()) {
+            return;
+        }
+
+        embeddedSegments.forEach(embedded -> embedded.pending().file().writeAttempted = true);
+        long start = System.nanoTime();
+        try {
+            embeddingStore.addAll(
+                    embeddedSegments.stream().map(embedded -> embedded.pending().id()).toList(),
+                    embeddedSegments.stream().map(EmbeddedSegment::embedding).toList(),
+                    embeddedSegments.stream().map(embedded -> embedded.pending().segment()).toList());
+        } catch (RuntimeException e) {
+            fail(embeddedSegments.stream().map(EmbeddedSegment::pending).toList(), e);
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        writeNanos.add(elapsed);
+        writes.increment();
+        segments.add(embeddedSegments.size());
+        logger.debug("Wrote {} segments in {} ms", embeddedSegments.size(), Duration.ofNanos(elapsed).toMillis());
+
+        embeddedSegments.forEach(embedded -> settle(embedded.pending().file()));
+    }
+
+    private void fail(List<PendingSegment> segments, RuntimeException error) {
+        // Failed before settling, so whichever segment settles last sees the failure and cleans up
+        for (PendingFile file : new LinkedHashSet<>(segments.stream().map(PendingSegment::file).toList())) {
+            file.failed = true;
+            file.stored.completeExceptionally(error);
+        }
+        segments.forEach(segment -> settle(segment.file()));
+    }
+
+    private <T> List<T> withoutFailedFiles(List<T> items, Function<T, PendingSegment> segment) {
+        List<T> live = new ArrayList<>(items.size());
+        for (T item : items) {
+            PendingFile file = segment.apply(item).file();
+            if (file.failed) {
+                settle(file);
+            } else {
+                live.add(item);
+            }
+        }
+        return live;
+    }
+
+    // A segment is settled once it is stored, failed or dropped, the last one decides about its file
+    private void settle(PendingFile file) {
+        if (file.unsettled.decrementAndGet() > 0) {
+            return;
+        }
+        if (!file.failed) {
+            file.stored.complete(file.segmentIds);
+        } else if (file.writeAttempted) {
+            try {
+                embeddingStore.removeAll(file.segmentIds);
+            } catch (RuntimeException e) {
+                logger.warn("Could not remove segments of a partially stored file", e);
+            }
+        }
+    }
+
+    private static class PendingFile {
+
+        private final List<String> segmentIds;
+        private final AtomicInteger unsettled;
+        private final CompletableFuture<List<String>> stored = new CompletableFuture<>();
+        private volatile boolean failed;
+        private volatile boolean writeAttempted;
+
+        private PendingFile(List<String> segmentIds) {
+            this.segmentIds = segmentIds;
+            this.unsettled = new AtomicInteger(segmentIds.size());
+        }
+    }
+
+    private record PendingSegment(String id, TextSegment segment, PendingFile file) {
+    }
+
+    private record EmbeddedSegment(PendingSegment pending, Embedding embedding) {
+    }
+}
@@ -0,0 +1,33 @@
+package io.yayotron.investmentassistant.ingestor;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EmbeddingPipeline {
+
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final int batchSize;
+    private final int workers;
+    private final int storeBatchSize;
+
+    public EmbeddingPipeline(EmbeddingModel embeddingModel,
+                             EmbeddingStore<TextSegment> embeddingStore,
+                             @Value("${feeder.embedding.batch.size}") int batchSize,
+                             @Value("${feeder.embedding.workers}") int workers,
+                             @Value("${feeder.store.batch.size}") int storeBatchSize) {
+        this.embeddingModel = embeddingModel;
+        this.embeddingStore = embeddingStore;
+        this.batchSize = batchSize;
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.storeBatchSize = storeBatchSize;
+    }
+
+    public EmbeddingBatcher open() {
+        return new EmbeddingBatcher(embeddingModel, embeddingStore, batchSize, workers, storeBatchSize);
+    }
+}
@@ -0,0 +1,22 @@
+package io.yayotron.investmentassistant.ingestor;
+
+import java.time.Duration;
+
+public record EmbeddingStats(long segments,
+                             long batches,
+                             long writes,
+                             Duration elapsed,
+                             Duration embedTime,
+                             Duration writeTime) {
+
+    public double segmentsPerSecond() {
+        return elapsed.isZero() ? 0 : segments * 1_000_000_000d / elapsed.toNanos();
+    }
+
+    @Override
+    public String toString() {
+        return "%d segments in %d batches and %d writes, %.1f segments/sec (elapsed %d ms, embedding %d ms, writing %d ms)"
+                .formatted(segments, batches, writes, segmentsPerSecond(),
+                        elapsed.toMillis(), embedTime.toMillis(), writeTime.toMillis());
+    }
+}
@@ -0,0 +1,261 @@
+package io.yayotron.investmentassistant.ingestor;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import io.yayotron.investmentassistant.crawler.CrawlStream;
+import io.yayotron.investmentassistant.crawler.CrawledFile;
+import io.yayotron.investmentassistant.crawler.LocalDocumentCrawler;
+import io.yayotron.investmentassistant.storage.IngestedFile;
+import io.yayotron.investmentassistant.storage.IngestedFileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class IncrementalIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalIngestionService.class);
+
+    private final LocalDocumentCrawler localDocumentCrawler;
+    private final IngestedFileRepository ingestedFileRepository;
+    private final DocumentSplitter documentSplitter;
+    private final EmbeddingPipeline embeddingPipeline;
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final IngestionMetrics ingestionMetrics;
+
+    public IncrementalIngestionService(LocalDocumentCrawler localDocumentCrawler,
+                                       IngestedFileRepository ingestedFileRepository,
+                                       DocumentSplitter documentSplitter,
+                                       EmbeddingPipeline embeddingPipeline,
+                                       EmbeddingStore<TextSegment> embeddingStore,
+                                       IngestionMetrics ingestionMetrics) {
+        this.localDocumentCrawler = localDocumentCrawler;
+        this.ingestedFileRepository = ingestedFileRepository;
+        this.documentSplitter = documentSplitter;
+        this.embeddingPipeline = embeddingPipeline;
+        this.embeddingStore = embeddingStore;
+        this.ingestionMetrics = ingestionMetrics;
+    }
+
+    public IngestionReport synchronize() {
+        long start = System.nanoTime();
+        Path dataDirectory = localDocumentCrawler.dataDirectory();
+        Map<String, IngestedFile> manifest = ingestedFileRepository.findAll().stream()
+                .collect(Collectors.toMap(IngestedFile::path, Function.identity()));
+        return synchronize(start, dataDirectory, localDocumentCrawler.crawlFiles(), manifest);
+    }
+
+    /**
+     * Synchronizes only {@code changedFiles}, as reported by the watcher: those that exist are ingested unless
+     * unchanged, the segments of those that no longer do are removed. Files under a deleted directory are not
+     * reported one by one, they take a full {@link #synchronize()}.
+     */
+    public IngestionReport synchronize(Collection<Path> changedFiles) {
+        long start = System.nanoTime();
+        Path dataDirectory = localDocumentCrawler.dataDirectory();
+        Map<String, IngestedFile> manifest = new HashMap<>();
+        ingestedFileRepository.findAllById(changedFiles.stream().map(file -> manifestKey(dataDirectory, file)).toList())
+                .forEach(ingestedFile -> manifest.put(ingestedFile.path(), ingestedFile));
+        List<Path> files = changedFiles.stream()
+                .filter(Files::isRegularFile)
+                .filter(localDocumentCrawler::isSupported)
+                .sorted()
+                .toList();
+        return synchronize(start, dataDirectory, files, manifest);
+    }
+
+    // Files missing from the manifest are new, manifest entries missing from the files were deleted
+    private IngestionReport synchronize(long start, Path dataDirectory, List<Path> files,
+                                        Map<String, IngestedFile> manifest) {
+        IngestionReport report = new IngestionReport();
+        List<StoringFile> storingFiles = new ArrayList<>();
+
+        try (CrawlStream<PreparedFile> crawlStream = localDocumentCrawler.stream(files,
+                file -> prepare(file, manifest.get(manifestKey(dataDirectory, file))));
+             EmbeddingBatcher embeddingBatcher = embeddingPipeline.open()) {
+            while (crawlStream.hasNext()) {
+                CrawledFile<PreparedFile> crawledFile = crawlStream.next();
+                String path = manifestKey(dataDirectory, crawledFile.file());
+                try {
+                    if (crawledFile.failed()) {
+                        throw crawledFile.error();
+                    }
+                    ingest(path, crawledFile.content(), embeddingBatcher, storingFiles, report);
+                } catch (RuntimeException e) {
+                    logger.error("Error ingesting {}", path, e);
+                    report.fileFailed();
+                }
+                completeStoredFiles(storingFiles, report);
+            }
+
+            embeddingBatcher.flush();
+            completeStoredFiles(storingFiles, report);
+            logger.info("Embedding pipeline: {}", embeddingBatcher.stats());
+        }
+
+        files.forEach(file -> manifest.remove(manifestKey(dataDirectory, file)));
+        for (IngestedFile deletedFile : manifest.values()) {
+            removeSegments(deletedFile.allSegmentIds());
+            ingestedFileRepository.deleteById(deletedFile.path());
+            report.fileRemoved(deletedFile.segmentIds().size());
+            logger.info("Removed {} segments of deleted file {}", deletedFile.segmentIds().size(), deletedFile.path());
+        }
+
+        report.finished(Duration.ofNanos(System.nanoTime() - start));
+        ingestionMetrics.record(report);
+        return report;
+    }
+
+    // Runs on the crawler threads, so hashing, parsing and splitting overlap with embedding
+    private PreparedFile prepare(Path file, IngestedFile previous) {
+        long size;
+        long lastModified;
+        try {
+            size = Files.size(file);
+            lastModified = Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (previous != null && previous.hasSameAttributes(size, lastModified)) {
+            return new PreparedFile(previous, size, lastModified, previous.contentHash(), null);
+        }
+
+        String contentHash = contentHash(file);
+        if (previous != null && previous.contentHash().equals(contentHash)) {
+            return new PreparedFile(previous, size, lastModified, contentHash, null);
+        }
+
+        Document document = localDocumentCrawler.loadFile(file);
+        return new PreparedFile(previous, size, lastModified, contentHash, documentSplitter.split(document));
+    }
+
+    private void ingest(String path,
+                        PreparedFile preparedFile,
+                        EmbeddingBatcher embeddingBatcher,
+                        List<StoringFile> storingFiles,
+                        IngestionReport report) {
+        IngestedFile previous = preparedFile.previous();
+
+        if (preparedFile.segments() == null) {
+            IngestedFile current = previous.withAttributes(preparedFile.size(), preparedFile.lastModified());
+            if (!previous.hasSameAttributes(preparedFile.size(), preparedFile.lastModified())) {
+                ingestedFileRepository.save(current);
+            }
+            removeStaleSegments(current);
+            report.fileSkipped();
+            return;
+        }
+
+        report.fileParsed(preparedFile.size());
+        storingFiles.add(new StoringFile(path, preparedFile, embeddingBatcher.submit(preparedFile.segments())));
+    }
+
+    // Bookkeeping stays on the calling thread, for each file once all of its segments are stored, which is not
+    // necessarily the order the files were handed to the batcher in
+    private void completeStoredFiles(List<StoringFile> storingFiles, IngestionReport report) {
+        Iterator<StoringFile> iterator = storingFiles.iterator();
+        while (iterator.hasNext()) {
+            StoringFile storingFile = iterator.next();
+            if (!storingFile.segmentIds().isDone()) {
+                continue;
+            }
+            iterator.remove();
+            try {
+                completeStoredFile(storingFile.path(), storingFile.preparedFile(), storingFile.segmentIds().join(), report);
+            } catch (RuntimeException e) {
+                logger.error("Error storing {}", storingFile.path(), e);
+                report.fileFailed();
+            }
+        }
+    }
+
+    private void completeStoredFile(String path, PreparedFile preparedFile, List<String> segmentIds, IngestionReport report) {
+        IngestedFile previous = preparedFile.previous();
+        // The previous segments are recorded as stale before they are removed, a failed removal is retried later
+        IngestedFile ingestedFile = new IngestedFile(path, preparedFile.size(), preparedFile.lastModified(),
+                preparedFile.contentHash(), segmentIds, previous == null ? List.of() : previous.allSegmentIds());
+        ingestedFileRepository.save(ingestedFile);
+
+        if (previous == null) {
+            report.fileAdded(segmentIds.size());
+            logger.info("Added {} segments for new file {}", segmentIds.size(), path);
+        } else {
+            removeStaleSegments(ingestedFile);
+            report.fileReplaced(segmentIds.size(), previous.segmentIds().size());
+            logger.info("Replaced {} segments with {} for changed file {}",
+                    previous.segmentIds().size(), segmentIds.size(), path);
+        }
+    }
+
+    private void removeStaleSegments(IngestedFile ingestedFile) {
+        if (ingestedFile.staleSegmentIds().isEmpty()) {
+            return;
+        }
+        try {
+            removeSegments(ingestedFile.staleSegmentIds());
+        } catch (RuntimeException e) {
+            logger.warn("Error removing {} replaced segments of {}, retrying on the next run",
+                    ingestedFile.staleSegmentIds().size(), ingestedFile.path(), e);
+            return;
+        }
+        ingestedFileRepository.save(ingestedFile.withoutStaleSegments());
+    }
+
+    private void removeSegments(List<String> segmentIds) {
+        if (!segmentIds.isEmpty()) {
+            embeddingStore.removeAll(segmentIds);
+        }
+    }
+
+    private static String manifestKey(Path dataDirectory, Path file) {
+        return dataDirectory.relativize(file).toString().replace('\\', '/');
+    }
+
+    static String contentHash(Path file) {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record PreparedFile(IngestedFile previous,
+                                long size,
+                                long lastModified,
+                                String contentHash,
+                                List<TextSegment> segments) {
+    }
+
+    private record StoringFile(String path, PreparedFile preparedFile, CompletableFuture<List<String>> segmentIds) {
+    }
+}
@@ -0,0 +1,40 @@
+package io.yayotron.investmentassistant.ingestor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes each synchronization as {@code feeder.*} meters. Rates (files/s, segments/s, bytes/s) are derived from
+ * the counters by the monitoring backend, and logged with the {@link IngestionReport}.
+ */
+@Component
+public class IngestionMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Timer synchronizations;
+
+    public IngestionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.synchronizations = Timer.builder("feeder.synchronizations")
+                .description("Synchronizations of the data directory, in full or of the files the watcher reported")
+                .register(meterRegistry);
+    }
+
+    void record(IngestionReport report) {
+        synchronizations.record(report.elapsed());
+        files("added", report.added());
+        files("replaced", report.replaced());
+        files("removed", report.removed());
+        files("skipped", report.skipped());
+        files("failed", report.failed());
+        meterRegistry.counter("feeder.segments", "change", "added").increment(report.segmentsAdded());
+        meterRegistry.counter("feeder.segments", "change", "removed").increment(report.segmentsRemoved());
+        meterRegistry.counter("feeder.files.parsed").increment(report.parsed());
+        meterRegistry.counter("feeder.bytes.parsed").increment(report.bytesParsed());
+    }
+
+    private void files(String outcome, int count) {
+        meterRegistry.counter("feeder.files", "outcome", outcome).increment(count);
+    }
+}
@@ -0,0 +1,119 @@
+package io.yayotron.investmentassistant.ingestor;
+
+import java.time.Duration;
+
+public class IngestionReport {
+
+    private int added;
+    private int replaced;
+    private int removed;
+    private int skipped;
+    private int failed;
+    private int segmentsAdded;
+    private int segmentsRemoved;
+    private int parsed;
+    private long bytesParsed;
+    private Duration elapsed = Duration.ZERO;
+
+    void fileAdded(int segments) {
+        added++;
+        segmentsAdded += segments;
+    }
+
+    void fileReplaced(int newSegments, int oldSegments) {
+        replaced++;
+        segmentsAdded += newSegments;
+        segmentsRemoved += oldSegments;
+    }
+
+    void fileRemoved(int segments) {
+        removed++;
+        segmentsRemoved += segments;
+    }
+
+    void fileSkipped() {
+        skipped++;
+    }
+
+    void fileFailed() {
+        failed++;
+    }
+
+    void fileParsed(long bytes) {
+        parsed++;
+        bytesParsed += bytes;
+    }
+
+    void finished(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    public int added() {
+        return added;
+    }
+
+    public int replaced() {
+        return replaced;
+    }
+
+    public int removed() {
+        return removed;
+    }
+
+    public int skipped() {
+        return skipped;
+    }
+
+    public int failed() {
+        return failed;
+    }
+
+    public int segmentsAdded() {
+        return segmentsAdded;
+    }
+
+    public int segmentsRemoved() {
+        return segmentsRemoved;
+    }
+
+    public int parsed() {
+        return parsed;
+    }
+
+    public long bytesParsed() {
+        return bytesParsed;
+    }
+
+    public Duration elapsed() {
+        return elapsed;
+    }
+
+    public double filesPerSecond() {
+        return perSecond(added + replaced + skipped + failed);
+    }
+
+    public double segmentsPerSecond() {
+        return perSecond(segmentsAdded);
+    }
+
+    public double bytesParsedPerSecond() {
+        return perSecond(bytesParsed);
+    }
+
+    private double perSecond(long amount) {
+        return elapsed.isZero() ? 0 : amount * 1_000_000_000d / elapsed.toNanos();
+    }
+
+    public boolean hasChanges() {
+        return added + replaced + removed > 0;
+    }
+
+    @Override
+    public String toString() {
+        return ("added=%d, replaced=%d, removed=%d, skipped=%d, failed=%d, segmentsAdded=%d, segmentsRemoved=%d, "
+                + "parsed=%d (%.1f MB) in %d ms, %.1f files/s, %.1f segments/s, %.2f MB/s parsed")
+                .formatted(added, replaced, removed, skipped, failed, segmentsAdded, segmentsRemoved,
+                        parsed, bytesParsed / 1_048_576d, elapsed.toMillis(),
+                        filesPerSecond(), segmentsPerSecond(), bytesParsedPerSecond() / 1_048_576d);
+    }
+}
@@ -0,0 +1,118 @@
+package io.yayotron.investmentassistant.ingestor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.yayotron.investmentassistant.crawler.DataDirectoryWatcher;
+import io.yayotron.investmentassistant.crawler.DirectoryChanges;
+import io.yayotron.investmentassistant.crawler.LocalDocumentCrawler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps the feeder running after the first synchronization and ingests the files that change in the data directory
+ * as batches, through the same incremental path. The JVM, the embedding model and its caches stay loaded between
+ * batches, so a new report is searchable within seconds of being dropped in.
+ */
+@Service
+public class WatchModeIngestor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WatchModeIngestor.class);
+
+    private final IncrementalIngestionService ingestionService;
+    private final LocalDocumentCrawler localDocumentCrawler;
+    private final MeterRegistry meterRegistry;
+    private final Duration quietPeriod;
+    private final Duration maxDelay;
+    private final Timer lag;
+
+    private DataDirectoryWatcher watcher;
+    private Thread thread;
+
+    public WatchModeIngestor(IncrementalIngestionService ingestionService,
+                             LocalDocumentCrawler localDocumentCrawler,
+                             MeterRegistry meterRegistry,
+                             @Value("${feeder.watch.quiet.millis}") long quietMillis,
+                             @Value("${feeder.watch.max.delay.millis}") long maxDelayMillis) {
+        this.ingestionService = ingestionService;
+        this.localDocumentCrawler = localDocumentCrawler;
+        this.meterRegistry = meterRegistry;
+        this.quietPeriod = Duration.ofMillis(quietMillis);
+        this.maxDelay = Duration.ofMillis(maxDelayMillis);
+        this.lag = Timer.builder("feeder.watch.lag")
+                .description("Time from the first file event of a batch until the batch is published")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts collecting the changes of the data directory. Called before the first synchronization, so a file written
+     * while it runs is ingested by the first batch rather than missed.
+     */
+    public synchronized void watch() {
+        Path dataDirectory = localDocumentCrawler.dataDirectory();
+        watcher = new DataDirectoryWatcher(dataDirectory, localDocumentCrawler::isSupported);
+        Gauge.builder("feeder.watch.pending", watcher, DataDirectoryWatcher::pending)
+                .description("Changed files waiting to be ingested")
+                .register(meterRegistry);
+        Gauge.builder("feeder.watch.pending.age", watcher, it -> it.pendingAge().toMillis() / 1000d)
+                .description("Seconds the oldest change waiting to be ingested has waited")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        logger.info("Watching {} for new, changed and deleted files", dataDirectory);
+    }
+
+    /**
+     * Ingests the collected changes on a thread of its own, which keeps the application running. {@code afterBatch}
+     * exports and publishes each batch, given the changes it was ingested from.
+     */
+    public synchronized void start(BiConsumer<IngestionReport, DirectoryChanges> afterBatch) {
+        if (watcher == null) {
+            watch();
+        }
+        thread = new Thread(() -> ingestChanges(afterBatch), "feeder-watch");
+        thread.start();
+    }
+
+    private void ingestChanges(BiConsumer<IngestionReport, DirectoryChanges> afterBatch) {
+        while (!Thread.currentThread().isInterrupted()) {
+            DirectoryChanges changes;
+            try {
+                changes = watcher.awaitChanges(quietPeriod, maxDelay);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                IngestionReport report = changes.rescan()
+                        ? ingestionService.synchronize()
+                        : ingestionService.synchronize(changes.files());
+                afterBatch.accept(report, changes);
+                long lagNanos = System.nanoTime() - changes.firstEventNanos();
+                lag.record(lagNanos, TimeUnit.NANOSECONDS);
+                logger.info("Ingested {} in {} ms after the first change, {} more pending: {}",
+                        changes.rescan() ? "a rescan" : changes.files().size() + " changed files",
+                        TimeUnit.NANOSECONDS.toMillis(lagNanos), watcher.pending(), report);
+            } catch (RuntimeException e) {
+                // The files are picked up again by their next change or the next full synchronization
+                logger.error("Error ingesting {} changed files", changes.files().size(), e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.yayotron.investmentassistant.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits each document by its kind, within the embedding model's token limit: CSV files into windows of whole rows
+ * under their header, everything else (PDFs first of all) along pages, headings and tables. Logs the segment count
+ * and token distribution of every file and records it in {@code feeder.segment.tokens}.
+ */
+public class AdaptiveDocumentSplitter implements DocumentSplitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveDocumentSplitter.class);
+
+    private final CsvWindowSplitter csvSplitter;
+    private final StructuredTextSplitter textSplitter;
+    private final MeterRegistry meterRegistry;
+
+    public AdaptiveDocumentSplitter(TokenCountEstimator tokenCountEstimator,
+                                    int maxTokens,
+                                    int overlapTokens,
+                                    int minTokens,
+                                    MeterRegistry meterRegistry) {
+        this.csvSplitter = new CsvWindowSplitter(tokenCountEstimator, maxTokens);
+        this.textSplitter = new StructuredTextSplitter(tokenCountEstimator, maxTokens, overlapTokens, minTokens);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<TextSegment> split(Document document) {
+        String fileName = document.metadata().getString(Document.FILE_NAME);
+        String kind = kind(fileName);
+        List<Chunk> chunks = kind.equals("csv")
+                ? csvSplitter.split(document.text())
+                : textSplitter.split(document.text());
+
+        DistributionSummary tokenSummary = DistributionSummary.builder("feeder.segment.tokens")
+                .description("Tokens per segment handed to the embedding model")
+                .baseUnit("tokens")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        List<TextSegment> segments = new ArrayList<>(chunks.size());
+        int[] tokens = new int[chunks.size()];
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            Metadata metadata = document.metadata().copy().put("index", String.valueOf(i));
+            if (chunk.page() > 0) {
+                metadata.put("page", chunk.page());
+            }
+            segments.add(TextSegment.from(chunk.text(), metadata));
+            tokens[i] = chunk.tokens();
+            tokenSummary.record(chunk.tokens());
+        }
+        logger.info("Split {} ({}) into {}", fileName, kind, SegmentTokenStats.of(tokens));
+        return segments;
+    }
+
+    private static String kind(String fileName) {
+        if (fileName == null) {
+            return "text";
+        }
+        String lowerCase = fileName.toLowerCase(Locale.ROOT);
+        if (lowerCase.endsWith(".csv")) {
+            return "csv";
+        }
+        return lowerCase.endsWith(".pdf") ? "pdf" : "text";
+    }
+}
@@ -0,0 +1,7 @@
+package io.yayotron.investmentassistant.splitter;
+
+/**
+ * @param page the page the chunk starts on, 0 when the document has no pages
+ */
+record Chunk(String text, int tokens, int page) {
+}
@@ -0,0 +1,66 @@
+package io.yayotron.investmentassistant.splitter;
+
+import dev.langchain4j.model.TokenCountEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Groups CSV rows into windows of at most {@code maxTokens}, each starting with the header so every segment can be
+ * read on its own. Rows are never cut; a row over the budget on its own becomes its own segment.
+ */
+class CsvWindowSplitter {
+
+    private final TokenCountEstimator tokenCountEstimator;
+    private final int maxTokens;
+
+    CsvWindowSplitter(TokenCountEstimator tokenCountEstimator, int maxTokens) {
+        this.tokenCountEstimator = tokenCountEstimator;
+        this.maxTokens = maxTokens;
+    }
+
+    List<Chunk> split(String text) {
+        List<String> lines = text.lines().filter(line -> !line.isBlank()).toList();
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        String header = isHeader(lines.get(0)) ? lines.get(0) : null;
+        int headerTokens = header == null ? 0 : tokenCountEstimator.estimateTokenCountInText(header);
+
+        List<Chunk> chunks = new ArrayList<>();
+        StringBuilder window = new StringBuilder();
+        int windowTokens = 0;
+        for (String row : header == null ? lines : lines.subList(1, lines.size())) {
+            int rowTokens = tokenCountEstimator.estimateTokenCountInText(row);
+            if (windowTokens > 0 && headerTokens + windowTokens + rowTokens > maxTokens) {
+                chunks.add(chunk(header, headerTokens, window, windowTokens));
+                window.setLength(0);
+                windowTokens = 0;
+            }
+            if (!window.isEmpty()) {
+                window.append('\n');
+            }
+            window.append(row);
+            windowTokens += rowTokens;
+        }
+        if (windowTokens > 0) {
+            chunks.add(chunk(header, headerTokens, window, windowTokens));
+        }
+        return chunks;
+    }
+
+    private static Chunk chunk(String header, int headerTokens, StringBuilder window, int windowTokens) {
+        String text = header == null ? window.toString() : header + "\n" + window;
+        return new Chunk(text, headerTokens + windowTokens, 0);
+    }
+
+    // A header names its columns, a first row of data has numbers in it
+    private static boolean isHeader(String line) {
+        for (String cell : line.split("[,;\t]")) {
+            if (StructuredTextSplitter.isNumeric(cell.strip())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package io.yayotron.investmentassistant.splitter;
+
+import java.util.Arrays;
+
+public record SegmentTokenStats(int segments, long totalTokens, int minTokens, int medianTokens, int p95Tokens,
+                                int maxTokens) {
+
+    static SegmentTokenStats of(int[] tokens) {
+        if (tokens.length == 0) {
+            return new SegmentTokenStats(0, 0, 0, 0, 0, 0);
+        }
+        int[] sorted = tokens.clone();
+        Arrays.sort(sorted);
+        return new SegmentTokenStats(sorted.length, Arrays.stream(sorted).asLongStream().sum(), sorted[0],
+                sorted[(sorted.length - 1) / 2], sorted[(int) Math.ceil(sorted.length * 0.95) - 1],
+                sorted[sorted.length - 1]);
+    }
+
+    @Override
+    public String toString() {
+        return "%d segments, %d tokens (min %d, median %d, p95 %d, max %d)"
+                .formatted(segments, totalTokens, minTokens, medianTokens, p95Tokens, maxTokens);
+    }
+}
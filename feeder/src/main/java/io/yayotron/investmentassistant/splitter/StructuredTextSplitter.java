@@ -0,0 +1,228 @@
+package io.yayotron.investmentassistant.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text along its structure: never across pages (form feeds), a new section at each heading, which is repeated
+ * at the top of the section's segments, and tables cut between rows only, with their first row repeated. Paragraphs
+ * are packed together up to {@code maxTokens}; a paragraph longer than that falls back to the recursive splitter.
+ * Segments under {@code minTokens} are merged into their neighbour on the same page when both fit.
+ */
+class StructuredTextSplitter {
+
+    private static final Pattern BLOCK_SEPARATOR = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern NUMERIC = Pattern.compile("[-+(]?[$\u20AC\u00A3]?\\d[\\d,.\\-/:]*\\)?%?");
+    private static final Pattern NUMBERED_HEADING = Pattern.compile("^(\\d+(\\.\\d+)*\\.?|[IVX]+\\.)\\s+\\p{Lu}.*");
+
+    private final TokenCountEstimator tokenCountEstimator;
+    private final int maxTokens;
+    private final int overlapTokens;
+    private final int minTokens;
+
+    StructuredTextSplitter(TokenCountEstimator tokenCountEstimator, int maxTokens, int overlapTokens, int minTokens) {
+        this.tokenCountEstimator = tokenCountEstimator;
+        this.maxTokens = maxTokens;
+        this.overlapTokens = overlapTokens;
+        this.minTokens = minTokens;
+    }
+
+    List<Chunk> split(String text) {
+        String[] pages = text.split("\f");
+        List<Chunk> chunks = new ArrayList<>();
+        for (int i = 0; i < pages.length; i++) {
+            splitPage(pages[i], pages.length > 1 ? i + 1 : 0, chunks);
+        }
+        return mergeSmall(chunks);
+    }
+
+    private void splitPage(String page, int pageNumber, List<Chunk> chunks) {
+        Section section = new Section(pageNumber, chunks);
+        for (String block : BLOCK_SEPARATOR.split(page)) {
+            String stripped = block.strip();
+            if (stripped.isEmpty()) {
+                continue;
+            }
+            if (isHeading(stripped)) {
+                section.startSection(stripped, tokenCountEstimator.estimateTokenCountInText(stripped));
+            } else if (isTable(stripped)) {
+                section.flush();
+                splitTable(stripped, section);
+            } else {
+                int tokens = tokenCountEstimator.estimateTokenCountInText(stripped);
+                if (section.headingTokens + tokens <= maxTokens) {
+                    section.append(stripped, tokens);
+                } else {
+                    section.flush();
+                    DocumentSplitter fallback = DocumentSplitters.recursive(maxTokens - section.headingTokens,
+                            overlapTokens, tokenCountEstimator);
+                    for (TextSegment piece : fallback.split(Document.from(stripped))) {
+                        section.add(piece.text(), tokenCountEstimator.estimateTokenCountInText(piece.text()));
+                    }
+                }
+            }
+        }
+        section.finish();
+    }
+
+    private void splitTable(String table, Section section) {
+        List<String> rows = table.lines().toList();
+        String header = rows.get(0);
+        int headerTokens = tokenCountEstimator.estimateTokenCountInText(header);
+        StringBuilder body = new StringBuilder(header);
+        int bodyTokens = headerTokens;
+        boolean hasRows = false;
+        for (String row : rows.subList(1, rows.size())) {
+            int rowTokens = tokenCountEstimator.estimateTokenCountInText(row);
+            if (hasRows && section.headingTokens + bodyTokens + rowTokens > maxTokens) {
+                section.add(body.toString(), bodyTokens);
+                body.setLength(0);
+                body.append(header);
+                bodyTokens = headerTokens;
+            }
+            body.append('\n').append(row);
+            bodyTokens += rowTokens;
+            hasRows = true;
+        }
+        section.add(body.toString(), bodyTokens);
+    }
+
+    private List<Chunk> mergeSmall(List<Chunk> chunks) {
+        List<Chunk> merged = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            Chunk previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (previous != null && previous.page() == chunk.page()
+                    && (previous.tokens() < minTokens || chunk.tokens() < minTokens)
+                    && previous.tokens() + chunk.tokens() <= maxTokens) {
+                merged.set(merged.size() - 1, new Chunk(previous.text() + "\n\n" + chunk.text(),
+                        previous.tokens() + chunk.tokens(), previous.page()));
+            } else {
+                merged.add(chunk);
+            }
+        }
+        return merged;
+    }
+
+    // A short line on its own, numbered ("2.1 Outlook") or without sentence punctuation and mostly capitalized
+    static boolean isHeading(String block) {
+        if (block.contains("\n") || block.length() > 100 || isNumeric(block)) {
+            return false;
+        }
+        if (NUMBERED_HEADING.matcher(block).matches()) {
+            return true;
+        }
+        char last = block.charAt(block.length() - 1);
+        if (last == '.' || last == ',' || last == ';' || !Character.isLetter(block.charAt(0))) {
+            return false;
+        }
+        String[] words = block.split("\\s+");
+        if (words.length > 12) {
+            return false;
+        }
+        int capitalized = 0;
+        for (String word : words) {
+            if (Character.isUpperCase(word.charAt(0))) {
+                capitalized++;
+            }
+        }
+        return capitalized * 2 > words.length;
+    }
+
+    // Most lines hold two or more figures
+    static boolean isTable(String block) {
+        List<String> lines = block.lines().toList();
+        if (lines.size() < 2) {
+            return false;
+        }
+        int rows = 0;
+        for (String line : lines) {
+            int figures = 0;
+            for (String cell : line.strip().split("\\s+|\\t")) {
+                if (isNumeric(cell)) {
+                    figures++;
+                }
+            }
+            if (figures >= 2) {
+                rows++;
+            }
+        }
+        return rows * 10 >= lines.size() * 6;
+    }
+
+    static boolean isNumeric(String cell) {
+        return NUMERIC.matcher(cell).matches();
+    }
+
+    /**
+     * Paragraphs of one section of a page, packed up to the budget with the section's heading on top.
+     */
+    private final class Section {
+
+        private final int page;
+        private final List<Chunk> chunks;
+        private final StringBuilder text = new StringBuilder();
+        private String heading;
+        private int headingTokens;
+        private boolean headingUsed;
+        private int tokens;
+
+        Section(int page, List<Chunk> chunks) {
+            this.page = page;
+            this.chunks = chunks;
+        }
+
+        void startSection(String heading, int headingTokens) {
+            finish();
+            // A heading longer than the budget is kept as text rather than repeated
+            if (headingTokens * 2 > maxTokens) {
+                this.heading = null;
+                this.headingTokens = 0;
+                append(heading, headingTokens);
+                return;
+            }
+            this.heading = heading;
+            this.headingTokens = headingTokens;
+            this.headingUsed = false;
+        }
+
+        void append(String paragraph, int paragraphTokens) {
+            if (tokens > 0 && headingTokens + tokens + paragraphTokens > maxTokens) {
+                flush();
+            }
+            if (!text.isEmpty()) {
+                text.append("\n\n");
+            }
+            text.append(paragraph);
+            tokens += paragraphTokens;
+        }
+
+        void add(String body, int bodyTokens) {
+            chunks.add(new Chunk(heading == null ? body : heading + "\n" + body, headingTokens + bodyTokens, page));
+            headingUsed = true;
+        }
+
+        void flush() {
+            if (tokens > 0) {
+                add(text.toString(), tokens);
+            }
+            text.setLength(0);
+            tokens = 0;
+        }
+
+        // A heading with nothing under it before the next one or the end of the page is kept on its own
+        void finish() {
+            flush();
+            if (heading != null && !headingUsed) {
+                chunks.add(new Chunk(heading, headingTokens, page));
+                headingUsed = true;
+            }
+        }
+    }
+}
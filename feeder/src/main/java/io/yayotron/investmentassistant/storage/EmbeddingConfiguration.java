@@ -1,27 +1,64 @@
 package io.yayotron.investmentassistant.storage;
 
-import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.model.embedding.onnx.HuggingFaceTokenCountEstimator;
 import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
-import dev.langchain4j.store.embedding.EmbeddingStore;
-import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.yayotron.investmentassistant.embedding.CachingEmbeddingModel;
+import io.yayotron.investmentassistant.splitter.AdaptiveDocumentSplitter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+
 @Configuration
 public class EmbeddingConfiguration {
 
+    private final int cacheMemoryEntries;
+    private final String cacheDiskFile;
+    private final int cacheDiskEntries;
+    private final String splitter;
+    private final int maxSegmentTokens;
+    private final int overlapTokens;
+    private final int minSegmentTokens;
+
+    public EmbeddingConfiguration(@Value("${ai.embedding.cache.memory.entries}") int cacheMemoryEntries,
+                                  @Value("${ai.embedding.cache.disk.file}") String cacheDiskFile,
+                                  @Value("${ai.embedding.cache.disk.entries}") int cacheDiskEntries,
+                                  @Value("${feeder.splitter}") String splitter,
+                                  @Value("${feeder.splitter.max.tokens}") int maxSegmentTokens,
+                                  @Value("${feeder.splitter.overlap.tokens}") int overlapTokens,
+                                  @Value("${feeder.splitter.min.tokens}") int minSegmentTokens) {
+        this.cacheMemoryEntries = cacheMemoryEntries;
+        this.cacheDiskFile = cacheDiskFile;
+        this.cacheDiskEntries = cacheDiskEntries;
+        this.splitter = splitter;
+        this.maxSegmentTokens = maxSegmentTokens;
+        this.overlapTokens = overlapTokens;
+        this.minSegmentTokens = minSegmentTokens;
+    }
+
+    // Each embedAll call runs on its caller, parallelism comes from the EmbeddingPipeline workers
     @Bean
-    public EmbeddingModel embeddingModel() {
-        return new AllMiniLmL6V2EmbeddingModel();
+    public CachingEmbeddingModel embeddingModel() {
+        return CachingEmbeddingModel.of(
+                new AllMiniLmL6V2EmbeddingModel(Runnable::run),
+                AllMiniLmL6V2EmbeddingModel.class.getName(),
+                cacheMemoryEntries,
+                cacheDiskFile.isBlank() ? null : Path.of(cacheDiskFile),
+                cacheDiskEntries);
     }
 
+    // "recursive" is the splitter easy-rag plugs into EmbeddingStoreIngestor by default
     @Bean
-    public EmbeddingStoreIngestor embeddingStoreIngestor(EmbeddingModel embeddingModel,
-                                                         EmbeddingStore<TextSegment> embeddingStore) {
-        return EmbeddingStoreIngestor.builder()
-                .embeddingModel(embeddingModel)
-                .embeddingStore(embeddingStore)
-                .build();
+    public DocumentSplitter documentSplitter(MeterRegistry meterRegistry) {
+        HuggingFaceTokenCountEstimator tokenCountEstimator = new HuggingFaceTokenCountEstimator();
+        if (splitter.equalsIgnoreCase("recursive")) {
+            return DocumentSplitters.recursive(maxSegmentTokens, overlapTokens, tokenCountEstimator);
+        }
+        return new AdaptiveDocumentSplitter(tokenCountEstimator, maxSegmentTokens, overlapTokens, minSegmentTokens,
+                meterRegistry);
     }
 }
@@ -0,0 +1,125 @@
+package io.yayotron.investmentassistant.storage;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCursor;
+import io.yayotron.investmentassistant.index.EmbeddingSnapshot;
+import io.yayotron.investmentassistant.index.EmbeddingSnapshotWriter;
+import io.yayotron.investmentassistant.index.LexicalIndex;
+import io.yayotron.investmentassistant.index.LexicalIndexWriter;
+import io.yayotron.investmentassistant.index.SearchMode;
+import io.yayotron.investmentassistant.index.SearchParameters;
+import io.yayotron.investmentassistant.index.SearchQualityReport;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dumps the Mongo embedding collection, which stays the source of truth, into an HNSW snapshot the presenter
+ * can memory-map instead of querying Atlas, and into a BM25 index over the same segments in the same pass.
+ */
+@Service
+public class EmbeddingSnapshotExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingSnapshotExporter.class);
+
+    private final MongoClient mongoClient;
+    private final String databaseName;
+    private final String collectionName;
+    private final Path snapshotFile;
+    private final Path lexicalIndexFile;
+    private final int m;
+    private final int efConstruction;
+    private final int reportQueries;
+
+    public EmbeddingSnapshotExporter(MongoClient mongoClient,
+                                     @Value("${spring.data.mongodb.database}") String databaseName,
+                                     @Value("${ai.embedding.collection}") String collectionName,
+                                     @Value("${ai.snapshot.file}") String snapshotFile,
+                                     @Value("${ai.lexical.file}") String lexicalIndexFile,
+                                     @Value("${ai.snapshot.hnsw.m}") int m,
+                                     @Value("${ai.snapshot.hnsw.ef.construction}") int efConstruction,
+                                     @Value("${feeder.snapshot.report.queries}") int reportQueries) {
+        this.mongoClient = mongoClient;
+        this.databaseName = databaseName;
+        this.collectionName = collectionName;
+        this.snapshotFile = Path.of(snapshotFile);
+        this.lexicalIndexFile = Path.of(lexicalIndexFile);
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.reportQueries = reportQueries;
+    }
+
+    public boolean snapshotIsCurrent() {
+        return EmbeddingSnapshot.isCurrent(snapshotFile) && LexicalIndex.isCurrent(lexicalIndexFile);
+    }
+
+    /**
+     * Writes the snapshot and the lexical index of the whole collection. {@code measureSearchQuality} also logs the
+     * {@link SearchQualityReport}, which takes longer than the export itself on large collections.
+     */
+    public void export(boolean measureSearchQuality) {
+        long start = System.currentTimeMillis();
+        EmbeddingSnapshotWriter writer = null;
+        LexicalIndexWriter lexicalIndexWriter = new LexicalIndexWriter();
+
+        try (MongoCursor<Document> cursor = mongoClient.getDatabase(databaseName)
+                .getCollection(collectionName)
+                .find()
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                float[] vector = toVector(document.getList("embedding", Number.class));
+                if (writer == null) {
+                    writer = new EmbeddingSnapshotWriter(vector.length, m, efConstruction);
+                }
+                String id = String.valueOf(document.get("_id"));
+                Map<String, Object> metadata = toMetadata(document.get("metadata", Document.class));
+                writer.add(id, vector, document.getString("text"), metadata);
+                lexicalIndexWriter.add(id, document.getString("text"), metadata);
+            }
+        }
+
+        // With every file deleted the presenter must stop serving them, so empty files replace the old ones
+        if (writer == null) {
+            writer = new EmbeddingSnapshotWriter(0, m, efConstruction);
+        }
+        writer.write(snapshotFile);
+        lexicalIndexWriter.write(lexicalIndexFile);
+        logger.info("Wrote snapshot and lexical index of {} segments to {} and {} in {} ms",
+                writer.size(), snapshotFile, lexicalIndexFile, System.currentTimeMillis() - start);
+
+        if (measureSearchQuality && reportQueries > 0 && writer.size() > 0) {
+            logger.info("{}", measureSearchQuality());
+        }
+    }
+
+    // Helps choosing ai.snapshot.search.mode and the oversampling on the presenter side
+    private SearchQualityReport measureSearchQuality() {
+        EmbeddingSnapshot snapshot = EmbeddingSnapshot.open(snapshotFile);
+        return SearchQualityReport.measure(snapshot, reportQueries, 10, List.of(
+                new SearchParameters(SearchMode.HNSW, 64, 1),
+                new SearchParameters(SearchMode.INT8, 0, 2),
+                new SearchParameters(SearchMode.INT8, 0, 4),
+                new SearchParameters(SearchMode.BINARY, 0, 4),
+                new SearchParameters(SearchMode.BINARY, 0, 10)));
+    }
+
+    private static float[] toVector(List<Number> embedding) {
+        float[] vector = new float[embedding.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = embedding.get(i).floatValue();
+        }
+        return vector;
+    }
+
+    private static Map<String, Object> toMetadata(Document metadata) {
+        return metadata == null ? Map.of() : new LinkedHashMap<>(metadata);
+    }
+}
@@ -0,0 +1,41 @@
+package io.yayotron.investmentassistant.storage;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * What was ingested from a file. {@code staleSegmentIds} are the segments of its previous content, kept until they
+ * are removed from the embedding store, so a removal that failed is retried by the next run.
+ */
+@Document(collection = "ingestion_manifest")
+public record IngestedFile(@Id String path,
+                           long size,
+                           long lastModified,
+                           String contentHash,
+                           List<String> segmentIds,
+                           List<String> staleSegmentIds) {
+
+    public IngestedFile {
+        // Entries written before stale segments were tracked have none
+        staleSegmentIds = staleSegmentIds == null ? List.of() : staleSegmentIds;
+    }
+
+    public boolean hasSameAttributes(long size, long lastModified) {
+        return this.size == size && this.lastModified == lastModified;
+    }
+
+    public IngestedFile withAttributes(long size, long lastModified) {
+        return new IngestedFile(path, size, lastModified, contentHash, segmentIds, staleSegmentIds);
+    }
+
+    public IngestedFile withoutStaleSegments() {
+        return new IngestedFile(path, size, lastModified, contentHash, segmentIds, List.of());
+    }
+
+    public List<String> allSegmentIds() {
+        return Stream.concat(segmentIds.stream(), staleSegmentIds.stream()).toList();
+    }
+}
@@ -0,0 +1,6 @@
+package io.yayotron.investmentassistant.storage;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface IngestedFileRepository extends MongoRepository<IngestedFile, String> {
+}
@@ -0,0 +1,16 @@
+package io.yayotron.investmentassistant.storage;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Counts the ingestions that changed the stored segments. The presenter drops its cached retrievals and answers
+ * once this moves on.
+ */
+@Document(collection = "ingestion_generation")
+public record IngestionGeneration(@Id String id, long generation, Instant publishedAt) {
+
+    public static final String CURRENT = "current";
+}
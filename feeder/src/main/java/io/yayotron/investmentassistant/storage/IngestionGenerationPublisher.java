@@ -0,0 +1,37 @@
+package io.yayotron.investmentassistant.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+@Service
+public class IngestionGenerationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionGenerationPublisher.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public IngestionGenerationPublisher(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Increments the generation atomically, so runs that overlap never publish the same one twice.
+     */
+    public IngestionGeneration publish() {
+        IngestionGeneration published = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(IngestionGeneration.CURRENT)),
+                new Update().inc("generation", 1).set("publishedAt", Instant.now()),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                IngestionGeneration.class);
+        logger.info("Published ingestion generation {}", published.generation());
+        return published;
+    }
+}
@@ -0,0 +1,74 @@
+package io.yayotron.investmentassistant.storage;
+
+import io.yayotron.investmentassistant.crawler.CrawlStream;
+import io.yayotron.investmentassistant.crawler.CrawledFile;
+import io.yayotron.investmentassistant.crawler.LocalDocumentCrawler;
+import io.yayotron.investmentassistant.market.CsvPriceParser;
+import io.yayotron.investmentassistant.market.MarketData;
+import io.yayotron.investmentassistant.market.MarketDataWriter;
+import io.yayotron.investmentassistant.market.PriceSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Parses the price CSVs into typed columns the presenter maps for its market data tool, so numeric questions
+ * are answered from the numbers instead of from embedded rows pasted into the prompt.
+ */
+@Service
+public class MarketDataExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataExporter.class);
+
+    static final String DEFAULT_MARKET = "default";
+
+    private final LocalDocumentCrawler localDocumentCrawler;
+    private final Path marketDataFile;
+
+    public MarketDataExporter(LocalDocumentCrawler localDocumentCrawler,
+                              @Value("${ai.market.file}") String marketDataFile) {
+        this.localDocumentCrawler = localDocumentCrawler;
+        this.marketDataFile = Path.of(marketDataFile);
+    }
+
+    public boolean marketDataIsCurrent() {
+        return MarketData.isCurrent(marketDataFile);
+    }
+
+    public void export() {
+        long start = System.currentTimeMillis();
+        Path dataDirectory = localDocumentCrawler.dataDirectory();
+        List<Path> files = localDocumentCrawler.crawlFiles().stream()
+                .filter(file -> file.getFileName().toString().endsWith(".csv"))
+                .toList();
+        MarketDataWriter writer = new MarketDataWriter();
+        int priceFiles = 0;
+
+        try (CrawlStream<List<PriceSeries>> crawlStream = localDocumentCrawler.stream(files,
+                file -> CsvPriceParser.parse(file, market(dataDirectory, file)))) {
+            while (crawlStream.hasNext()) {
+                CrawledFile<List<PriceSeries>> crawledFile = crawlStream.next();
+                if (crawledFile.failed()) {
+                    logger.error("Error parsing prices from {}", crawledFile.file(), crawledFile.error());
+                } else if (!crawledFile.content().isEmpty()) {
+                    crawledFile.content().forEach(writer::add);
+                    priceFiles++;
+                }
+            }
+        }
+
+        writer.write(marketDataFile);
+        logger.info("Wrote market data of {} instruments from {} of {} CSV files to {} in {} ms",
+                writer.size(), priceFiles, files.size(), marketDataFile, System.currentTimeMillis() - start);
+    }
+
+    // The first directory under the data location names the market, e.g. data/wse/cdr_d.csv
+    static String market(Path dataDirectory, Path file) {
+        Path relative = dataDirectory.relativize(file);
+        return relative.getNameCount() > 1 ? relative.getName(0).toString() : DEFAULT_MARKET;
+    }
+}
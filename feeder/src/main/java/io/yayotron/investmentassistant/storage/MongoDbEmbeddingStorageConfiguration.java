@@ -4,6 +4,7 @@ import com.mongodb.client.MongoClient;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.mongodb.MongoDbEmbeddingStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,17 +12,23 @@ import org.springframework.context.annotation.Configuration;
 public class MongoDbEmbeddingStorageConfiguration {
 
     private final MongoClient mongoClient;
+    private final String databaseName;
+    private final String collectionName;
 
-    public MongoDbEmbeddingStorageConfiguration(MongoClient mongoClient) {
+    public MongoDbEmbeddingStorageConfiguration(MongoClient mongoClient,
+                                                @Value("${spring.data.mongodb.database}") String databaseName,
+                                                @Value("${ai.embedding.collection}") String collectionName) {
         this.mongoClient = mongoClient;
+        this.databaseName = databaseName;
+        this.collectionName = collectionName;
     }
 
     @Bean
     public EmbeddingStore<TextSegment> embeddingStore() {
         return MongoDbEmbeddingStore.builder()
                 .fromClient(mongoClient)
-                .databaseName("ai")
-                .collectionName("internal_data_files")
+                .databaseName(databaseName)
+                .collectionName(collectionName)
                 .indexName("embeddings")
                 .createIndex(true)
                 .build();
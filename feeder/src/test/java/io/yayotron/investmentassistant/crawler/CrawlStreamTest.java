@@ -0,0 +1,29 @@
+package io.yayotron.investmentassistant.crawler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(30)
+class CrawlStreamTest {
+
+    @Test
+    void givenParserThrowingAnError_theFileIsReportedFailed() {
+        Path broken = Path.of("broken.pdf");
+        try (CrawlStream<String> stream = new CrawlStream<>(List.of(broken), file -> {
+            throw new StackOverflowError();
+        }, 1, 1)) {
+            CrawledFile<String> crawledFile = stream.next();
+
+            assertEquals(broken, crawledFile.file());
+            assertTrue(crawledFile.failed());
+            assertFalse(stream.hasNext());
+        }
+    }
+}
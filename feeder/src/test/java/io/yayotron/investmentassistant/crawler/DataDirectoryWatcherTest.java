@@ -0,0 +1,82 @@
+package io.yayotron.investmentassistant.crawler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(30)
+class DataDirectoryWatcherTest {
+
+    private static final Duration QUIET = Duration.ofMillis(300);
+    private static final Duration MAX_DELAY = Duration.ofSeconds(10);
+
+    @TempDir
+    Path dataDirectory;
+
+    private DataDirectoryWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        watcher = new DataDirectoryWatcher(dataDirectory, file -> file.toString().endsWith(".csv"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.close();
+    }
+
+    @Test
+    void givenFileWrittenSeveralTimes_itIsReportedOnce() throws Exception {
+        Path file = dataDirectory.resolve("prices.csv");
+        Files.writeString(file, "symbol,close\n");
+        Files.writeString(file, "symbol,close\nABC,1.0\n");
+        Files.writeString(dataDirectory.resolve("notes.txt"), "ignored");
+
+        DirectoryChanges changes = watcher.awaitChanges(QUIET, MAX_DELAY);
+
+        assertEquals(Set.of(file), changes.files());
+        assertFalse(changes.rescan());
+        assertEquals(0, watcher.pending());
+    }
+
+    @Test
+    void givenNewDirectory_itsFilesAreReportedAndWatched() throws Exception {
+        Path directory = Files.createDirectory(dataDirectory.resolve("wse"));
+        Path first = Files.writeString(directory.resolve("cdr_d.csv"), "symbol,close\n");
+        awaitFiles(Set.of(first));
+
+        Path second = Files.writeString(directory.resolve("pko_d.csv"), "symbol,close\n");
+
+        awaitFiles(Set.of(second));
+    }
+
+    @Test
+    void givenDeletedDirectory_aRescanIsRequested() throws Exception {
+        Path directory = Files.createDirectory(dataDirectory.resolve("wse"));
+        Thread.sleep(QUIET.toMillis());
+
+        Files.delete(directory);
+
+        assertTrue(watcher.awaitChanges(QUIET, MAX_DELAY).rescan());
+    }
+
+    // Events may be split across batches, depending on when the watch service delivers them
+    private void awaitFiles(Set<Path> expected) throws InterruptedException {
+        Set<Path> seen = new HashSet<>();
+        while (!seen.containsAll(expected)) {
+            seen.addAll(watcher.awaitChanges(QUIET, MAX_DELAY).files());
+        }
+    }
+}
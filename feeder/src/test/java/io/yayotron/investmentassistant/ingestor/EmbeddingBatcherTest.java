@@ -0,0 +1,83 @@
+package io.yayotron.investmentassistant.ingestor;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmbeddingBatcherTest {
+
+    private final List<TextSegment> segments = List.of(TextSegment.from("a"), TextSegment.from("b"),
+            TextSegment.from("c"), TextSegment.from("d"));
+
+    @Mock
+    private EmbeddingStore<TextSegment> embeddingStore;
+
+    @Test
+    void givenFailedBatch_theFilesOtherBatchesAreNotEmbeddedOrWritten() {
+        AtomicInteger calls = new AtomicInteger();
+        EmbeddingModel embeddingModel = embeddingModel(() -> calls.incrementAndGet() == 1);
+
+        try (EmbeddingBatcher embeddingBatcher = new EmbeddingBatcher(embeddingModel, embeddingStore, 2, 1, 2)) {
+            CompletableFuture<List<String>> stored = embeddingBatcher.submit(segments);
+            embeddingBatcher.flush();
+
+            assertTrue(stored.isCompletedExceptionally());
+        }
+        assertEquals(1, calls.get());
+        verifyNoInteractions(embeddingStore);
+    }
+
+    @Test
+    void givenFailedWrite_everySegmentOfTheFileIsRemoved() {
+        doNothing().doThrow(new IllegalStateException("write failed"))
+                .when(embeddingStore).addAll(anyList(), anyList(), anyList());
+
+        CompletableFuture<List<String>> stored;
+        try (EmbeddingBatcher embeddingBatcher = new EmbeddingBatcher(embeddingModel(() -> false), embeddingStore,
+                2, 1, 2)) {
+            stored = embeddingBatcher.submit(segments);
+            embeddingBatcher.flush();
+        }
+
+        assertTrue(stored.isCompletedExceptionally());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> removed = ArgumentCaptor.forClass(List.class);
+        verify(embeddingStore).removeAll(removed.capture());
+        assertEquals(segments.size(), removed.getValue().size());
+    }
+
+    private static EmbeddingModel embeddingModel(BooleanSupplier fail) {
+        return new EmbeddingModel() {
+            @Override
+            public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+                if (fail.getAsBoolean()) {
+                    throw new IllegalStateException("embedding failed");
+                }
+                return Response.from(textSegments.stream().map(segment -> Embedding.from(new float[]{1f})).toList());
+            }
+
+            @Override
+            public int dimension() {
+                return 1;
+            }
+        };
+    }
+}
@@ -0,0 +1,191 @@
+package io.yayotron.investmentassistant.ingestor;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.yayotron.investmentassistant.crawler.LocalDocumentCrawler;
+import io.yayotron.investmentassistant.storage.IngestedFile;
+import io.yayotron.investmentassistant.storage.IngestedFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IncrementalIngestionServiceTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    private LocalDocumentCrawler localDocumentCrawler;
+    @Mock
+    private IngestedFileRepository ingestedFileRepository;
+    @Mock
+    private DocumentSplitter documentSplitter;
+    @Mock
+    private EmbeddingModel embeddingModel;
+    @Mock
+    private EmbeddingStore<TextSegment> embeddingStore;
+
+    private IncrementalIngestionService ingestionService;
+
+    private final List<TextSegment> segments = List.of(TextSegment.from("content"));
+    private final List<Embedding> embeddings = List.of(Embedding.from(new float[]{1f}));
+
+    @BeforeEach
+    void setUp() {
+        localDocumentCrawler = spy(new LocalDocumentCrawler(dataDirectory.toString(), 2, 1));
+        ingestionService = new IncrementalIngestionService(localDocumentCrawler, ingestedFileRepository,
+                documentSplitter, new EmbeddingPipeline(embeddingModel, embeddingStore, 2, 2, 4), embeddingStore,
+                new IngestionMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void givenUnchangedFile_itIsSkippedWithoutParsing() throws IOException {
+        Path file = write("prices.csv", "symbol,close\nABC,1.0\n");
+        when(ingestedFileRepository.findAll()).thenReturn(List.of(new IngestedFile("prices.csv",
+                Files.size(file), Files.getLastModifiedTime(file).toMillis(), "hash", List.of("1"), List.of())));
+
+        IngestionReport report = ingestionService.synchronize();
+
+        assertEquals(1, report.skipped());
+        verify(localDocumentCrawler, never()).loadFile(any());
+        verifyNoInteractions(embeddingStore);
+    }
+
+    @Test
+    void givenChangedFile_itsOldSegmentsAreReplaced() throws IOException {
+        Path file = write("prices.csv", "symbol,close\nABC,2.0\n");
+        when(ingestedFileRepository.findAll()).thenReturn(List.of(
+                new IngestedFile("prices.csv", 1, 1, "outdated", List.of("old-1", "old-2"), List.of())));
+        givenSegments(file);
+
+        IngestionReport report = ingestionService.synchronize();
+
+        assertEquals(1, report.replaced());
+        assertEquals(2, report.segmentsRemoved());
+        verify(embeddingStore).removeAll(List.of("old-1", "old-2"));
+        verify(embeddingStore).addAll(anyList(), eq(embeddings), eq(segments));
+        verify(ingestedFileRepository).save(argThat(ingestedFile -> ingestedFile.segmentIds().size() == 1
+                && ingestedFile.staleSegmentIds().equals(List.of("old-1", "old-2"))));
+        verify(ingestedFileRepository).save(argThat(ingestedFile -> ingestedFile.segmentIds().size() == 1
+                && ingestedFile.staleSegmentIds().isEmpty()));
+    }
+
+    @Test
+    void givenFailedRemoval_theOldSegmentsStayRecordedForTheNextRun() throws IOException {
+        Path file = write("prices.csv", "symbol,close\nABC,2.0\n");
+        when(ingestedFileRepository.findAll()).thenReturn(List.of(
+                new IngestedFile("prices.csv", 1, 1, "outdated", List.of("old-1"), List.of())));
+        givenSegments(file);
+        doThrow(new IllegalStateException("Store unavailable")).when(embeddingStore).removeAll(List.of("old-1"));
+
+        IngestionReport report = ingestionService.synchronize();
+
+        assertEquals(1, report.replaced());
+        verify(ingestedFileRepository).save(argThat(ingestedFile ->
+                ingestedFile.staleSegmentIds().equals(List.of("old-1"))));
+        verify(ingestedFileRepository, never()).save(argThat(ingestedFile -> ingestedFile.staleSegmentIds().isEmpty()));
+    }
+
+    @Test
+    void givenUnchangedFileWithStaleSegments_theyAreRemoved() throws IOException {
+        Path file = write("prices.csv", "symbol,close\nABC,1.0\n");
+        when(ingestedFileRepository.findAll()).thenReturn(List.of(new IngestedFile("prices.csv",
+                Files.size(file), Files.getLastModifiedTime(file).toMillis(), "hash", List.of("1"), List.of("0"))));
+
+        IngestionReport report = ingestionService.synchronize();
+
+        assertEquals(1, report.skipped());
+        verify(embeddingStore).removeAll(List.of("0"));
+        verify(ingestedFileRepository).save(argThat(ingestedFile -> ingestedFile.staleSegmentIds().isEmpty()
+                && ingestedFile.segmentIds().equals(List.of("1"))));
+    }
+
+    @Test
+    void givenTouchedFileWithSameContent_onlyItsAttributesAreUpdated() throws IOException {
+        Path file = write("prices.csv", "symbol,close\nABC,3.0\n");
+        when(ingestedFileRepository.findAll()).thenReturn(List.of(new IngestedFile("prices.csv", 1, 1,
+                IncrementalIngestionService.contentHash(file), List.of("1"), List.of())));
+
+        long size = Files.size(file);
+
+        IngestionReport report = ingestionService.synchronize();
+
+        assertEquals(1, report.skipped());
+        verify(localDocumentCrawler, never()).loadFile(any());
+        verify(ingestedFileRepository).save(argThat(ingestedFile -> ingestedFile.size() == size));
+    }
+
+    @Test
+    void givenDeletedFile_itsSegmentsAreRemoved() {
+        when(ingestedFileRepository.findAll()).thenReturn(List.of(
+                new IngestedFile("gone.pdf", 1, 1, "hash", List.of("1", "2", "3"), List.of())));
+
+        IngestionReport report = ingestionService.synchronize();
+
+        assertEquals(1, report.removed());
+        verify(embeddingStore).removeAll(List.of("1", "2", "3"));
+        verify(ingestedFileRepository).deleteById("gone.pdf");
+    }
+
+    @Test
+    void givenWatchedChanges_onlyTheChangedFilesAreSynchronized() throws IOException {
+        write("untouched.csv", "symbol,close\nXYZ,1.0\n");
+        Path file = write("prices.csv", "symbol,close\nABC,5.0\n");
+        when(ingestedFileRepository.findAllById(List.of("prices.csv", "gone.pdf"))).thenReturn(List.of(
+                new IngestedFile("gone.pdf", 1, 1, "hash", List.of("1", "2"), List.of())));
+        givenSegments(file);
+
+        IngestionReport report = ingestionService.synchronize(List.of(file, dataDirectory.resolve("gone.pdf")));
+
+        assertEquals(1, report.added());
+        assertEquals(1, report.removed());
+        verify(embeddingStore).removeAll(List.of("1", "2"));
+        verify(localDocumentCrawler, never()).crawlFiles();
+        verify(localDocumentCrawler, never()).loadFile(dataDirectory.resolve("untouched.csv"));
+    }
+
+    @Test
+    void givenUnparseableFile_itIsReportedAsFailedAndOthersAreIngested() throws IOException {
+        Path broken = write("broken.pdf", "not a pdf");
+        Path file = write("prices.csv", "symbol,close\nABC,4.0\n");
+        when(ingestedFileRepository.findAll()).thenReturn(List.of());
+        doThrow(new IllegalArgumentException("Unparseable")).when(localDocumentCrawler).loadFile(broken);
+        givenSegments(file);
+
+        IngestionReport report = ingestionService.synchronize();
+
+        assertEquals(1, report.failed());
+        assertEquals(1, report.added());
+    }
+
+    private void givenSegments(Path file) {
+        Document document = Document.from("content");
+        doReturn(document).when(localDocumentCrawler).loadFile(file);
+        when(documentSplitter.split(document)).thenReturn(segments);
+        when(embeddingModel.embedAll(segments)).thenReturn(Response.from(embeddings));
+    }
+
+    private Path write(String fileName, String content) throws IOException {
+        return Files.writeString(dataDirectory.resolve(fileName), content);
+    }
+}
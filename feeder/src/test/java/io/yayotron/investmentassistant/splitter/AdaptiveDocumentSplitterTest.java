@@ -0,0 +1,87 @@
+package io.yayotron.investmentassistant.splitter;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.yayotron.investmentassistant.WordCountEstimator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveDocumentSplitterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void givenCsv_rowsAreGroupedUnderTheirHeader() {
+        String rows = IntStream.rangeClosed(1, 10)
+                .mapToObj(day -> "2024-01-%02d,10.%d,11.%d".formatted(day, day, day))
+                .collect(Collectors.joining("\n"));
+
+        List<TextSegment> segments = splitter(4).split(document("cdr_d.csv", "Date,Open,Close\n" + rows));
+
+        assertEquals(4, segments.size());
+        assertTrue(segments.stream().allMatch(segment -> segment.text().startsWith("Date,Open,Close\n")));
+        assertEquals("Date,Open,Close\n2024-01-10,10.10,11.10", segments.get(3).text());
+        assertEquals(4.0, meterRegistry.get("feeder.segment.tokens").tag("kind", "csv").summary().max());
+    }
+
+    @Test
+    void givenPdf_segmentsStayWithinTheirPageUnderTheirHeading() {
+        String text = "Market Outlook\n\nStocks rose across the board in March.\n\nBonds were flat.\f"
+                + "Quarterly Results\n\nRevenue 120 135\nProfit 12 15\nMargin 10% 11%\f";
+
+        List<TextSegment> segments = splitter(20).split(document("report.pdf", text));
+
+        assertEquals(List.of(
+                "Market Outlook\nStocks rose across the board in March.\n\nBonds were flat.",
+                "Quarterly Results\nRevenue 120 135\nProfit 12 15\nMargin 10% 11%"
+        ), segments.stream().map(TextSegment::text).toList());
+        assertEquals(1, segments.get(0).metadata().getInteger("page"));
+        assertEquals(2, segments.get(1).metadata().getInteger("page"));
+    }
+
+    @Test
+    void givenTableOverTheBudget_itIsCutBetweenRowsWithItsFirstRowRepeated() {
+        String text = "Quarterly Results\n\nRevenue 120 135\nProfit 12 15\nMargin 10% 11%";
+
+        List<TextSegment> segments = splitter(8).split(document("report.pdf", text));
+
+        assertEquals(List.of(
+                "Quarterly Results\nRevenue 120 135\nProfit 12 15",
+                "Quarterly Results\nRevenue 120 135\nMargin 10% 11%"
+        ), segments.stream().map(TextSegment::text).toList());
+    }
+
+    @Test
+    void givenSmallSegments_theyAreMergedWithinTheirPageOnly() {
+        String text = "Bonds were flat.\fStocks rose.\n\nRevenue 120 135\nProfit 12 15";
+
+        List<TextSegment> segments = splitter(8, 4).split(document("report.pdf", text));
+
+        assertEquals(List.of(
+                "Bonds were flat.",
+                "Stocks rose.\n\nRevenue 120 135\nProfit 12 15"
+        ), segments.stream().map(TextSegment::text).toList());
+        assertEquals(1, segments.get(0).metadata().getInteger("page"));
+        assertEquals(2, segments.get(1).metadata().getInteger("page"));
+    }
+
+    private AdaptiveDocumentSplitter splitter(int maxTokens) {
+        return splitter(maxTokens, 0);
+    }
+
+    private AdaptiveDocumentSplitter splitter(int maxTokens, int minTokens) {
+        return new AdaptiveDocumentSplitter(new WordCountEstimator(), maxTokens, 2, minTokens, meterRegistry);
+    }
+
+    private static Document document(String fileName, String text) {
+        return Document.from(text, Metadata.from(Document.FILE_NAME, fileName));
+    }
+}
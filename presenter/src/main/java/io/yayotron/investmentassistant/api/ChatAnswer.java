@@ -0,0 +1,4 @@
+package io.yayotron.investmentassistant.api;
+
+public record ChatAnswer(String sessionId, String answer, long queuedMillis, long totalMillis) {
+}
@@ -0,0 +1,39 @@
+package io.yayotron.investmentassistant.api;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/sessions/{sessionId}/questions")
+public class ChatController {
+
+    private final ChatService chatService;
+
+    public ChatController(ChatService chatService) {
+        this.chatService = chatService;
+    }
+
+    @PostMapping
+    public ChatAnswer ask(@PathVariable String sessionId, @RequestBody ChatRequest request) {
+        return chatService.ask(sessionId, question(request));
+    }
+
+    @PostMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable String sessionId, @RequestBody ChatRequest request) {
+        return chatService.stream(sessionId, question(request));
+    }
+
+    private static String question(ChatRequest request) {
+        if (request == null || request.question() == null || request.question().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A question is required");
+        }
+        return request.question();
+    }
+}
@@ -0,0 +1,128 @@
+package io.yayotron.investmentassistant.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Admission control in front of the chat model: at most {@code maxConcurrent} questions are answered at once,
+ * up to {@code queueCapacity} more wait for a slot and anything beyond is rejected straight away. Every question
+ * has a deadline covering both its wait and its generation.
+ */
+@Component
+public class ChatGate implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatGate.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Duration deadline;
+
+    public ChatGate(@Value("${ai.api.max.concurrent}") int maxConcurrent,
+                    @Value("${ai.api.queue.capacity}") int queueCapacity,
+                    @Value("${ai.api.deadline.seconds}") long deadlineSeconds) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("chat-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.deadline = Duration.ofSeconds(deadlineSeconds);
+    }
+
+    /**
+     * Queues {@code work} without waiting for it. The work fails with a {@link TimeoutException} instead of
+     * starting when it waited past the deadline, and cancelling the returned future interrupts it.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> work) {
+        long deadlineAt = System.nanoTime() + deadline.toNanos();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    if (System.nanoTime() > deadlineAt) {
+                        throw new TimeoutException("Deadline passed while queued");
+                    }
+                    result.complete(work.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Rejected question, {} answering and {} queued", executor.getActiveCount(), queued());
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many questions in progress, retry later");
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Answers {@code work} on the gate and waits for it until the deadline.
+     */
+    public <T> T call(Callable<T> work) {
+        long deadlineAt = System.nanoTime() + deadline.toNanos();
+        return await(submit(work), deadlineAt);
+    }
+
+    /**
+     * Waits for work submitted to the gate until {@code deadlineAt}, cancelling it when that passes.
+     */
+    <T> T await(Future<T> future, long deadlineAt) {
+        try {
+            return future.get(deadlineAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw deadlineExceeded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw deadlineExceeded();
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while answering");
+        }
+    }
+
+    public Duration deadline() {
+        return deadline;
+    }
+
+    public int queued() {
+        return executor.getQueue().size();
+    }
+
+    public int active() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    static ResponseStatusException deadlineExceeded() {
+        return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "No answer before the deadline");
+    }
+}
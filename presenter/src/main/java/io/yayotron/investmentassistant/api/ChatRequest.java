@@ -0,0 +1,4 @@
+package io.yayotron.investmentassistant.api;
+
+public record ChatRequest(String question) {
+}
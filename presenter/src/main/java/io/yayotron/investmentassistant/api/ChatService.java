@@ -0,0 +1,211 @@
+package io.yayotron.investmentassistant.api;
+
+import dev.langchain4j.model.chat.response.ChatResponse;
+import io.yayotron.investmentassistant.model.RAGConfiguration;
+import io.yayotron.investmentassistant.startup.StartupReadiness;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers questions of many sessions through the {@link ChatGate}. A session answers one question at a time, as each
+ * of them reads and then extends the session's memory; a question to a session that is still answering is refused
+ * with 409 before it takes a slot of the gate, so a busy session never holds the gate away from the others. The
+ * session stays busy until the model is done with its question, even when the caller stopped waiting earlier.
+ */
+@Service
+public class ChatService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatService.class);
+
+    private final RAGConfiguration ragConfiguration;
+    private final ChatGate chatGate;
+    private final StartupReadiness startupReadiness;
+    private final ConcurrentMap<String, Turn> turns = new ConcurrentHashMap<>();
+
+    public ChatService(RAGConfiguration ragConfiguration, ChatGate chatGate, StartupReadiness startupReadiness) {
+        this.ragConfiguration = ragConfiguration;
+        this.chatGate = chatGate;
+        this.startupReadiness = startupReadiness;
+    }
+
+    public ChatAnswer ask(String sessionId, String question) {
+        startupReadiness.checkReady();
+        long start = System.nanoTime();
+        long deadlineAt = start + chatGate.deadline().toNanos();
+        AtomicLong startedAt = new AtomicLong();
+        Turn turn = startTurn(sessionId);
+        String answer = chatGate.await(turn.submit(() -> {
+            try {
+                startedAt.set(System.nanoTime());
+                return ragConfiguration.ask(sessionId, question);
+            } finally {
+                turn.end();
+            }
+        }), deadlineAt);
+        long end = System.nanoTime();
+        logger.info("Answered session {} in {} ms", sessionId, (end - start) / 1_000_000);
+        return new ChatAnswer(sessionId, answer, (startedAt.get() - start) / 1_000_000, (end - start) / 1_000_000);
+    }
+
+    /**
+     * Sends {@code token} events while the answer is generated, then a {@code done} event with the timings.
+     */
+    public SseEmitter stream(String sessionId, String question) {
+        startupReadiness.checkReady();
+        long start = System.nanoTime();
+        long deadlineAt = start + chatGate.deadline().toNanos();
+        SseEmitter emitter = new SseEmitter(chatGate.deadline().toMillis());
+
+        Turn turn = startTurn(sessionId);
+        turn.submit(() -> stream(sessionId, question, emitter, start, deadlineAt, turn))
+                .whenComplete((result, error) -> {
+                    // Failed before streaming, for instance past the deadline while queued
+                    if (error != null) {
+                        emitter.completeWithError(toResponseError(error));
+                    }
+                });
+        return emitter;
+    }
+
+    private Void stream(String sessionId, String question, SseEmitter emitter, long start, long deadlineAt,
+                        Turn turn) {
+        long startedAt = System.nanoTime();
+        AtomicLong firstTokenAt = new AtomicLong();
+        CompletableFuture<ChatResponse> completed = new CompletableFuture<>();
+        try {
+            // Retrieval and the memory write of the question happen here, before any token
+            ragConfiguration.askStreaming(sessionId, question)
+                    .onPartialResponse(token -> {
+                        // The tokens of an answer given up on are dropped
+                        if (completed.isDone()) {
+                            return;
+                        }
+                        firstTokenAt.compareAndSet(0, System.nanoTime());
+                        send(emitter, "token", token, completed);
+                    })
+                    .onCompleteResponse(response -> {
+                        turn.end();
+                        completed.complete(response);
+                    })
+                    .onError(error -> {
+                        turn.end();
+                        completed.completeExceptionally(error);
+                    })
+                    .start();
+        } catch (RuntimeException e) {
+            turn.end();
+            logger.error("Error while streaming session {}: {}", sessionId, e.getMessage());
+            emitter.completeWithError(toResponseError(e));
+            return null;
+        }
+        try {
+            completed.get(deadlineAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+            long end = System.nanoTime();
+            send(emitter, "done", Map.of(
+                    "queuedMillis", (startedAt - start) / 1_000_000,
+                    "timeToFirstTokenMillis", firstTokenAt.get() == 0 ? -1 : (firstTokenAt.get() - start) / 1_000_000,
+                    "totalMillis", (end - start) / 1_000_000), completed);
+            emitter.complete();
+        } catch (TimeoutException e) {
+            // The session stays busy until the model finishes, only the client stops waiting
+            completed.cancel(true);
+            emitter.completeWithError(ChatGate.deadlineExceeded());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completed.cancel(true);
+            emitter.completeWithError(e);
+        } catch (ExecutionException e) {
+            logger.error("Error while streaming session {}: {}", sessionId, e.getCause().getMessage());
+            emitter.completeWithError(toResponseError(e.getCause()));
+        }
+        return null;
+    }
+
+    private Turn startTurn(String sessionId) {
+        Turn turn = new Turn(sessionId);
+        if (turns.putIfAbsent(sessionId, turn) != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Session " + sessionId + " is still answering a question, retry once it is done");
+        }
+        return turn;
+    }
+
+    private static Throwable toResponseError(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof TimeoutException || error instanceof CancellationException) {
+            return ChatGate.deadlineExceeded();
+        }
+        return error;
+    }
+
+    private static void send(SseEmitter emitter, String event, Object data, CompletableFuture<?> completed) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException e) {
+            // The client went away, stop waiting for the rest of the answer
+            completed.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * The question a session is answering. Whoever finishes with the question ends the turn: the work once a
+     * gate worker started it, the gate when the question is given up on before that.
+     */
+    private final class Turn {
+
+        private final String sessionId;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        Turn(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        <T> CompletableFuture<T> submit(Callable<T> work) {
+            CompletableFuture<T> future;
+            try {
+                future = chatGate.submit(() -> {
+                    if (!started.compareAndSet(false, true)) {
+                        throw new CancellationException("Given up on while queued");
+                    }
+                    return work.call();
+                });
+            } catch (RuntimeException e) {
+                end();
+                throw e;
+            }
+            future.whenComplete((result, error) -> {
+                if (started.compareAndSet(false, true)) {
+                    end();
+                }
+            });
+            return future;
+        }
+
+        void end() {
+            if (ended.compareAndSet(false, true)) {
+                turns.remove(sessionId, this);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.yayotron.investmentassistant.cache;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+
+import java.util.function.Supplier;
+
+/**
+ * Answers keyed by the embedding of the question, so a question close enough to one answered before gets the
+ * same answer without retrieval or generation.
+ */
+public class AnswerCache {
+
+    private final SemanticCache<String> cache;
+    private final EmbeddingModel embeddingModel;
+
+    public AnswerCache(SemanticCache<String> cache, EmbeddingModel embeddingModel) {
+        this.cache = cache;
+        this.embeddingModel = embeddingModel;
+    }
+
+    public static AnswerCache disabled() {
+        return new AnswerCache(SemanticCache.disabled("answer"), null);
+    }
+
+    public boolean enabled() {
+        return cache.enabled();
+    }
+
+    public String answer(String question, Supplier<String> generator) {
+        if (!enabled()) {
+            return generator.get();
+        }
+        return cache.computeIfAbsent(embeddingModel.embed(question).content().vector(), generator,
+                AnswerCache::cacheable);
+    }
+
+    /**
+     * For streamed answers: the cached answer, or a miss that stores the answer once it is generated.
+     */
+    public SemanticCache.Lookup<String> lookup(String question) {
+        return cache.lookup(enabled() ? embeddingModel.embed(question).content().vector() : null,
+                AnswerCache::cacheable);
+    }
+
+    public SemanticCacheStats stats() {
+        return cache.stats();
+    }
+
+    private static boolean cacheable(String answer) {
+        return !answer.isBlank();
+    }
+}
@@ -0,0 +1,37 @@
+package io.yayotron.investmentassistant.cache;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.rag.content.Content;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class CacheConfiguration {
+
+    private final IngestionGenerationTracker generationTracker;
+
+    public CacheConfiguration(IngestionGenerationTracker generationTracker) {
+        this.generationTracker = generationTracker;
+    }
+
+    @Bean
+    public SemanticCache<List<Content>> retrievalCache(@Value("${ai.cache.retrieval.entries}") int entries,
+                                                       @Value("${ai.cache.retrieval.ttl.minutes}") long ttlMinutes,
+                                                       @Value("${ai.cache.retrieval.min.similarity}") double minSimilarity) {
+        return new SemanticCache<>("retrieval", entries, Duration.ofMinutes(ttlMinutes), minSimilarity,
+                generationTracker::current);
+    }
+
+    @Bean
+    public AnswerCache answerCache(EmbeddingModel embeddingModel,
+                                   @Value("${ai.cache.answer.entries}") int entries,
+                                   @Value("${ai.cache.answer.ttl.minutes}") long ttlMinutes,
+                                   @Value("${ai.cache.answer.min.similarity}") double minSimilarity) {
+        return new AnswerCache(new SemanticCache<>("answer", entries, Duration.ofMinutes(ttlMinutes), minSimilarity,
+                generationTracker::current), embeddingModel);
+    }
+}
@@ -0,0 +1,15 @@
+package io.yayotron.investmentassistant.cache;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * The feeder's count of ingestions that changed the stored segments.
+ */
+@Document(collection = "ingestion_generation")
+public record IngestionGeneration(@Id String id, long generation, Instant publishedAt) {
+
+    public static final String CURRENT = "current";
+}
@@ -0,0 +1,70 @@
+package io.yayotron.investmentassistant.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Knows the latest generation published by the feeder, read again from Mongo at most once per check interval.
+ * Only one caller reads it, the others carry on with the generation known so far instead of waiting for Mongo.
+ */
+@Component
+public class IngestionGenerationTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionGenerationTracker.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final long checkIntervalNanos;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile long generation;
+    private volatile long checkedAt;
+    private volatile boolean checked;
+
+    public IngestionGenerationTracker(MongoTemplate mongoTemplate,
+                                      @Value("${ai.cache.generation.check.seconds}") long checkIntervalSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.checkIntervalNanos = TimeUnit.SECONDS.toNanos(checkIntervalSeconds);
+    }
+
+    public long current() {
+        long now = System.nanoTime();
+        if (checked && now - checkedAt < checkIntervalNanos) {
+            return generation;
+        }
+        // The first check is waited for, nothing may be cached before the generation is known
+        if (!checked) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            return generation;
+        }
+        try {
+            if (!checked || now - checkedAt >= checkIntervalNanos) {
+                refresh();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+        return generation;
+    }
+
+    private void refresh() {
+        try {
+            IngestionGeneration published = mongoTemplate.findById(IngestionGeneration.CURRENT, IngestionGeneration.class);
+            long latest = published == null ? 0 : published.generation();
+            if (checked && published != null && latest != generation) {
+                logger.info("Feeder published ingestion generation {} at {}", latest, published.publishedAt());
+            }
+            generation = latest;
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the ingestion generation, keeping generation {}: {}", generation, e.getMessage());
+        }
+        checkedAt = System.nanoTime();
+        checked = true;
+    }
+}
@@ -0,0 +1,191 @@
+package io.yayotron.investmentassistant.cache;
+
+import io.yayotron.investmentassistant.index.VectorMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Values keyed by embeddings, served for any key at least {@code minSimilarity} (cosine) close to the key they were
+ * stored with, so rephrasings of a question find the same entry. Entries expire after a time to live, the least
+ * recently used one is evicted past {@code maxEntries}, and all of them are dropped once the ingestion generation
+ * moves on, so nothing outlives the data it was built from. Lookups scan every entry: a few thousand keys of a few
+ * hundred dimensions take well under a millisecond, far less than what a hit saves.
+ */
+public class SemanticCache<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SemanticCache.class);
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final float minSimilarity;
+    private final LongSupplier generation;
+    private final LongSupplier nanoTime;
+    private final Map<Long, Entry<V>> entries;
+
+    private long currentGeneration = Long.MIN_VALUE;
+    private long nextId;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    public SemanticCache(String name, int maxEntries, Duration ttl, double minSimilarity, LongSupplier generation) {
+        this(name, maxEntries, ttl, minSimilarity, generation, System::nanoTime);
+    }
+
+    SemanticCache(String name, int maxEntries, Duration ttl, double minSimilarity, LongSupplier generation,
+                  LongSupplier nanoTime) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.minSimilarity = (float) minSimilarity;
+        this.generation = generation;
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry<V>> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Never caches anything, the loader is always called.
+     */
+    public static <V> SemanticCache<V> disabled(String name) {
+        return new SemanticCache<>(name, 0, Duration.ZERO, 1, () -> 0);
+    }
+
+    public boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * Returns the value of the closest entry, or the loader's value, stored when {@code cacheable}. A value loaded
+     * while a new generation was published is returned but not stored, it may have been built from the old data.
+     */
+    public V computeIfAbsent(float[] key, Supplier<V> loader, Predicate<V> cacheable) {
+        if (!enabled()) {
+            return loader.get();
+        }
+        Lookup<V> lookup = lookup(key, cacheable);
+        if (lookup.value() != null) {
+            return lookup.value();
+        }
+        V value = loader.get();
+        lookup.store(value);
+        return value;
+    }
+
+    /**
+     * Like {@link #computeIfAbsent}, for values that are only complete after the call returns, such as streamed
+     * answers: on a miss, the caller stores the value through the returned lookup once it has it.
+     */
+    public Lookup<V> lookup(float[] key, Predicate<V> cacheable) {
+        if (!enabled()) {
+            return new Lookup<>(this, null, 0, null, value -> false);
+        }
+        float[] normalized = VectorMath.normalize(key);
+        long observedGeneration = generation.getAsLong();
+        return new Lookup<>(this, normalized, observedGeneration, find(normalized, observedGeneration), cacheable);
+    }
+
+    public synchronized SemanticCacheStats stats() {
+        return new SemanticCacheStats(hits, misses, evictions, expirations, invalidations, entries.size());
+    }
+
+    private synchronized V find(float[] key, long observedGeneration) {
+        if (observedGeneration != currentGeneration) {
+            if (!entries.isEmpty()) {
+                logger.info("Dropping {} cached {} entries of ingestion generation {}, now at {}",
+                        entries.size(), name, currentGeneration, observedGeneration);
+                invalidations += entries.size();
+                entries.clear();
+            }
+            currentGeneration = observedGeneration;
+        }
+
+        long now = nanoTime.getAsLong();
+        Long bestId = null;
+        float bestSimilarity = minSimilarity;
+        Iterator<Map.Entry<Long, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Entry<V>> entry = iterator.next();
+            if (now - entry.getValue().storedAt() >= ttlNanos) {
+                iterator.remove();
+                expirations++;
+                continue;
+            }
+            float similarity = VectorMath.dot(key, entry.getValue().key());
+            if (similarity >= bestSimilarity) {
+                bestSimilarity = similarity;
+                bestId = entry.getKey();
+            }
+        }
+
+        if (bestId == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        // Also moves the entry to the most recently used end
+        return entries.get(bestId).value();
+    }
+
+    private synchronized void store(float[] key, V value, long observedGeneration) {
+        if (observedGeneration == currentGeneration) {
+            entries.put(nextId++, new Entry<>(key, value, nanoTime.getAsLong()));
+        }
+    }
+
+    private record Entry<V>(float[] key, V value, long storedAt) {
+    }
+
+    /**
+     * The outcome of a {@link #lookup}: the cached value, or null on a miss.
+     */
+    public static final class Lookup<V> {
+
+        private final SemanticCache<V> cache;
+        private final float[] key;
+        private final long observedGeneration;
+        private final V value;
+        private final Predicate<V> cacheable;
+
+        private Lookup(SemanticCache<V> cache, float[] key, long observedGeneration, V value, Predicate<V> cacheable) {
+            this.cache = cache;
+            this.key = key;
+            this.observedGeneration = observedGeneration;
+            this.value = value;
+            this.cacheable = cacheable;
+        }
+
+        public V value() {
+            return value;
+        }
+
+        /**
+         * Stores the value loaded after a miss when it is cacheable, unless a new generation was published since the
+         * lookup, as the value may have been built from the old data.
+         */
+        public void store(V loaded) {
+            if (value == null && loaded != null && cacheable.test(loaded)) {
+                cache.store(key, loaded, observedGeneration);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.yayotron.investmentassistant.cache;
+
+public record SemanticCacheStats(long hits, long misses, long evictions, long expirations, long invalidations,
+                                 int entries) {
+
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, expirations=%d, invalidations=%d, entries=%d"
+                .formatted(hits, misses, hitRate() * 100, evictions, expirations, invalidations, entries);
+    }
+}
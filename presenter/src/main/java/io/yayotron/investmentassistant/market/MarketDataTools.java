@@ -0,0 +1,115 @@
+package io.yayotron.investmentassistant.market;
+
+import dev.langchain4j.agent.tool.P;
+import dev.langchain4j.agent.tool.Tool;
+import io.yayotron.investmentassistant.storage.ReloadingMappedFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tools the assistant calls for numeric questions, answered from the columnar market data the feeder writes
+ * instead of from CSV rows retrieved into the prompt. The file is mapped again whenever the feeder replaces it.
+ */
+@Component
+@ConditionalOnProperty(name = "ai.market.tools.enabled", havingValue = "true")
+public class MarketDataTools {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataTools.class);
+    private static final int MAX_LIMIT = 50;
+
+    private final ReloadingMappedFile<MarketData> marketDataFile;
+
+    public MarketDataTools(@Value("${ai.market.file}") String marketDataFile) {
+        this.marketDataFile = new ReloadingMappedFile<>(Path.of(marketDataFile), MarketData::isCurrent, MarketData::open,
+                mapped -> logger.info("Mapped market data of {} instruments created at {}",
+                        mapped.instruments().size(), mapped.createdAt()));
+    }
+
+    @Tool("Lists the markets with price data, how many instruments each has and the last trading day available")
+    public String markets() {
+        return withMarketData(marketData -> marketData.markets().entrySet().stream()
+                .map(market -> "%s: %d instruments".formatted(market.getKey(), market.getValue()))
+                .collect(Collectors.joining("\n", "", "\nLast trading day: " + lastDate(marketData))));
+    }
+
+    @Tool("Return, annualized volatility, maximum drawdown, high, low and average volume of one instrument over a period")
+    public String instrumentPerformance(@P("Ticker symbol, e.g. CDR") String symbol,
+                                        @P(value = "First day as yyyy-MM-dd, or a period back from the last day such as P6M; empty for the whole history", required = false) String from,
+                                        @P(value = "Last day as yyyy-MM-dd; empty for the last trading day", required = false) String to) {
+        return withMarketData(marketData -> {
+            Optional<Instrument> instrument = marketData.instrument(symbol);
+            if (instrument.isEmpty()) {
+                return "No price data for " + symbol;
+            }
+            LocalDate end = date(to, lastDate(marketData));
+            return marketData.statistics(instrument.get(), start(from, end), end)
+                    .map(InstrumentStatistics::summary)
+                    .orElse("Fewer than two sessions of " + symbol + " in that period");
+        });
+    }
+
+    @Tool("Ranks the instruments of a market over a period by return, volatility, drawdown or average volume")
+    public String rankInstruments(@P(value = "Market, e.g. wse; empty for all markets", required = false) String market,
+                                  @P("RETURN, VOLATILITY, DRAWDOWN or VOLUME") String metric,
+                                  @P("How many instruments to list") int limit,
+                                  @P(value = "true to list the lowest values first", required = false) Boolean ascending,
+                                  @P(value = "First day as yyyy-MM-dd, or a period back from the last day such as P6M; empty for the whole history", required = false) String from,
+                                  @P(value = "Last day as yyyy-MM-dd; empty for the last trading day", required = false) String to) {
+        return withMarketData(marketData -> {
+            LocalDate end = date(to, lastDate(marketData));
+            List<InstrumentStatistics> ranking = marketData.rank(market, start(from, end), end,
+                    RankingMetric.valueOf(metric.trim().toUpperCase(Locale.ROOT)),
+                    Math.max(1, Math.min(limit, MAX_LIMIT)), Boolean.TRUE.equals(ascending));
+            if (ranking.isEmpty()) {
+                return "No instruments with price data in " + (market == null || market.isBlank() ? "any market" : market);
+            }
+            return ranking.stream().map(InstrumentStatistics::summary).collect(Collectors.joining("\n"));
+        });
+    }
+
+    private String withMarketData(Function<MarketData, String> query) {
+        long start = System.nanoTime();
+        try {
+            Optional<MarketData> current = marketDataFile.current();
+            if (current.isEmpty()) {
+                return "No market data available yet";
+            }
+            return query.apply(current.get());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return "Invalid arguments: " + e.getMessage();
+        } finally {
+            logger.debug("Market data tool answered in {} ms", (System.nanoTime() - start) / 1_000_000d);
+        }
+    }
+
+    private static LocalDate lastDate(MarketData marketData) {
+        return marketData.instruments().stream()
+                .map(marketData::lastDate)
+                .max(LocalDate::compareTo)
+                .orElse(LocalDate.now());
+    }
+
+    private static LocalDate start(String from, LocalDate end) {
+        if (from == null || from.isBlank()) {
+            return null;
+        }
+        return from.trim().toUpperCase(Locale.ROOT).startsWith("P") ? end.minus(Period.parse(from.trim())) : LocalDate.parse(from.trim());
+    }
+
+    private static LocalDate date(String value, LocalDate fallback) {
+        return value == null || value.isBlank() ? fallback : LocalDate.parse(value.trim());
+    }
+}
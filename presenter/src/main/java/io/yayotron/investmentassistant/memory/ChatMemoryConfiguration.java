@@ -0,0 +1,50 @@
+package io.yayotron.investmentassistant.memory;
+
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.embedding.onnx.HuggingFaceTokenCountEstimator;
+import dev.langchain4j.model.input.PromptTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ChatMemoryConfiguration {
+
+    private final int maxSessions;
+    private final int maxTokens;
+    private final int compactionThreshold;
+    private final int keepRecentMessages;
+    private final boolean summarize;
+    private final String summaryTemplate;
+
+    public ChatMemoryConfiguration(@Value("${ai.memory.max.sessions}") int maxSessions,
+                                   @Value("${ai.memory.max.tokens}") int maxTokens,
+                                   @Value("${ai.memory.compaction.threshold.tokens}") int compactionThreshold,
+                                   @Value("${ai.memory.keep.recent.messages}") int keepRecentMessages,
+                                   @Value("${ai.memory.compaction}") String compaction,
+                                   @Value("${prompt.memory.summary.template}") String summaryTemplate) {
+        this.maxSessions = maxSessions;
+        this.maxTokens = maxTokens;
+        this.compactionThreshold = compactionThreshold;
+        this.keepRecentMessages = keepRecentMessages;
+        this.summarize = compaction.equalsIgnoreCase("summary");
+        this.summaryTemplate = summaryTemplate;
+    }
+
+    @Bean
+    public TokenCountEstimator tokenCountEstimator() {
+        return new HuggingFaceTokenCountEstimator();
+    }
+
+    @Bean
+    public SharedChatMemoryProvider chatMemoryProvider(MongoChatMemoryStore chatMemoryStore,
+                                                       TokenCountEstimator tokenCountEstimator,
+                                                       @Qualifier("auxiliaryChatModel") ChatModel chatModel) {
+        PromptTemplate template = PromptTemplate.from(summaryTemplate);
+        return new SharedChatMemoryProvider(maxSessions, memoryId -> new CompactingChatMemory(memoryId,
+                chatMemoryStore, tokenCountEstimator, maxTokens, compactionThreshold, keepRecentMessages,
+                summarize ? chatModel : null, template));
+    }
+}
@@ -0,0 +1,13 @@
+package io.yayotron.investmentassistant.memory;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * @param messages the session's chat memory, serialized with {@link dev.langchain4j.data.message.ChatMessageSerializer}
+ */
+@Document(collection = "chat_memory")
+public record ChatSession(@Id String id, String messages, Instant updatedAt) {
+}
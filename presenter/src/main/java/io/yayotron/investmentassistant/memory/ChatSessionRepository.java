@@ -0,0 +1,6 @@
+package io.yayotron.investmentassistant.memory;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ChatSessionRepository extends MongoRepository<ChatSession, String> {
+}
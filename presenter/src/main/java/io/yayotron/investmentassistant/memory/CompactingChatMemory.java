@@ -0,0 +1,159 @@
+package io.yayotron.investmentassistant.memory;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.input.PromptTemplate;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Token-bounded chat memory of one session. Once a completed turn takes the memory over the compaction threshold,
+ * everything but the system message and the most recent turns is replaced by a summary written by the chat model.
+ * Whatever still exceeds the hard limit afterwards, or when no summarizer is set, is evicted oldest first, a tool
+ * call together with its results.
+ */
+public class CompactingChatMemory implements ChatMemory {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactingChatMemory.class);
+    static final String SUMMARY_PREFIX = "Summary of our earlier conversation:\n";
+
+    private final Object id;
+    private final ChatMemoryStore store;
+    private final TokenCountEstimator tokenCountEstimator;
+    private final int maxTokens;
+    private final int compactionThreshold;
+    private final int keepRecentMessages;
+    private final ChatModel summarizer;
+    private final PromptTemplate summaryTemplate;
+
+    public CompactingChatMemory(Object id,
+                                ChatMemoryStore store,
+                                TokenCountEstimator tokenCountEstimator,
+                                int maxTokens,
+                                int compactionThreshold,
+                                int keepRecentMessages,
+                                ChatModel summarizer,
+                                PromptTemplate summaryTemplate) {
+        this.id = id;
+        this.store = store;
+        this.tokenCountEstimator = tokenCountEstimator;
+        this.maxTokens = maxTokens;
+        this.compactionThreshold = compactionThreshold;
+        this.keepRecentMessages = keepRecentMessages;
+        this.summarizer = summarizer;
+        this.summaryTemplate = summaryTemplate;
+    }
+
+    @Override
+    public Object id() {
+        return id;
+    }
+
+    @Override
+    public synchronized void add(ChatMessage message) {
+        List<ChatMessage> messages = new ArrayList<>(store.getMessages(id));
+        if (message instanceof SystemMessage) {
+            if (!messages.isEmpty() && messages.get(0) instanceof SystemMessage current) {
+                if (current.equals(message)) {
+                    return;
+                }
+                messages.remove(0);
+            }
+            messages.add(0, message);
+        } else {
+            messages.add(message);
+        }
+
+        // Only compact on a completed turn, so a question is never summarized away before it is answered
+        if (message instanceof AiMessage && summarizer != null
+                && tokenCountEstimator.estimateTokenCountInMessages(messages) > compactionThreshold) {
+            messages = compact(messages);
+        }
+        evictToFit(messages);
+        store.updateMessages(id, messages);
+    }
+
+    @Override
+    public List<ChatMessage> messages() {
+        return store.getMessages(id);
+    }
+
+    @Override
+    public void clear() {
+        store.deleteMessages(id);
+    }
+
+    private List<ChatMessage> compact(List<ChatMessage> messages) {
+        int first = messages.get(0) instanceof SystemMessage ? 1 : 0;
+        int split = Math.max(first, messages.size() - keepRecentMessages);
+        while (split < messages.size() && !(messages.get(split) instanceof UserMessage)) {
+            split++;
+        }
+        if (split - first < 2) {
+            return messages;
+        }
+
+        String conversation = messages.subList(first, split).stream()
+                .map(CompactingChatMemory::transcriptLine)
+                .collect(Collectors.joining("\n"));
+        try {
+            long start = System.currentTimeMillis();
+            String summary = summarizer.chat(summaryTemplate.apply(Map.of("conversation", conversation)).text());
+
+            List<ChatMessage> compacted = new ArrayList<>(messages.subList(0, first));
+            compacted.add(UserMessage.from(SUMMARY_PREFIX + summary));
+            compacted.addAll(messages.subList(split, messages.size()));
+            logger.info("Compacted {} messages of session {} from {} to {} tokens in {} ms", split - first, id,
+                    tokenCountEstimator.estimateTokenCountInMessages(messages),
+                    tokenCountEstimator.estimateTokenCountInMessages(compacted),
+                    System.currentTimeMillis() - start);
+            return compacted;
+        } catch (RuntimeException e) {
+            logger.warn("Could not summarize session {}, evicting old messages instead: {}", id, e.getMessage());
+            return messages;
+        }
+    }
+
+    private void evictToFit(List<ChatMessage> messages) {
+        int first = !messages.isEmpty() && messages.get(0) instanceof SystemMessage ? 1 : 0;
+        int tokens = tokenCountEstimator.estimateTokenCountInMessages(messages);
+        while (tokens > maxTokens) {
+            // Tool results are rejected by the model without the message that called the tools
+            int end = first + 1;
+            while (end < messages.size() && messages.get(end) instanceof ToolExecutionResultMessage) {
+                end++;
+            }
+            // The latest message and its results always stay
+            if (end >= messages.size()) {
+                break;
+            }
+            List<ChatMessage> evicted = messages.subList(first, end);
+            for (ChatMessage message : evicted) {
+                tokens -= tokenCountEstimator.estimateTokenCountInMessage(message);
+            }
+            evicted.clear();
+        }
+    }
+
+    private static String transcriptLine(ChatMessage message) {
+        if (message instanceof UserMessage userMessage) {
+            return "User: " + userMessage.singleText();
+        }
+        if (message instanceof AiMessage aiMessage) {
+            return "Assistant: " + aiMessage.text();
+        }
+        return message.type() + ": " + message;
+    }
+}
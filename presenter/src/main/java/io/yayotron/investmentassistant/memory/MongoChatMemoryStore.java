@@ -0,0 +1,39 @@
+package io.yayotron.investmentassistant.memory;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.langchain4j.data.message.ChatMessageDeserializer.messagesFromJson;
+import static dev.langchain4j.data.message.ChatMessageSerializer.messagesToJson;
+
+@Component
+public class MongoChatMemoryStore implements ChatMemoryStore {
+
+    private final ChatSessionRepository chatSessionRepository;
+
+    public MongoChatMemoryStore(ChatSessionRepository chatSessionRepository) {
+        this.chatSessionRepository = chatSessionRepository;
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        return chatSessionRepository.findById(memoryId.toString())
+                .map(session -> new ArrayList<>(messagesFromJson(session.messages())))
+                .orElseGet(ArrayList::new);
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        chatSessionRepository.save(new ChatSession(memoryId.toString(), messagesToJson(messages), Instant.now()));
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        chatSessionRepository.deleteById(memoryId.toString());
+    }
+}
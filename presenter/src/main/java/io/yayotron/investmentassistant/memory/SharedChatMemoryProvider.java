@@ -0,0 +1,52 @@
+package io.yayotron.investmentassistant.memory;
+
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Hands out a single memory per session, so both assistants and the answer cache add to it under the same lock. Only
+ * the {@code maxSessions} most recently used are kept; a dropped session's memory is created again from its store
+ * when the session comes back.
+ */
+public class SharedChatMemoryProvider implements ChatMemoryProvider {
+
+    private final Function<Object, ChatMemory> factory;
+    private final Map<Object, ChatMemory> memories;
+    private final Queue<Object> dropped = new ConcurrentLinkedQueue<>();
+
+    public SharedChatMemoryProvider(int maxSessions, Function<Object, ChatMemory> factory) {
+        this.factory = factory;
+        this.memories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, ChatMemory> eldest) {
+                if (size() <= maxSessions) {
+                    return false;
+                }
+                dropped.add(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public synchronized ChatMemory get(Object memoryId) {
+        return memories.computeIfAbsent(memoryId, factory);
+    }
+
+    /**
+     * Passes the sessions dropped since the last call to {@code evictor}, for the AI services that keep memories of
+     * their own. Called outside of {@link #get}, which the AI services call while updating their own map.
+     */
+    public void evictDropped(Consumer<Object> evictor) {
+        for (Object memoryId = dropped.poll(); memoryId != null; memoryId = dropped.poll()) {
+            evictor.accept(memoryId);
+        }
+    }
+}
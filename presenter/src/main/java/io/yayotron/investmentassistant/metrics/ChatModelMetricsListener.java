@@ -0,0 +1,82 @@
+package io.yayotron.investmentassistant.metrics;
+
+import dev.langchain4j.model.chat.listener.ChatModelErrorContext;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Times every chat model call, counts tokens per model and keeps the calls in flight as a long task timer.
+ */
+@Component
+public class ChatModelMetricsListener implements ChatModelListener {
+
+    private static final String SAMPLE_ATTRIBUTE = ChatModelMetricsListener.class.getName() + ".sample";
+    private static final String IN_FLIGHT_ATTRIBUTE = ChatModelMetricsListener.class.getName() + ".inFlight";
+
+    private final MeterRegistry meterRegistry;
+    private final LongTaskTimer inFlight;
+
+    public ChatModelMetricsListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.inFlight = LongTaskTimer.builder("ai.chat.active")
+                .description("Chat model calls in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onRequest(ChatModelRequestContext requestContext) {
+        requestContext.attributes().put(SAMPLE_ATTRIBUTE, Timer.start(meterRegistry));
+        requestContext.attributes().put(IN_FLIGHT_ATTRIBUTE, inFlight.start());
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext responseContext) {
+        String model = model(responseContext.chatResponse().modelName(), responseContext.chatRequest().modelName());
+        stop(responseContext.attributes(), model, "success");
+
+        TokenUsage tokenUsage = responseContext.chatResponse().tokenUsage();
+        if (tokenUsage != null) {
+            count(model, "input", tokenUsage.inputTokenCount());
+            count(model, "output", tokenUsage.outputTokenCount());
+        }
+    }
+
+    @Override
+    public void onError(ChatModelErrorContext errorContext) {
+        stop(errorContext.attributes(), model(null, errorContext.chatRequest().modelName()), "error");
+    }
+
+    private void stop(Map<Object, Object> attributes, String model, String outcome) {
+        if (attributes.get(IN_FLIGHT_ATTRIBUTE) instanceof LongTaskTimer.Sample sample) {
+            sample.stop();
+        }
+        if (attributes.get(SAMPLE_ATTRIBUTE) instanceof Timer.Sample sample) {
+            sample.stop(Timer.builder("ai.chat.requests")
+                    .description("Chat model calls")
+                    .tag("model", model)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void count(String model, String type, Integer tokens) {
+        if (tokens != null) {
+            meterRegistry.counter("ai.chat.tokens", "model", model, "type", type).increment(tokens);
+        }
+    }
+
+    private static String model(String responseModel, String requestModel) {
+        if (responseModel != null) {
+            return responseModel;
+        }
+        return requestModel != null ? requestModel : "unknown";
+    }
+}
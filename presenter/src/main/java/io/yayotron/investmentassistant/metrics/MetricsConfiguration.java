@@ -0,0 +1,107 @@
+package io.yayotron.investmentassistant.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.logging.LoggingMeterRegistry;
+import io.micrometer.core.instrument.logging.LoggingRegistryConfig;
+import dev.langchain4j.rag.content.Content;
+import io.yayotron.investmentassistant.api.ChatGate;
+import io.yayotron.investmentassistant.cache.AnswerCache;
+import io.yayotron.investmentassistant.cache.SemanticCache;
+import io.yayotron.investmentassistant.embedding.CachingEmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class MetricsConfiguration {
+
+    private final Duration summaryInterval;
+
+    public MetricsConfiguration(@Value("${ai.metrics.summary.interval.seconds}") long summaryIntervalSeconds) {
+        this.summaryInterval = Duration.ofSeconds(summaryIntervalSeconds);
+    }
+
+    /**
+     * Logs the application's own meters, next to the Prometheus registry scraped through /actuator/prometheus.
+     */
+    @Bean
+    public LoggingMeterRegistry summaryMeterRegistry() {
+        LoggingRegistryConfig config = new LoggingRegistryConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public Duration step() {
+                return summaryInterval;
+            }
+        };
+        LoggingMeterRegistry registry = new LoggingMeterRegistry(config, Clock.SYSTEM);
+        registry.config()
+                .meterFilter(MeterFilter.acceptNameStartsWith("ai."))
+                .meterFilter(MeterFilter.deny());
+        return registry;
+    }
+
+    @Bean
+    public Gauge chatGateActiveGauge(MeterRegistry meterRegistry, ChatGate chatGate) {
+        return Gauge.builder("ai.api.questions", chatGate, ChatGate::active)
+                .description("Questions being answered through the HTTP API")
+                .tag("state", "active")
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public Gauge chatGateQueuedGauge(MeterRegistry meterRegistry, ChatGate chatGate) {
+        return Gauge.builder("ai.api.questions", chatGate, ChatGate::queued)
+                .description("Questions waiting for a slot in the chat gate")
+                .tag("state", "queued")
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public Gauge embeddingCacheHitRateGauge(MeterRegistry meterRegistry, CachingEmbeddingModel embeddingModel) {
+        return Gauge.builder("ai.embedding.cache.hit.rate", embeddingModel, model -> model.stats().hitRate())
+                .description("Share of embeddings served from the memory or disk cache")
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public Gauge retrievalCacheHitRateGauge(MeterRegistry meterRegistry, SemanticCache<List<Content>> retrievalCache) {
+        return Gauge.builder("ai.cache.hit.rate", retrievalCache, cache -> cache.stats().hitRate())
+                .description("Share of lookups served from the cache")
+                .tag("tier", "retrieval")
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public Gauge retrievalCacheEntriesGauge(MeterRegistry meterRegistry, SemanticCache<List<Content>> retrievalCache) {
+        return Gauge.builder("ai.cache.entries", retrievalCache, cache -> cache.stats().entries())
+                .description("Entries held by the cache")
+                .tag("tier", "retrieval")
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public Gauge answerCacheHitRateGauge(MeterRegistry meterRegistry, AnswerCache answerCache) {
+        return Gauge.builder("ai.cache.hit.rate", answerCache, cache -> cache.stats().hitRate())
+                .description("Share of lookups served from the cache")
+                .tag("tier", "answer")
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public Gauge answerCacheEntriesGauge(MeterRegistry meterRegistry, AnswerCache answerCache) {
+        return Gauge.builder("ai.cache.entries", answerCache, cache -> cache.stats().entries())
+                .description("Entries held by the cache")
+                .tag("tier", "answer")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,66 @@
+package io.yayotron.investmentassistant.metrics;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import dev.langchain4j.model.openai.OpenAiTokenUsage;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.yayotron.investmentassistant.prompt.SystemPrompt;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Counts the answers whose system prompt prefix the model server took from its prompt cache, as reported by the
+ * server. OpenAI reports the cached input tokens, any of which means the prefix was cached. Ollama only reports the
+ * prompt tokens it evaluated, which leave out those reused from its cache; they are recorded as they are, a drop in
+ * them shows the cache at work.
+ */
+@Component
+public class PromptCacheListener implements ChatModelListener {
+
+    private final SystemPrompt systemPrompt;
+    private final MeterRegistry meterRegistry;
+
+    public PromptCacheListener(SystemPrompt systemPrompt, MeterRegistry meterRegistry) {
+        this.systemPrompt = systemPrompt;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext responseContext) {
+        List<ChatMessage> messages = responseContext.chatRequest().messages();
+        TokenUsage tokenUsage = responseContext.chatResponse().tokenUsage();
+        // Auxiliary steps such as query compression have prompts of their own
+        if (messages.isEmpty() || !(messages.get(0) instanceof SystemMessage systemMessage)
+                || !systemMessage.text().startsWith(systemPrompt.prefix())
+                || tokenUsage == null || tokenUsage.inputTokenCount() == null) {
+            return;
+        }
+
+        if (tokenUsage instanceof OpenAiTokenUsage openAiTokenUsage
+                && openAiTokenUsage.inputTokensDetails() != null
+                && openAiTokenUsage.inputTokensDetails().cachedTokens() != null) {
+            int cachedTokens = openAiTokenUsage.inputTokensDetails().cachedTokens();
+            Counter.builder("ai.prompt.cache.requests")
+                    .description("Answers by whether the system prompt prefix was served from the prompt cache")
+                    .tag("outcome", cachedTokens > 0 ? "hit" : "miss")
+                    .register(meterRegistry)
+                    .increment();
+            Counter.builder("ai.prompt.cache.tokens")
+                    .description("Prompt tokens served from the prompt cache")
+                    .register(meterRegistry)
+                    .increment(cachedTokens);
+        } else {
+            DistributionSummary.builder("ai.prompt.eval.tokens")
+                    .description("Prompt tokens the model server evaluated, leaving out those from its cache")
+                    .baseUnit("tokens")
+                    .register(meterRegistry)
+                    .record(tokenUsage.inputTokenCount());
+        }
+    }
+}
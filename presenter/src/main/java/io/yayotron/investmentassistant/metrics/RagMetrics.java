@@ -0,0 +1,80 @@
+package io.yayotron.investmentassistant.metrics;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.RetrievalAugmentor;
+import dev.langchain4j.rag.content.aggregator.ContentAggregator;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.router.QueryRouter;
+import dev.langchain4j.rag.query.transformer.QueryTransformer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Wraps the stages of the retrieval pipeline so that each of them reports an {@code ai.rag.stage} timer, which
+ * tells where a slow answer spent its time before generation started.
+ */
+@Component
+public class RagMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public RagMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public RetrievalAugmentor timedAugmentor(RetrievalAugmentor retrievalAugmentor) {
+        Timer timer = stageTimer("augment", "all");
+        return request -> timer.record(() -> retrievalAugmentor.augment(request));
+    }
+
+    public QueryTransformer timedTransformer(QueryTransformer queryTransformer) {
+        Timer timer = stageTimer("transform", "all");
+        return query -> timer.record(() -> queryTransformer.transform(query));
+    }
+
+    public QueryRouter timedRouter(QueryRouter queryRouter) {
+        Timer timer = stageTimer("route", "all");
+        return query -> timer.record(() -> queryRouter.route(query));
+    }
+
+    public ContentAggregator timedAggregator(ContentAggregator contentAggregator) {
+        Timer timer = stageTimer("aggregate", "all");
+        return queryToContents -> timer.record(() -> contentAggregator.aggregate(queryToContents));
+    }
+
+    public ContentRetriever timedRetriever(String retrieverName, ContentRetriever contentRetriever) {
+        Timer timer = stageTimer("retrieve", retrieverName);
+        return query -> timer.record(() -> contentRetriever.retrieve(query));
+    }
+
+    public EmbeddingModel timedEmbeddingModel(EmbeddingModel embeddingModel) {
+        Timer timer = Timer.builder("ai.embedding.requests")
+                .description("Embedding calls, cache hits included")
+                .register(meterRegistry);
+        return new EmbeddingModel() {
+            @Override
+            public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+                return timer.record(() -> embeddingModel.embedAll(textSegments));
+            }
+
+            @Override
+            public int dimension() {
+                return embeddingModel.dimension();
+            }
+        };
+    }
+
+    private Timer stageTimer(String stage, String retriever) {
+        return Timer.builder("ai.rag.stage")
+                .description("Time spent in each stage of retrieval augmentation")
+                .tag("stage", stage)
+                .tag("retriever", retriever)
+                .register(meterRegistry);
+    }
+}
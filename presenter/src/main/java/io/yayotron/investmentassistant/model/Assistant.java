@@ -1,6 +1,9 @@
 package io.yayotron.investmentassistant.model;
 
-@FunctionalInterface
-public interface Assistant {
-    String answer(String query);
-}
\ No newline at end of file
+import dev.langchain4j.service.MemoryId;
+import dev.langchain4j.service.UserMessage;
+import dev.langchain4j.service.memory.ChatMemoryAccess;
+
+public interface Assistant extends ChatMemoryAccess {
+    String answer(@MemoryId String sessionId, @UserMessage String query);
+}
@@ -0,0 +1,73 @@
+package io.yayotron.investmentassistant.model;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.tool.ToolExecution;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams an answer taken from the answer cache as a single token, with no retrieval and no tool call.
+ */
+class CachedTokenStream implements TokenStream {
+
+    private final String answer;
+    private Consumer<String> partialResponseHandler = token -> {
+    };
+    private Consumer<ChatResponse> completeResponseHandler = response -> {
+    };
+    private Consumer<Throwable> errorHandler = error -> {
+    };
+
+    CachedTokenStream(String answer) {
+        this.answer = answer;
+    }
+
+    @Override
+    public TokenStream onPartialResponse(Consumer<String> partialResponseHandler) {
+        this.partialResponseHandler = partialResponseHandler;
+        return this;
+    }
+
+    @Override
+    public TokenStream onRetrieved(Consumer<List<Content>> contentHandler) {
+        return this;
+    }
+
+    @Override
+    public TokenStream onToolExecuted(Consumer<ToolExecution> toolExecuteHandler) {
+        return this;
+    }
+
+    @Override
+    public TokenStream onCompleteResponse(Consumer<ChatResponse> completeResponseHandler) {
+        this.completeResponseHandler = completeResponseHandler;
+        return this;
+    }
+
+    @Override
+    public TokenStream onError(Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+        return this;
+    }
+
+    @Override
+    public TokenStream ignoreErrors() {
+        this.errorHandler = error -> {
+        };
+        return this;
+    }
+
+    @Override
+    public void start() {
+        try {
+            partialResponseHandler.accept(answer);
+            completeResponseHandler.accept(ChatResponse.builder().aiMessage(AiMessage.from(answer)).build());
+        } catch (RuntimeException e) {
+            errorHandler.accept(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.yayotron.investmentassistant.model;
+
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.PartialThinking;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.tool.BeforeToolExecution;
+import dev.langchain4j.service.tool.ToolExecution;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams a generated answer and hands the complete answer to {@code onAnswer}, before the caller's own handler.
+ */
+class CachingTokenStream implements TokenStream {
+
+    private final TokenStream delegate;
+    private final Consumer<String> onAnswer;
+
+    CachingTokenStream(TokenStream delegate, Consumer<String> onAnswer) {
+        this.delegate = delegate;
+        this.onAnswer = onAnswer;
+        // Also stored when the caller has no handler of its own
+        delegate.onCompleteResponse(this::answered);
+    }
+
+    @Override
+    public TokenStream onPartialResponse(Consumer<String> partialResponseHandler) {
+        delegate.onPartialResponse(partialResponseHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream onPartialThinking(Consumer<PartialThinking> partialThinkingHandler) {
+        delegate.onPartialThinking(partialThinkingHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream onRetrieved(Consumer<List<Content>> contentHandler) {
+        delegate.onRetrieved(contentHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream onIntermediateResponse(Consumer<ChatResponse> intermediateResponseHandler) {
+        delegate.onIntermediateResponse(intermediateResponseHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream beforeToolExecution(Consumer<BeforeToolExecution> beforeToolExecutionHandler) {
+        delegate.beforeToolExecution(beforeToolExecutionHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream onToolExecuted(Consumer<ToolExecution> toolExecuteHandler) {
+        delegate.onToolExecuted(toolExecuteHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream onCompleteResponse(Consumer<ChatResponse> completeResponseHandler) {
+        delegate.onCompleteResponse(response -> {
+            answered(response);
+            completeResponseHandler.accept(response);
+        });
+        return this;
+    }
+
+    @Override
+    public TokenStream onError(Consumer<Throwable> errorHandler) {
+        delegate.onError(errorHandler);
+        return this;
+    }
+
+    @Override
+    public TokenStream ignoreErrors() {
+        delegate.ignoreErrors();
+        return this;
+    }
+
+    @Override
+    public void start() {
+        delegate.start();
+    }
+
+    private void answered(ChatResponse response) {
+        if (response.aiMessage() != null && response.aiMessage().text() != null) {
+            onAnswer.accept(response.aiMessage().text());
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package io.yayotron.investmentassistant.model;
 
+import dev.langchain4j.model.chat.listener.ChatModelListener;
 import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
+/**
+ * Builds the OpenAI model a tier lists as {@value ModelPoolConfiguration#CHATGPT}, see {@link ModelPoolConfiguration}.
+ */
+@Configuration
 public class ChatGptModelConfiguration {
 
     private final String apiKey;
@@ -22,14 +29,30 @@ public class ChatGptModelConfiguration {
         this.baseUrl = baseUrl;
     }
 
-    @Bean
-    public OpenAiChatModel model() {
+    public OpenAiChatModel model(List<ChatModelListener> listeners) {
         OpenAiChatModel.OpenAiChatModelBuilder builder = OpenAiChatModel.builder()
                 .apiKey(apiKey)
                 .modelName(modelName)
                 .timeout(Duration.of(5, ChronoUnit.MINUTES))
                 .logRequests(true)
-                .logResponses(true);
+                .logResponses(true)
+                .listeners(listeners);
+
+        if (baseUrl != null && !baseUrl.isEmpty()) {
+            builder.baseUrl(baseUrl);
+        }
+
+        return builder.build();
+    }
+
+    public OpenAiStreamingChatModel streamingModel(List<ChatModelListener> listeners) {
+        OpenAiStreamingChatModel.OpenAiStreamingChatModelBuilder builder = OpenAiStreamingChatModel.builder()
+                .apiKey(apiKey)
+                .modelName(modelName)
+                .timeout(Duration.of(5, ChronoUnit.MINUTES))
+                .logRequests(true)
+                .logResponses(true)
+                .listeners(listeners);
 
         if (baseUrl != null && !baseUrl.isEmpty()) {
             builder.baseUrl(baseUrl);
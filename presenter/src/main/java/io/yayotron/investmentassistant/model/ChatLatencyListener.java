@@ -0,0 +1,41 @@
+package io.yayotron.investmentassistant.model;
+
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.listener.ChatModelRequestContext;
+import dev.langchain4j.model.chat.listener.ChatModelResponseContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Keeps an exponentially weighted average of chat model round trips, used to estimate what a skipped call saves.
+ */
+@Component
+public class ChatLatencyListener implements ChatModelListener {
+
+    private static final String START_ATTRIBUTE = ChatLatencyListener.class.getName() + ".start";
+    private static final double WEIGHT = 0.2;
+
+    private double averageNanos = -1;
+
+    @Override
+    public void onRequest(ChatModelRequestContext requestContext) {
+        requestContext.attributes().put(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    @Override
+    public void onResponse(ChatModelResponseContext responseContext) {
+        if (responseContext.attributes().get(START_ATTRIBUTE) instanceof Long start) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    public synchronized Optional<Duration> averageRoundTrip() {
+        return averageNanos < 0 ? Optional.empty() : Optional.of(Duration.ofNanos((long) averageNanos));
+    }
+
+    private synchronized void record(long nanos) {
+        averageNanos = averageNanos < 0 ? nanos : averageNanos + WEIGHT * (nanos - averageNanos);
+    }
+}
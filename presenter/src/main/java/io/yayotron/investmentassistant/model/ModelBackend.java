@@ -0,0 +1,134 @@
+package io.yayotron.investmentassistant.model;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * One model on one server, shared by every tier that lists it. Calls in flight are capped, and the latency and error
+ * rate of recent calls are kept as exponentially weighted averages. Once the error rate goes over the threshold the
+ * backend is skipped for a while, after which calls probe it again: a success closes it, a failure skips it again.
+ */
+public class ModelBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelBackend.class);
+
+    private static final double WEIGHT = 0.2;
+    // Calls seen before the error rate is trusted, so a single failure of a fresh backend does not skip it
+    private static final int MIN_CALLS = 5;
+
+    private final String name;
+    private final ChatModel chatModel;
+    private final StreamingChatModel streamingChatModel;
+    private final int maxInFlight;
+    private final Semaphore slots;
+    private final double maxErrorRate;
+    private final long skipNanos;
+    private final LongSupplier nanoTime;
+
+    private double latencyNanos = -1;
+    private double errorRate;
+    private long calls;
+    private long skippedUntil;
+    private boolean skipped;
+
+    public ModelBackend(String name, ChatModel chatModel, StreamingChatModel streamingChatModel, int maxInFlight,
+                        double maxErrorRate, Duration skipFor) {
+        this(name, chatModel, streamingChatModel, maxInFlight, maxErrorRate, skipFor, System::nanoTime);
+    }
+
+    ModelBackend(String name, ChatModel chatModel, StreamingChatModel streamingChatModel, int maxInFlight,
+                 double maxErrorRate, Duration skipFor, LongSupplier nanoTime) {
+        this.name = name;
+        this.chatModel = chatModel;
+        this.streamingChatModel = streamingChatModel;
+        this.maxInFlight = maxInFlight;
+        this.slots = new Semaphore(maxInFlight, true);
+        this.maxErrorRate = maxErrorRate;
+        this.skipNanos = skipFor.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    ChatModel chatModel() {
+        return chatModel;
+    }
+
+    StreamingChatModel streamingChatModel() {
+        return streamingChatModel;
+    }
+
+    boolean tryAcquire() {
+        return slots.tryAcquire();
+    }
+
+    boolean tryAcquire(Duration timeout) throws InterruptedException {
+        return slots.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    void release() {
+        slots.release();
+    }
+
+    public int inFlight() {
+        return maxInFlight - slots.availablePermits();
+    }
+
+    /**
+     * False while the backend is skipped for its error rate.
+     */
+    public synchronized boolean available() {
+        return !skipped || nanoTime.getAsLong() - skippedUntil >= 0;
+    }
+
+    public synchronized Optional<Duration> latency() {
+        return latencyNanos < 0 ? Optional.empty() : Optional.of(Duration.ofNanos((long) latencyNanos));
+    }
+
+    public synchronized double errorRate() {
+        return errorRate;
+    }
+
+    /**
+     * How long a new call would wait for this backend, estimated from its latency and the calls ahead of it.
+     */
+    synchronized long expectedWaitNanos() {
+        return (long) (Math.max(0, latencyNanos) * (inFlight() + 1) / maxInFlight);
+    }
+
+    synchronized void recordSuccess(long nanos) {
+        latencyNanos = latencyNanos < 0 ? nanos : WEIGHT * nanos + (1 - WEIGHT) * latencyNanos;
+        errorRate = (1 - WEIGHT) * errorRate;
+        calls++;
+        if (skipped) {
+            skipped = false;
+            logger.info("Chat model {} answers again", name);
+        }
+    }
+
+    synchronized void recordFailure(Throwable error) {
+        errorRate = WEIGHT + (1 - WEIGHT) * errorRate;
+        calls++;
+        if (skipped || (calls >= MIN_CALLS && errorRate > maxErrorRate)) {
+            skipped = true;
+            skippedUntil = nanoTime.getAsLong() + skipNanos;
+            logger.warn("Chat model {} fails {}% of the calls, skipping it for {} s: {}", name,
+                    Math.round(errorRate * 100), TimeUnit.NANOSECONDS.toSeconds(skipNanos), error.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,242 @@
+package io.yayotron.investmentassistant.model;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.CompleteToolCall;
+import dev.langchain4j.model.chat.response.PartialThinking;
+import dev.langchain4j.model.chat.response.PartialToolCall;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * The chat models of one tier, in order of preference. Backends skipped for their error rate come last, and so do
+ * those whose recent latency is over the tier's budget. A call takes a free slot on the first backend that has one
+ * and fails over to the next one when it fails. When all of them are busy, it waits for the backend expected to free
+ * up first, and is shed with a {@link ModelUnavailableException} if none does within the acquire timeout.
+ * <p>
+ * A streamed answer fails over only until its first token, the tokens already sent cannot be taken back.
+ */
+public class ModelPool implements ChatModel {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelPool.class);
+
+    private final String tier;
+    private final List<ModelBackend> backends;
+    private final long latencyBudgetNanos;
+    private final Duration acquireTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Streaming streaming = new Streaming();
+
+    /**
+     * @param latencyBudget backends slower than this are only used when the faster ones are busy or failing,
+     *                      zero to keep the order of preference regardless of latency
+     */
+    public ModelPool(String tier, List<ModelBackend> backends, Duration latencyBudget, Duration acquireTimeout,
+                     MeterRegistry meterRegistry) {
+        if (backends.isEmpty()) {
+            throw new IllegalArgumentException("The " + tier + " tier needs at least one chat model");
+        }
+        this.tier = tier;
+        this.backends = List.copyOf(backends);
+        this.latencyBudgetNanos = latencyBudget.toNanos();
+        this.acquireTimeout = acquireTimeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public String tier() {
+        return tier;
+    }
+
+    public List<ModelBackend> backends() {
+        return backends;
+    }
+
+    /**
+     * The same tier for streamed answers, sharing the slots and statistics of the backends.
+     */
+    public StreamingChatModel streaming() {
+        return streaming;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        List<ModelBackend> untried = candidates();
+        RuntimeException failure = null;
+        ModelBackend failed = null;
+        while (!untried.isEmpty()) {
+            ModelBackend backend = acquire(untried);
+            if (backend == null) {
+                break;
+            }
+            failedOver(failed, backend);
+            long start = System.nanoTime();
+            try {
+                ChatResponse response = backend.chatModel().chat(chatRequest);
+                backend.recordSuccess(System.nanoTime() - start);
+                return response;
+            } catch (RuntimeException e) {
+                // A cancelled call says nothing about the backend
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                backend.recordFailure(e);
+                logger.warn("Chat model {} of the {} tier failed: {}", backend, tier, e.getMessage());
+                failure = e;
+                failed = backend;
+            } finally {
+                backend.release();
+            }
+        }
+        throw failure != null ? failure : shed();
+    }
+
+    /**
+     * Backends in the order they are tried for the next call.
+     */
+    List<ModelBackend> candidates() {
+        List<ModelBackend> fast = new ArrayList<>();
+        List<ModelBackend> slow = new ArrayList<>();
+        List<ModelBackend> skipped = new ArrayList<>();
+        for (ModelBackend backend : backends) {
+            if (!backend.available()) {
+                skipped.add(backend);
+            } else if (latencyBudgetNanos > 0
+                    && backend.latency().map(latency -> latency.toNanos() > latencyBudgetNanos).orElse(false)) {
+                slow.add(backend);
+            } else {
+                fast.add(backend);
+            }
+        }
+        fast.addAll(slow);
+        // With every backend skipped, trying them beats failing without a call
+        fast.addAll(skipped);
+        return fast;
+    }
+
+    /**
+     * Takes a slot on the first of {@code untried} that has one, or waits for the one expected to free up first.
+     * The backend is removed from {@code untried}; null when no slot freed up in time.
+     */
+    private ModelBackend acquire(List<ModelBackend> untried) {
+        for (ModelBackend backend : untried) {
+            if (backend.tryAcquire()) {
+                untried.remove(backend);
+                return backend;
+            }
+        }
+        ModelBackend backend = untried.stream()
+                .min(Comparator.comparingLong(ModelBackend::expectedWaitNanos))
+                .orElseThrow();
+        try {
+            if (backend.tryAcquire(acquireTimeout)) {
+                untried.remove(backend);
+                return backend;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private void failedOver(ModelBackend from, ModelBackend to) {
+        if (from != null) {
+            meterRegistry.counter("ai.model.failovers", "tier", tier, "from", from.name(), "to", to.name())
+                    .increment();
+        }
+    }
+
+    private ModelUnavailableException shed() {
+        meterRegistry.counter("ai.model.shed", "tier", tier).increment();
+        return new ModelUnavailableException("No " + tier + " chat model freed up within " + acquireTimeout);
+    }
+
+    private class Streaming implements StreamingChatModel {
+
+        @Override
+        public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+            stream(candidates(), chatRequest, handler, null, null);
+        }
+
+        private void stream(List<ModelBackend> untried, ChatRequest chatRequest, StreamingChatResponseHandler handler,
+                            Throwable failure, ModelBackend failed) {
+            ModelBackend backend = untried.isEmpty() ? null : acquire(untried);
+            if (backend == null) {
+                handler.onError(failure != null ? failure : shed());
+                return;
+            }
+            failedOver(failed, backend);
+            long start = System.nanoTime();
+            AtomicBoolean started = new AtomicBoolean();
+            AtomicBoolean done = new AtomicBoolean();
+            Function<Throwable, Boolean> fail = error -> {
+                if (!done.compareAndSet(false, true)) {
+                    return false;
+                }
+                backend.release();
+                backend.recordFailure(error);
+                logger.warn("Chat model {} of the {} tier failed: {}", backend, tier, error.getMessage());
+                return true;
+            };
+            try {
+                backend.streamingChatModel().chat(chatRequest, new StreamingChatResponseHandler() {
+                    @Override
+                    public void onPartialResponse(String partialResponse) {
+                        started.set(true);
+                        handler.onPartialResponse(partialResponse);
+                    }
+
+                    @Override
+                    public void onPartialThinking(PartialThinking partialThinking) {
+                        started.set(true);
+                        handler.onPartialThinking(partialThinking);
+                    }
+
+                    @Override
+                    public void onPartialToolCall(PartialToolCall partialToolCall) {
+                        started.set(true);
+                        handler.onPartialToolCall(partialToolCall);
+                    }
+
+                    @Override
+                    public void onCompleteToolCall(CompleteToolCall completeToolCall) {
+                        started.set(true);
+                        handler.onCompleteToolCall(completeToolCall);
+                    }
+
+                    @Override
+                    public void onCompleteResponse(ChatResponse completeResponse) {
+                        if (done.compareAndSet(false, true)) {
+                            backend.release();
+                            backend.recordSuccess(System.nanoTime() - start);
+                        }
+                        handler.onCompleteResponse(completeResponse);
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        if (fail.apply(error) && !started.get()) {
+                            stream(untried, chatRequest, handler, error, backend);
+                        } else {
+                            handler.onError(error);
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                if (fail.apply(e)) {
+                    stream(untried, chatRequest, handler, e, backend);
+                }
+            }
+        }
+    }
+}
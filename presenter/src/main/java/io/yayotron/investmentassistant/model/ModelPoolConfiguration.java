@@ -0,0 +1,115 @@
+package io.yayotron.investmentassistant.model;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Two tiers of chat models: the auxiliary tier compresses follow-up questions, routes queries and summarizes old
+ * turns, the answer tier generates the answers. Each tier lists its models in order of preference, by their Ollama
+ * name or as {@value #CHATGPT} for the OpenAI model. A model listed by both tiers is a single backend, so its cap on
+ * calls in flight and its statistics are shared.
+ */
+@Configuration
+public class ModelPoolConfiguration {
+
+    public static final String CHATGPT = "chatgpt";
+
+    private final OllamaChatModelConfiguration ollama;
+    private final ChatGptModelConfiguration chatGpt;
+    private final List<ChatModelListener> listeners;
+    private final MeterRegistry meterRegistry;
+    private final int maxInFlight;
+    private final double maxErrorRate;
+    private final Duration skipFor;
+    private final Duration acquireTimeout;
+    private final Map<String, ModelBackend> backends = new HashMap<>();
+
+    public ModelPoolConfiguration(OllamaChatModelConfiguration ollama,
+                                  ChatGptModelConfiguration chatGpt,
+                                  List<ChatModelListener> listeners,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${ai.model.backend.max.in.flight}") int maxInFlight,
+                                  @Value("${ai.model.backend.max.error.rate}") double maxErrorRate,
+                                  @Value("${ai.model.backend.skip.seconds}") long skipSeconds,
+                                  @Value("${ai.model.acquire.timeout.seconds}") long acquireTimeoutSeconds) {
+        this.ollama = ollama;
+        this.chatGpt = chatGpt;
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlight = maxInFlight;
+        this.maxErrorRate = maxErrorRate;
+        this.skipFor = Duration.ofSeconds(skipSeconds);
+        this.acquireTimeout = Duration.ofSeconds(acquireTimeoutSeconds);
+    }
+
+    @Bean
+    @Primary
+    public ModelPool answerChatModel(@Value("${ai.model.answer.backends}") List<String> names,
+                                     @Value("${ai.model.answer.latency.budget.millis}") long latencyBudgetMillis) {
+        return pool("answer", names, latencyBudgetMillis);
+    }
+
+    @Bean
+    public ModelPool auxiliaryChatModel(
+            @Value("${ai.model.auxiliary.backends}") List<String> names,
+            @Value("${ai.model.auxiliary.latency.budget.millis}") long latencyBudgetMillis) {
+        return pool("auxiliary", names, latencyBudgetMillis);
+    }
+
+    @Bean
+    public StreamingChatModel streamingChatModel(@Qualifier("answerChatModel") ModelPool answerChatModel) {
+        return answerChatModel.streaming();
+    }
+
+    private ModelPool pool(String tier, List<String> names, long latencyBudgetMillis) {
+        List<ModelBackend> tierBackends = names.stream()
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .map(this::backend)
+                .toList();
+        return new ModelPool(tier, tierBackends, Duration.ofMillis(latencyBudgetMillis), acquireTimeout, meterRegistry);
+    }
+
+    private synchronized ModelBackend backend(String name) {
+        return backends.computeIfAbsent(name, key -> {
+            ChatModel chatModel = key.equals(CHATGPT) ? chatGpt.model(listeners) : ollama.model(key, listeners);
+            StreamingChatModel streamingChatModel = key.equals(CHATGPT)
+                    ? chatGpt.streamingModel(listeners)
+                    : ollama.streamingModel(key, listeners);
+            ModelBackend backend = new ModelBackend(key, chatModel, streamingChatModel, maxInFlight, maxErrorRate,
+                    skipFor);
+            register(backend);
+            return backend;
+        });
+    }
+
+    private void register(ModelBackend backend) {
+        Gauge.builder("ai.model.backend.latency", backend,
+                        it -> it.latency().map(latency -> (double) latency.toMillis()).orElse(Double.NaN))
+                .description("Weighted average of the recent call latencies of a chat model, in milliseconds")
+                .tag("backend", backend.name())
+                .register(meterRegistry);
+        Gauge.builder("ai.model.backend.error.rate", backend, ModelBackend::errorRate)
+                .description("Weighted share of the recent calls to a chat model that failed")
+                .tag("backend", backend.name())
+                .register(meterRegistry);
+        Gauge.builder("ai.model.backend.in.flight", backend, ModelBackend::inFlight)
+                .description("Calls in flight on a chat model")
+                .tag("backend", backend.name())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,17 @@
+package io.yayotron.investmentassistant.model;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when every backend of a tier stays busy past the acquire timeout, so the call is shed instead of queued.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "All chat models are busy, retry later")
+public class ModelUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ModelUnavailableException(String message) {
+        super(message);
+    }
+}
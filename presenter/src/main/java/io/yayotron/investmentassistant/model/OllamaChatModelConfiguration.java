@@ -2,8 +2,8 @@ package io.yayotron.investmentassistant.model;
 
 import dev.langchain4j.model.chat.listener.ChatModelListener;
 import dev.langchain4j.model.ollama.OllamaChatModel;
+import dev.langchain4j.model.ollama.OllamaStreamingChatModel;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
@@ -11,24 +11,23 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Builds the models the tiers list by name on the Ollama server, see {@link ModelPoolConfiguration}.
+ */
 @Configuration
 public class OllamaChatModelConfiguration {
 
     private final String ollamaHost;
-    private final String ollamaModel;
     private final String apiKey;
 
     public OllamaChatModelConfiguration(
             @Value("${ai.host}") String ollamaHost,
-            @Value("${ai.api.key}") String apiKey,
-            @Value("${ai.model.name}") String ollamaModel) {
+            @Value("${ai.api.key}") String apiKey) {
         this.ollamaHost = ollamaHost;
-        this.ollamaModel = ollamaModel;
         this.apiKey = apiKey;
     }
 
-    @Bean
-    public OllamaChatModel model(List<ChatModelListener> listeners) {
+    public OllamaChatModel model(String ollamaModel, List<ChatModelListener> listeners) {
         return OllamaChatModel.builder()
                 .customHeaders(Map.of("Authorization", "Bearer " + apiKey))
                 .baseUrl(ollamaHost)
@@ -39,4 +38,16 @@ public class OllamaChatModelConfiguration {
                 .listeners(listeners)
                 .build();
     }
-}
\ No newline at end of file
+
+    public OllamaStreamingChatModel streamingModel(String ollamaModel, List<ChatModelListener> listeners) {
+        return OllamaStreamingChatModel.builder()
+                .customHeaders(Map.of("Authorization", "Bearer " + apiKey))
+                .baseUrl(ollamaHost)
+                .modelName(ollamaModel)
+                .timeout(Duration.of(5, ChronoUnit.MINUTES))
+                .logRequests(true)
+                .logResponses(true)
+                .listeners(listeners)
+                .build();
+    }
+}
@@ -1,36 +1,125 @@
 package io.yayotron.investmentassistant.model;
 
-import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.model.moderation.DisabledModerationModel;
 import dev.langchain4j.rag.RetrievalAugmentor;
 import dev.langchain4j.service.AiServices;
-import io.yayotron.investmentassistant.prompt.SystemPromptEnricher;
+import dev.langchain4j.service.TokenStream;
+import io.yayotron.investmentassistant.cache.AnswerCache;
+import io.yayotron.investmentassistant.cache.SemanticCache;
+import io.yayotron.investmentassistant.market.MarketDataTools;
+import io.yayotron.investmentassistant.memory.SharedChatMemoryProvider;
+import io.yayotron.investmentassistant.prompt.SystemPrompt;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Component
 public class RAGConfiguration {
 
+    public static final String DEFAULT_SESSION_ID = "default";
+
     private final Assistant assistant;
+    private final StreamingAssistant streamingAssistant;
+    private final SharedChatMemoryProvider chatMemoryProvider;
+    private final AnswerCache answerCache;
 
     public RAGConfiguration(ChatModel chatModel,
-                            List<SystemPromptEnricher> systemPrompts,
-                            RetrievalAugmentor retrievalAugmentor) {
-        this.assistant = AiServices.builder(Assistant.class)
+                            StreamingChatModel streamingChatModel,
+                            SharedChatMemoryProvider chatMemoryProvider,
+                            SystemPrompt systemPrompt,
+                            RetrievalAugmentor retrievalAugmentor,
+                            Optional<MarketDataTools> marketDataTools,
+                            AnswerCache answerCache) {
+        // Both assistants share the per-session memories, so a conversation can switch between them
+        AiServices<Assistant> assistantBuilder = AiServices.builder(Assistant.class)
                 .chatModel(chatModel)
-                .chatMemory(MessageWindowChatMemory.withMaxMessages(500))
+                .chatMemoryProvider(chatMemoryProvider)
+                .moderationModel(new DisabledModerationModel())
+                .retrievalAugmentor(retrievalAugmentor)
+                .systemMessageProvider(systemPrompt::render);
+        AiServices<StreamingAssistant> streamingAssistantBuilder = AiServices.builder(StreamingAssistant.class)
+                .streamingChatModel(streamingChatModel)
+                .chatMemoryProvider(chatMemoryProvider)
                 .moderationModel(new DisabledModerationModel())
                 .retrievalAugmentor(retrievalAugmentor)
-                .systemMessageProvider(o -> systemPrompts.stream()
-                        .map(promptEnricher -> promptEnricher.enrichPrompt(o.toString()))
-                        .collect(Collectors.joining("\n")))
-                .build();
+                .systemMessageProvider(systemPrompt::render);
+        // Numeric questions are answered with the market data tools when the model supports tool calling
+        marketDataTools.ifPresent(tools -> {
+            assistantBuilder.tools(tools);
+            streamingAssistantBuilder.tools(tools);
+        });
+        this.assistant = assistantBuilder.build();
+        this.streamingAssistant = streamingAssistantBuilder.build();
+        this.chatMemoryProvider = chatMemoryProvider;
+        this.answerCache = answerCache;
     }
 
     public String ask(String question) {
-        return assistant.answer(question);
+        return ask(DEFAULT_SESSION_ID, question);
+    }
+
+    /**
+     * The first question of a session may be answered from the answer cache, later ones depend on the conversation
+     * so far and are always generated. A cached answer is still added to the session's memory for its follow-ups.
+     */
+    public String ask(String sessionId, String question) {
+        evictDroppedMemories();
+        if (!answerCache.enabled()) {
+            return assistant.answer(sessionId, question);
+        }
+        ChatMemory chatMemory = chatMemoryProvider.get(sessionId);
+        if (chatMemory.messages().stream().anyMatch(UserMessage.class::isInstance)) {
+            return assistant.answer(sessionId, question);
+        }
+        AtomicBoolean generated = new AtomicBoolean();
+        String answer = answerCache.answer(question, () -> {
+            generated.set(true);
+            return assistant.answer(sessionId, question);
+        });
+        if (!generated.get()) {
+            chatMemory.add(UserMessage.from(question));
+            chatMemory.add(AiMessage.from(answer));
+        }
+        return answer;
+    }
+
+    public TokenStream askStreaming(String question) {
+        return askStreaming(DEFAULT_SESSION_ID, question);
+    }
+
+    /**
+     * Like {@link #ask(String, String)}: the first question of a session may be answered from the answer cache, as a
+     * single token, and a streamed first answer is cached once complete.
+     */
+    public TokenStream askStreaming(String sessionId, String question) {
+        evictDroppedMemories();
+        if (!answerCache.enabled()) {
+            return streamingAssistant.answer(sessionId, question);
+        }
+        ChatMemory chatMemory = chatMemoryProvider.get(sessionId);
+        if (chatMemory.messages().stream().anyMatch(UserMessage.class::isInstance)) {
+            return streamingAssistant.answer(sessionId, question);
+        }
+        SemanticCache.Lookup<String> lookup = answerCache.lookup(question);
+        if (lookup.value() == null) {
+            return new CachingTokenStream(streamingAssistant.answer(sessionId, question), lookup::store);
+        }
+        chatMemory.add(UserMessage.from(question));
+        chatMemory.add(AiMessage.from(lookup.value()));
+        return new CachedTokenStream(lookup.value());
+    }
+
+    // The AI services keep every memory they were handed, they forget those the provider no longer keeps
+    private void evictDroppedMemories() {
+        chatMemoryProvider.evictDropped(memoryId -> {
+            assistant.evictChatMemory(memoryId);
+            streamingAssistant.evictChatMemory(memoryId);
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package io.yayotron.investmentassistant.model;
+
+import dev.langchain4j.service.MemoryId;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.UserMessage;
+import dev.langchain4j.service.memory.ChatMemoryAccess;
+
+public interface StreamingAssistant extends ChatMemoryAccess {
+    TokenStream answer(@MemoryId String sessionId, @UserMessage String query);
+}
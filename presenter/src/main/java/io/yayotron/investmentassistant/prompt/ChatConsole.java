@@ -1,50 +1,114 @@
 package io.yayotron.investmentassistant.prompt;
 
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.rag.content.Content;
 import io.yayotron.investmentassistant.model.RAGConfiguration;
+import io.yayotron.investmentassistant.startup.StartupReadiness;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
+@ConditionalOnProperty(name = "ai.console.enabled", havingValue = "true", matchIfMissing = true)
 public class ChatConsole implements ApplicationRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatConsole.class);
     public static final String END_OF_PROMPT_TOKEN = "<<EOP>>";
+    public static final String EXIT_COMMAND = "exit";
 
     private final RAGConfiguration RAGConfiguration;
+    private final StartupReadiness startupReadiness;
+    private final boolean streaming;
 
-    public ChatConsole(RAGConfiguration RAGConfiguration) {
+    public ChatConsole(RAGConfiguration RAGConfiguration,
+                       StartupReadiness startupReadiness,
+                       @Value("${ai.console.streaming}") boolean streaming) {
         this.RAGConfiguration = RAGConfiguration;
+        this.startupReadiness = startupReadiness;
+        this.streaming = streaming;
     }
 
     @Override
     public void run(ApplicationArguments args) {
-        String query = "";
-        while (!query.contentEquals("exit")) {
-            Scanner scanner = new Scanner(System.in);
+        if (startupReadiness.gated()) {
+            System.out.println("Warming up...");
+            startupReadiness.awaitReady();
+        }
+        Scanner scanner = new Scanner(System.in);
+        while (true) {
             System.out.print(">>>");
 
-            query = readAllLines(scanner);
+            String query = readAllLines(scanner);
+            if (query == null) {
+                return;
+            }
             logger.info("Asking Ollama: {}", query);
             try {
-                String response = RAGConfiguration.ask(query);
-                logger.info("Answer from Ollama: {}", response);
+                if (streaming) {
+                    streamAnswer(query);
+                } else {
+                    String response = RAGConfiguration.ask(query);
+                    logger.info("Answer from Ollama: {}", response);
+                }
             } catch (Exception e) {
                 logger.error("Error while asking Ollama: {}", e.getMessage());
             }
         }
     }
 
+    private void streamAnswer(String query) {
+        CompletableFuture<ChatResponse> completed = new CompletableFuture<>();
+        AtomicReference<List<Content>> retrieved = new AtomicReference<>(List.of());
+        AtomicLong firstTokenAt = new AtomicLong();
+        long start = System.nanoTime();
+
+        RAGConfiguration.askStreaming(query)
+                .onRetrieved(retrieved::set)
+                .onPartialResponse(token -> {
+                    firstTokenAt.compareAndSet(0, System.nanoTime());
+                    System.out.print(token);
+                    System.out.flush();
+                })
+                .onCompleteResponse(completed::complete)
+                .onError(completed::completeExceptionally)
+                .start();
+
+        ChatResponse response = completed.join();
+        long end = System.nanoTime();
+        System.out.println();
+
+        logger.info("Retrieved {} contents for the answer", retrieved.get().size());
+        logger.info("Answer from Ollama: {}", response.aiMessage().text());
+        logger.info("Time to first token {} ms, total generation {} ms",
+                firstTokenAt.get() == 0 ? -1 : (firstTokenAt.get() - start) / 1_000_000,
+                (end - start) / 1_000_000);
+    }
+
+    /**
+     * @return the lines up to the end of prompt token, or null when the user exits or the input ends
+     */
     private static String readAllLines(Scanner scanner) {
         StringBuilder stringBuilder = new StringBuilder();
-        String line;
-        while (!(line = scanner.nextLine()).equalsIgnoreCase(END_OF_PROMPT_TOKEN)) {
+        while (scanner.hasNextLine()) {
+            String line = scanner.nextLine();
+            if (line.equalsIgnoreCase(END_OF_PROMPT_TOKEN)) {
+                return stringBuilder.toString();
+            }
+            if (stringBuilder.isEmpty() && line.contentEquals(EXIT_COMMAND)) {
+                return null;
+            }
             stringBuilder.append(line).append(System.lineSeparator());
         }
-        return stringBuilder.toString();
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,14 @@
 package io.yayotron.investmentassistant.prompt;
 
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 @Component
+@Order(1)
 public class FormatPromptEnricher implements SystemPromptEnricher {
 
     @Override
-    public String enrichPrompt(String prompt) {
-        return "Please respond in plain text format.\n" + prompt;
+    public String staticPart() {
+        return "Please respond in plain text format.\n";
     }
 }
@@ -1,12 +1,14 @@
 package io.yayotron.investmentassistant.prompt;
 
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 @Component
+@Order(2)
 public class InvestmentAnalystPromptEnricher implements SystemPromptEnricher {
 
     @Override
-    public String enrichPrompt(String prompt) {
+    public String staticPart() {
         return """
                 You are an investment analyst.
                 Your task is to understand the user's financial situation and provide them with investment advice
@@ -25,7 +27,6 @@ public class InvestmentAnalystPromptEnricher implements SystemPromptEnricher {
                 
                 The user may be willing to adjust its expectations.
                 The user may learn something about the financial market while investing that will change their expectations.
-                """
-                + prompt;
+                """;
     }
 }
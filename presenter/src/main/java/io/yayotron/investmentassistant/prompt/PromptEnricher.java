@@ -1,6 +0,0 @@
-package io.yayotron.investmentassistant.prompt;
-
-@FunctionalInterface
-public interface PromptEnricher {
-    String enrichPrompt(String prompt);
-}
@@ -0,0 +1,58 @@
+package io.yayotron.investmentassistant.prompt;
+
+import dev.langchain4j.model.TokenCountEstimator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * The system prompt, assembled from the {@link SystemPromptEnricher}s in their order. Their static parts are
+ * rendered once into a prefix that stays byte for byte the same between requests, so the model server can reuse its
+ * cached prefix, and the per-request parts follow it in the same order.
+ */
+@Component
+public class SystemPrompt {
+
+    private static final Logger logger = LoggerFactory.getLogger(SystemPrompt.class);
+
+    private final List<SystemPromptEnricher> enrichers;
+    private final String prefix;
+    private final int prefixTokens;
+
+    public SystemPrompt(List<SystemPromptEnricher> enrichers, TokenCountEstimator tokenCountEstimator) {
+        List<SystemPromptEnricher> ordered = new ArrayList<>(enrichers);
+        AnnotationAwareOrderComparator.sort(ordered);
+        this.enrichers = List.copyOf(ordered);
+        this.prefix = ordered.stream()
+                .map(SystemPromptEnricher::staticPart)
+                .filter(Predicate.not(String::isBlank))
+                .collect(Collectors.joining("\n"));
+        this.prefixTokens = tokenCountEstimator.estimateTokenCountInText(prefix);
+        logger.info("System prompt prefix compiled from {} enrichers: {} tokens", ordered.size(), prefixTokens);
+    }
+
+    public String render(Object memoryId) {
+        StringBuilder prompt = new StringBuilder(prefix);
+        for (SystemPromptEnricher enricher : enrichers) {
+            String part = enricher.requestPart(memoryId);
+            if (!part.isBlank()) {
+                prompt.append('\n').append(part);
+            }
+        }
+        return prompt.toString();
+    }
+
+    public String prefix() {
+        return prefix;
+    }
+
+    public int prefixTokens() {
+        return prefixTokens;
+    }
+}
@@ -1,4 +1,14 @@
 package io.yayotron.investmentassistant.prompt;
 
-public interface SystemPromptEnricher extends PromptEnricher {
+/**
+ * Contributes to the system prompt. The static part is the same for every request and is compiled once into the
+ * prompt's prefix, see {@link SystemPrompt}. A per-request part, if any, is appended after the prefix.
+ */
+public interface SystemPromptEnricher {
+
+    String staticPart();
+
+    default String requestPart(Object memoryId) {
+        return "";
+    }
 }
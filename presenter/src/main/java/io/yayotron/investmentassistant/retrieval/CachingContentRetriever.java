@@ -0,0 +1,39 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import io.yayotron.investmentassistant.cache.SemanticCache;
+
+import java.util.List;
+
+/**
+ * Serves the contents retrieved for an earlier query whose embedding is close enough to this one. The query
+ * embedding comes from the embedding cache, the vector retriever asks for the same one on a miss.
+ */
+public class CachingContentRetriever implements ContentRetriever {
+
+    private final ContentRetriever delegate;
+    private final EmbeddingModel embeddingModel;
+    private final SemanticCache<List<Content>> cache;
+
+    public CachingContentRetriever(ContentRetriever delegate,
+                                   EmbeddingModel embeddingModel,
+                                   SemanticCache<List<Content>> cache) {
+        this.delegate = delegate;
+        this.embeddingModel = embeddingModel;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        if (!cache.enabled()) {
+            return delegate.retrieve(query);
+        }
+        // Contents retrieved without a retriever that missed its deadline are worth asking again next time
+        return cache.computeIfAbsent(embeddingModel.embed(query.text()).content().vector(),
+                () -> delegate.retrieve(query),
+                contents -> !contents.isEmpty() && !DegradedContents.isDegraded(contents));
+    }
+}
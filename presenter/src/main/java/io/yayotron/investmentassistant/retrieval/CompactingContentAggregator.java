@@ -0,0 +1,218 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.aggregator.ContentAggregator;
+import dev.langchain4j.rag.content.aggregator.DefaultContentAggregator;
+import dev.langchain4j.rag.query.Query;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.yayotron.investmentassistant.index.VectorMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps redundant text out of the prompt. The rankings of all queries are fused as by default, then contents are
+ * picked by maximal marginal relevance: each pick is the content closest to the queries once its similarity to the
+ * contents already picked is discounted, and contents nearly identical to a pick are dropped. Picking stops at
+ * {@code maxResults} or when no content left fits the token budget. Picked chunks that follow each other in the same
+ * document are then merged in document order, without the text their overlap repeats.
+ */
+public class CompactingContentAggregator implements ContentAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactingContentAggregator.class);
+
+    // Shorter matches between the end of a chunk and the start of the next are taken as chance, not overlap
+    private static final int MIN_OVERLAP_CHARACTERS = 16;
+
+    private final ContentAggregator fusion = new DefaultContentAggregator();
+    private final EmbeddingModel embeddingModel;
+    private final TokenCountEstimator tokenCountEstimator;
+    private final int maxResults;
+    private final int maxTokens;
+    private final double relevanceWeight;
+    private final double duplicateSimilarity;
+    private final DistributionSummary retrievedTokens;
+    private final DistributionSummary injectedTokens;
+
+    /**
+     * @param relevanceWeight     the weight of relevance against novelty in each pick, 1 ranks by relevance alone
+     * @param duplicateSimilarity contents at least this similar to a pick are dropped
+     */
+    public CompactingContentAggregator(EmbeddingModel embeddingModel,
+                                       TokenCountEstimator tokenCountEstimator,
+                                       int maxResults,
+                                       int maxTokens,
+                                       double relevanceWeight,
+                                       double duplicateSimilarity,
+                                       MeterRegistry meterRegistry) {
+        this.embeddingModel = embeddingModel;
+        this.tokenCountEstimator = tokenCountEstimator;
+        this.maxResults = maxResults;
+        this.maxTokens = maxTokens;
+        this.relevanceWeight = relevanceWeight;
+        this.duplicateSimilarity = duplicateSimilarity;
+        this.retrievedTokens = contextTokens(meterRegistry, "retrieved");
+        this.injectedTokens = contextTokens(meterRegistry, "injected");
+    }
+
+    @Override
+    public List<Content> aggregate(Map<Query, Collection<List<Content>>> queryToContents) {
+        List<Content> candidates = fusion.aggregate(queryToContents);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        List<float[]> queries = embed(queryToContents.keySet().stream().map(Query::text).toList());
+        List<float[]> vectors = embed(candidates.stream().map(content -> content.textSegment().text()).toList());
+        int[] tokens = candidates.stream().mapToInt(content -> count(content.textSegment().text())).toArray();
+        double[] relevance = new double[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            relevance[i] = Double.NEGATIVE_INFINITY;
+            for (float[] query : queries) {
+                relevance[i] = Math.max(relevance[i], VectorMath.dot(query, vectors.get(i)));
+            }
+        }
+
+        List<Integer> picked = pick(vectors, relevance, tokens);
+        List<Content> context = merge(picked.stream().map(candidates::get).toList());
+
+        int retrieved = Arrays.stream(tokens).sum();
+        int injected = context.stream().mapToInt(content -> count(content.textSegment().text())).sum();
+        retrievedTokens.record(retrieved);
+        injectedTokens.record(injected);
+        logger.info("Context for \"{}\": {} of {} contents in {} parts, {} of {} tokens ({} saved)",
+                queryToContents.keySet().iterator().next().text(), picked.size(), candidates.size(), context.size(),
+                injected, retrieved, retrieved - injected);
+        return context;
+    }
+
+    private List<Integer> pick(List<float[]> vectors, double[] relevance, int[] tokens) {
+        List<Integer> picked = new ArrayList<>();
+        boolean[] dropped = new boolean[vectors.size()];
+        int budget = maxTokens;
+        while (picked.size() < maxResults) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < vectors.size(); i++) {
+                if (dropped[i]) {
+                    continue;
+                }
+                double redundancy = 0;
+                for (int j : picked) {
+                    redundancy = Math.max(redundancy, VectorMath.dot(vectors.get(i), vectors.get(j)));
+                }
+                if (redundancy >= duplicateSimilarity) {
+                    dropped[i] = true;
+                    continue;
+                }
+                // The first pick is always taken, an over-long content still beats an empty context
+                if (tokens[i] > budget && !picked.isEmpty()) {
+                    continue;
+                }
+                double score = relevanceWeight * relevance[i] - (1 - relevanceWeight) * redundancy;
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            dropped[best] = true;
+            picked.add(best);
+            budget -= tokens[best];
+        }
+        return picked;
+    }
+
+    /**
+     * Merges runs of consecutive chunks of the same document. Documents keep the order of their best pick, the
+     * chunks of one document are in document order.
+     */
+    private static List<Content> merge(List<Content> picked) {
+        Map<Object, List<Content>> bySource = new LinkedHashMap<>();
+        for (Content content : picked) {
+            Object source = source(content.textSegment().metadata());
+            bySource.computeIfAbsent(source != null ? source : content, key -> new ArrayList<>()).add(content);
+        }
+
+        List<Content> merged = new ArrayList<>();
+        for (List<Content> chunks : bySource.values()) {
+            chunks.sort(Comparator.comparingInt(content -> index(content.textSegment().metadata())));
+            Content run = chunks.get(0);
+            int runEnd = index(run.textSegment().metadata());
+            for (Content chunk : chunks.subList(1, chunks.size())) {
+                int index = index(chunk.textSegment().metadata());
+                if (index == runEnd + 1) {
+                    run = Content.from(TextSegment.from(join(run.textSegment().text(), chunk.textSegment().text()),
+                            run.textSegment().metadata()), run.metadata());
+                } else {
+                    merged.add(run);
+                    run = chunk;
+                }
+                runEnd = index;
+            }
+            merged.add(run);
+        }
+        return merged;
+    }
+
+    static String join(String first, String second) {
+        for (int overlap = Math.min(first.length(), second.length()); overlap >= MIN_OVERLAP_CHARACTERS; overlap--) {
+            if (first.regionMatches(first.length() - overlap, second, 0, overlap)) {
+                return first + second.substring(overlap);
+            }
+        }
+        return first + "\n" + second;
+    }
+
+    // Only chunks that know their document and their place in it can be merged
+    private static Object source(Metadata metadata) {
+        Object fileName = metadata.toMap().get(Document.FILE_NAME);
+        if (fileName == null || index(metadata) < 0) {
+            return null;
+        }
+        return List.of(String.valueOf(metadata.toMap().get(Document.ABSOLUTE_DIRECTORY_PATH)), fileName);
+    }
+
+    private static int index(Metadata metadata) {
+        Object index = metadata.toMap().get("index");
+        try {
+            return index == null ? -1 : Integer.parseInt(index.toString());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private List<float[]> embed(List<String> texts) {
+        return embeddingModel.embedAll(texts.stream().map(TextSegment::from).toList()).content().stream()
+                .map(Embedding::vector)
+                .map(VectorMath::normalize)
+                .toList();
+    }
+
+    private int count(String text) {
+        return tokenCountEstimator.estimateTokenCountInText(text);
+    }
+
+    private static DistributionSummary contextTokens(MeterRegistry meterRegistry, String stage) {
+        return DistributionSummary.builder("ai.rag.context.tokens")
+                .description("Tokens of retrieved content per question, before and after compaction")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,49 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.rag.query.transformer.QueryTransformer;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Only lets the wrapped compressing transformer call the LLM when there is a conversation to compress. The
+ * chat memory always holds the system message, so "first turn" means no earlier user message.
+ */
+public class ConditionalQueryTransformer implements QueryTransformer {
+
+    private static final String STAGE = "query compression";
+
+    public enum Mode {
+        ALWAYS, FOLLOW_UP, NEVER
+    }
+
+    private final QueryTransformer delegate;
+    private final Mode mode;
+    private final LatencySavings latencySavings;
+
+    public ConditionalQueryTransformer(QueryTransformer delegate, Mode mode, LatencySavings latencySavings) {
+        this.delegate = delegate;
+        this.mode = mode;
+        this.latencySavings = latencySavings;
+    }
+
+    @Override
+    public Collection<Query> transform(Query query) {
+        if (mode == Mode.NEVER) {
+            latencySavings.skipped(STAGE, "disabled");
+            return List.of(query);
+        }
+        if (mode == Mode.FOLLOW_UP && isFirstTurn(query)) {
+            latencySavings.skipped(STAGE, "first turn");
+            return List.of(query);
+        }
+        return latencySavings.measure(STAGE, () -> delegate.transform(query));
+    }
+
+    private static boolean isFirstTurn(Query query) {
+        return query.metadata() == null || query.metadata().chatMemory().stream()
+                .noneMatch(UserMessage.class::isInstance);
+    }
+}
@@ -0,0 +1,118 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds a retriever by a deadline, after which the answer goes ahead without its contents. When the retriever
+ * has not answered within the hedge delay a second, identical request is sent and whichever answers first wins,
+ * which cuts the tail latency of a backend that is only occasionally slow. A retrieval the executor rejects is
+ * skipped like one that missed its deadline, and the hedge is only timed on the scheduler, never run there.
+ * Answering without the retriever is reported as {@link DegradedContents}.
+ */
+public class DeadlineContentRetriever implements ContentRetriever {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineContentRetriever.class);
+
+    private final String name;
+    private final ContentRetriever delegate;
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+    private final long timeoutMillis;
+    private final long hedgeAfterMillis;
+
+    /**
+     * @param hedgeAfterMillis delay before the hedged request, 0 disables hedging
+     */
+    public DeadlineContentRetriever(String name, ContentRetriever delegate, Executor executor,
+                                    ScheduledExecutorService scheduler, long timeoutMillis, long hedgeAfterMillis) {
+        this.name = name;
+        this.delegate = delegate;
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.timeoutMillis = timeoutMillis;
+        this.hedgeAfterMillis = hedgeAfterMillis;
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        long start = System.nanoTime();
+        CompletableFuture<List<Content>> first = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicBoolean hedged = new AtomicBoolean(hedgeAfterMillis <= 0);
+
+        if (!attempt(query, first, pending, hedged)) {
+            logger.warn("{} found the retrieval executor saturated, answering without it", name);
+            return DegradedContents.of(List.of());
+        }
+        if (hedgeAfterMillis > 0) {
+            ScheduledFuture<?> hedge = scheduler.schedule(() -> hedge(query, first, pending, hedged),
+                    hedgeAfterMillis, TimeUnit.MILLISECONDS);
+            first.whenComplete((contents, error) -> hedge.cancel(false));
+        }
+
+        try {
+            return first.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("{} missed its {} ms deadline, answering without it", name, timeoutMillis);
+            return DegradedContents.of(List.of());
+        } catch (ExecutionException e) {
+            logger.warn("{} failed after {} ms, answering without it: {}",
+                    name, (System.nanoTime() - start) / 1_000_000, e.getCause().getMessage());
+            return DegradedContents.of(List.of());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return DegradedContents.of(List.of());
+        }
+    }
+
+    private void hedge(Query query, CompletableFuture<List<Content>> first, AtomicInteger pending, AtomicBoolean hedged) {
+        if (!first.isDone() && hedged.compareAndSet(false, true)) {
+            logger.info("{} slower than {} ms, sending a hedged request", name, hedgeAfterMillis);
+            pending.incrementAndGet();
+            attempt(query, first, pending, hedged);
+        }
+    }
+
+    private boolean attempt(Query query, CompletableFuture<List<Content>> first, AtomicInteger pending,
+                            AtomicBoolean hedged) {
+        CompletableFuture<List<Content>> retrieval;
+        try {
+            retrieval = CompletableFuture.supplyAsync(() -> delegate.retrieve(query), executor);
+        } catch (RejectedExecutionException e) {
+            if (pending.decrementAndGet() == 0) {
+                first.completeExceptionally(e);
+            }
+            return false;
+        }
+        retrieval.whenComplete((contents, error) -> {
+            if (error == null) {
+                first.complete(contents);
+            } else if (!hedged.get()) {
+                // A failed first request is hedged right away rather than after the delay
+                hedge(query, first, pending, hedged);
+                if (pending.decrementAndGet() == 0) {
+                    first.completeExceptionally(error);
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                first.completeExceptionally(error);
+            }
+        });
+        return true;
+    }
+}
@@ -0,0 +1,37 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.rag.content.Content;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Contents retrieved without one of the retrievers, because it missed its deadline, failed or found the executor
+ * saturated. They are good enough to answer with but not to be remembered as the answer to the query.
+ */
+public final class DegradedContents extends AbstractList<Content> {
+
+    private final List<Content> contents;
+
+    private DegradedContents(List<Content> contents) {
+        this.contents = contents;
+    }
+
+    public static List<Content> of(List<Content> contents) {
+        return contents instanceof DegradedContents ? contents : new DegradedContents(List.copyOf(contents));
+    }
+
+    public static boolean isDegraded(List<Content> contents) {
+        return contents instanceof DegradedContents;
+    }
+
+    @Override
+    public Content get(int index) {
+        return contents.get(index);
+    }
+
+    @Override
+    public int size() {
+        return contents.size();
+    }
+}
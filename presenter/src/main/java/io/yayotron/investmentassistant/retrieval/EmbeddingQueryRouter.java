@@ -0,0 +1,61 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.rag.query.router.QueryRouter;
+import dev.langchain4j.store.embedding.CosineSimilarity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes by the cosine similarity between the query and each retriever's description, embedded once up front.
+ * A single retriever is returned as is, and when no description is similar enough every retriever is queried,
+ * like {@link dev.langchain4j.rag.query.router.LanguageModelQueryRouter}'s default fallback.
+ */
+public class EmbeddingQueryRouter implements QueryRouter {
+
+    private static final String STAGE = "routing";
+
+    private final EmbeddingModel embeddingModel;
+    private final List<ContentRetriever> retrievers;
+    private final List<Embedding> descriptions;
+    private final double minSimilarity;
+    private final LatencySavings latencySavings;
+
+    public EmbeddingQueryRouter(EmbeddingModel embeddingModel,
+                                Map<ContentRetriever, String> retrieverDescriptions,
+                                double minSimilarity,
+                                LatencySavings latencySavings) {
+        this.embeddingModel = embeddingModel;
+        this.retrievers = new ArrayList<>(retrieverDescriptions.keySet());
+        this.descriptions = retrievers.size() == 1 ? List.of() : embeddingModel.embedAll(retrievers.stream()
+                .map(retriever -> TextSegment.from(retrieverDescriptions.get(retriever)))
+                .toList()).content();
+        this.minSimilarity = minSimilarity;
+        this.latencySavings = latencySavings;
+    }
+
+    @Override
+    public Collection<ContentRetriever> route(Query query) {
+        if (retrievers.size() == 1) {
+            latencySavings.skipped(STAGE, "single retriever");
+            return retrievers;
+        }
+
+        Embedding queryEmbedding = embeddingModel.embed(query.text()).content();
+        List<ContentRetriever> selected = new ArrayList<>();
+        for (int i = 0; i < retrievers.size(); i++) {
+            if (CosineSimilarity.between(queryEmbedding, descriptions.get(i)) >= minSimilarity) {
+                selected.add(retrievers.get(i));
+            }
+        }
+        latencySavings.skipped(STAGE, "routed %d of %d retrievers by similarity".formatted(selected.size(), retrievers.size()));
+        return selected.isEmpty() ? retrievers : selected;
+    }
+}
@@ -0,0 +1,91 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Merges the rankings of several retrievers by reciprocal rank fusion and keeps the best {@code maxResults}. A
+ * segment found by both the vector and the lexical retriever rises to the top, so fewer segments are enough.
+ * Contents are matched by segment id, falling back to their text.
+ * <p>
+ * The retrievers are queried in parallel, all but the last on the executor and the last on the caller. Each of
+ * them is expected to bound itself by a deadline, and the fused contents are degraded when any ranking is.
+ */
+public class HybridContentRetriever implements ContentRetriever {
+
+    // The usual RRF constant, it damps the weight of the very first ranks
+    private static final int RANK_CONSTANT = 60;
+
+    private final List<ContentRetriever> retrievers;
+    private final int maxResults;
+    private final Executor executor;
+
+    public HybridContentRetriever(List<ContentRetriever> retrievers, int maxResults, Executor executor) {
+        this.retrievers = retrievers;
+        this.maxResults = maxResults;
+        this.executor = executor;
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        List<CompletableFuture<List<Content>>> rankings = new ArrayList<>(retrievers.size());
+        for (int i = 0; i < retrievers.size() - 1; i++) {
+            rankings.add(retrieveAsync(retrievers.get(i), query));
+        }
+        if (!retrievers.isEmpty()) {
+            rankings.add(CompletableFuture.completedFuture(retrievers.get(retrievers.size() - 1).retrieve(query)));
+        }
+
+        Map<Object, Content> contents = new LinkedHashMap<>();
+        Map<Object, Double> scores = new LinkedHashMap<>();
+        boolean degraded = false;
+        for (CompletableFuture<List<Content>> future : rankings) {
+            List<Content> ranking = join(future);
+            degraded |= DegradedContents.isDegraded(ranking);
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                Content content = ranking.get(rank);
+                Object key = content.metadata().getOrDefault(ContentMetadata.EMBEDDING_ID, content.textSegment().text());
+                contents.putIfAbsent(key, content);
+                scores.merge(key, 1d / (RANK_CONSTANT + rank + 1), Double::sum);
+            }
+        }
+        List<Content> fused = scores.entrySet().stream()
+                .sorted(Map.Entry.<Object, Double>comparingByValue(Comparator.reverseOrder()))
+                .limit(maxResults)
+                .map(entry -> contents.get(entry.getKey()))
+                .toList();
+        return degraded ? DegradedContents.of(fused) : fused;
+    }
+
+    // A saturated executor leaves the retriever to the caller, its deadline still bounds it
+    private CompletableFuture<List<Content>> retrieveAsync(ContentRetriever retriever, Query query) {
+        try {
+            return CompletableFuture.supplyAsync(() -> retriever.retrieve(query), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(retriever.retrieve(query));
+        }
+    }
+
+    private static List<Content> join(CompletableFuture<List<Content>> ranking) {
+        try {
+            return ranking.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
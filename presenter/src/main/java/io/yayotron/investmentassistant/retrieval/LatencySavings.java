@@ -0,0 +1,55 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import io.yayotron.investmentassistant.model.ChatLatencyListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Estimates the latency saved whenever a retrieval stage answers without its LLM round trip. The estimate is the
+ * average of the stage's own measured LLM calls, or of any chat model call until the stage has made one.
+ */
+@Component
+public class LatencySavings {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencySavings.class);
+    private static final double WEIGHT = 0.2;
+
+    private final ChatLatencyListener chatLatencyListener;
+    private final Map<String, Double> stageAverageNanos = new ConcurrentHashMap<>();
+
+    public LatencySavings(ChatLatencyListener chatLatencyListener) {
+        this.chatLatencyListener = chatLatencyListener;
+    }
+
+    public <T> T measure(String stage, Supplier<T> llmCall) {
+        long start = System.nanoTime();
+        try {
+            return llmCall.get();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            stageAverageNanos.merge(stage, (double) nanos, (average, latest) -> average + WEIGHT * (latest - average));
+            logger.debug("{} took {} ms", stage, nanos / 1_000_000);
+        }
+    }
+
+    public void skipped(String stage, String reason) {
+        Optional<Duration> saved = estimate(stage);
+        if (saved.isPresent()) {
+            logger.info("Skipped LLM {} ({}), saved ~{} ms", stage, reason, saved.get().toMillis());
+        } else {
+            logger.info("Skipped LLM {} ({}), no chat latency measured yet", stage, reason);
+        }
+    }
+
+    Optional<Duration> estimate(String stage) {
+        Double average = stageAverageNanos.get(stage);
+        return average != null ? Optional.of(Duration.ofNanos(average.longValue())) : chatLatencyListener.averageRoundTrip();
+    }
+}
@@ -0,0 +1,53 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import io.yayotron.investmentassistant.index.LexicalIndex;
+import io.yayotron.investmentassistant.index.LexicalMatch;
+import io.yayotron.investmentassistant.index.SnapshotSegment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Retrieves segments by BM25 over the lexical index the feeder exports, for the tickers, ISINs and names that
+ * embed poorly. Contents carry the segment id as {@link ContentMetadata#EMBEDDING_ID}, like the vector results,
+ * so both can be fused.
+ */
+public class LexicalContentRetriever implements ContentRetriever {
+
+    private final Supplier<Optional<LexicalIndex>> indexes;
+    private final int maxResults;
+
+    /**
+     * @param indexes the index to search, asked once per query; empty while the feeder has not exported an index
+     *                yet, nothing is retrieved meanwhile
+     */
+    public LexicalContentRetriever(Supplier<Optional<LexicalIndex>> indexes, int maxResults) {
+        this.indexes = indexes;
+        this.maxResults = maxResults;
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        Optional<LexicalIndex> index = indexes.get();
+        if (index.isEmpty()) {
+            return List.of();
+        }
+        return index.get().search(query.text(), maxResults).stream()
+                .map(match -> toContent(index.get(), match))
+                .toList();
+    }
+
+    private static Content toContent(LexicalIndex index, LexicalMatch match) {
+        SnapshotSegment segment = index.segment(match.document());
+        return Content.from(TextSegment.from(segment.text(), Metadata.from(segment.metadata())),
+                Map.of(ContentMetadata.SCORE, (double) match.score(), ContentMetadata.EMBEDDING_ID, segment.id()));
+    }
+}
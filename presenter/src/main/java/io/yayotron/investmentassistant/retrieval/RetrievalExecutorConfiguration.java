@@ -0,0 +1,73 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class RetrievalExecutorConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetrievalExecutorConfiguration.class);
+
+    private final String type;
+    private final int maxThreads;
+    private final int queueCapacity;
+
+    public RetrievalExecutorConfiguration(@Value("${ai.rag.executor}") String type,
+                                          @Value("${ai.rag.executor.max.threads}") int maxThreads,
+                                          @Value("${ai.rag.executor.queue.capacity}") int queueCapacity) {
+        this.type = type;
+        this.maxThreads = maxThreads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService retrievalExecutor() {
+        if (type.equalsIgnoreCase("virtual")) {
+            ExecutorService virtualThreads = virtualThreadPerTaskExecutor();
+            if (virtualThreads != null) {
+                logger.info("Retrieving on virtual threads");
+                return virtualThreads;
+            }
+            logger.warn("Virtual threads need Java 21, retrieving on up to {} platform threads", maxThreads);
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("retrieval-");
+        threadFactory.setDaemon(true);
+        // A saturated pool rejects rather than running the retrieval on the caller, which would block past its
+        // deadline; the retrievers answer without a rejected retrieval
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Only times the hedged requests and hands them to the retrieval executor, it never runs a retrieval itself.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService retrievalHedgeScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("retrieval-hedge-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    // Looked up reflectively while the build still targets Java 17
+    private static ExecutorService virtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.yayotron.investmentassistant.startup;
+
+/**
+ * @param error why the phase failed, {@code null} when it succeeded
+ */
+public record StartupPhase(String name, long millis, String error) {
+
+    public boolean failed() {
+        return error != null;
+    }
+
+    @Override
+    public String toString() {
+        return failed() ? "%s failed after %d ms (%s)".formatted(name, millis, error) : "%s %d ms".formatted(name, millis);
+    }
+}
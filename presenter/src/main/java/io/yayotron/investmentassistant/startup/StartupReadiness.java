@@ -0,0 +1,65 @@
+package io.yayotron.investmentassistant.startup;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Out of service until the warm-up has finished, reported under /actuator/health/readiness with the time each
+ * startup phase took. With the gate on, questions are refused meanwhile instead of paying for the cold start.
+ */
+@Component("warmUpHealthIndicator")
+public class StartupReadiness implements HealthIndicator {
+
+    private final CompletableFuture<List<StartupPhase>> ready = new CompletableFuture<>();
+    private final boolean gate;
+
+    public StartupReadiness(@Value("${ai.startup.gate}") boolean gate) {
+        this.gate = gate;
+    }
+
+    void ready(List<StartupPhase> phases) {
+        ready.complete(phases);
+    }
+
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    public boolean gated() {
+        return gate && !isReady();
+    }
+
+    /**
+     * Refuses the question with 503 while the gate is closed.
+     */
+    public void checkReady() {
+        if (gated()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Warming up, retry shortly");
+        }
+    }
+
+    public void awaitReady() {
+        ready.join();
+    }
+
+    @Override
+    public Health health() {
+        if (!isReady()) {
+            return Health.outOfService().withDetail("warmUp", "in progress").build();
+        }
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (StartupPhase phase : ready.join()) {
+            details.put(phase.name(), phase.failed() ? phase.toString() : phase.millis() + " ms");
+        }
+        return Health.up().withDetails(details).build();
+    }
+}
@@ -0,0 +1,179 @@
+package io.yayotron.investmentassistant.startup;
+
+import com.mongodb.client.MongoClient;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.yayotron.investmentassistant.embedding.CachingEmbeddingModel;
+import io.yayotron.investmentassistant.retrieval.LexicalContentRetriever;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pays for the cold start before the first question does. Once the context has started, the embedding model (whose
+ * ONNX session may already be loading in the background), the Mongo connection and the preferred chat model of each
+ * tier are warmed up at the same time, followed by a few retrieval-only queries that warm the search path and the
+ * vector index. Readiness is reported when all of them are done, failed or timed out, with the time each of them
+ * took.
+ */
+@Component
+public class StartupWarmUp {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    private final StartupReadiness startupReadiness;
+    private final CachingEmbeddingModel embeddingModel;
+    private final MongoClient mongoClient;
+    private final ChatModel chatModel;
+    private final ChatModel auxiliaryChatModel;
+    private final ContentRetriever embeddingContentRetriever;
+    private final ObjectProvider<LexicalContentRetriever> lexicalContentRetriever;
+    private final MeterRegistry meterRegistry;
+    private final String database;
+    private final boolean enabled;
+    private final boolean warmUpChatModel;
+    private final List<String> queries;
+    private final long timeoutSeconds;
+
+    public StartupWarmUp(StartupReadiness startupReadiness,
+                         CachingEmbeddingModel embeddingModel,
+                         MongoClient mongoClient,
+                         ChatModel chatModel,
+                         @Qualifier("auxiliaryChatModel") ChatModel auxiliaryChatModel,
+                         @Qualifier("embeddingContentRetriever") ContentRetriever embeddingContentRetriever,
+                         ObjectProvider<LexicalContentRetriever> lexicalContentRetriever,
+                         MeterRegistry meterRegistry,
+                         @Value("${spring.data.mongodb.database}") String database,
+                         @Value("${ai.startup.warm-up.enabled}") boolean enabled,
+                         @Value("${ai.startup.warm-up.chat.model}") boolean warmUpChatModel,
+                         @Value("${ai.startup.warm-up.queries}") List<String> queries,
+                         @Value("${ai.startup.warm-up.timeout.seconds}") long timeoutSeconds) {
+        this.startupReadiness = startupReadiness;
+        this.embeddingModel = embeddingModel;
+        this.mongoClient = mongoClient;
+        this.chatModel = chatModel;
+        this.auxiliaryChatModel = auxiliaryChatModel;
+        this.embeddingContentRetriever = embeddingContentRetriever;
+        this.lexicalContentRetriever = lexicalContentRetriever;
+        this.meterRegistry = meterRegistry;
+        this.database = database;
+        this.enabled = enabled;
+        this.warmUpChatModel = warmUpChatModel;
+        this.queries = queries;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    // Started rather than ready: the console runner blocks the ready event for as long as it reads questions
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        long contextMillis = event.getTimeTaken() == null ? 0 : event.getTimeTaken().toMillis();
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        List<StartupPhase> startup = List.of(
+                new StartupPhase("jvm", Math.max(0, uptimeMillis - contextMillis), null),
+                new StartupPhase("context", contextMillis, null));
+        if (!enabled) {
+            report(startup, List.of());
+            return;
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("warm-up-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4, threadFactory);
+        long start = System.nanoTime();
+
+        Map<String, CompletableFuture<StartupPhase>> phases = new LinkedHashMap<>();
+        phases.put("embedding-model", phase("embedding-model", executor,
+                () -> embeddingModel.delegate().embed("Warm-up")));
+        phases.put("mongo", phase("mongo", executor,
+                () -> mongoClient.getDatabase(database).runCommand(new Document("ping", 1))));
+        if (warmUpChatModel) {
+            phases.put("chat-model", phase("chat-model", executor, () -> ping(chatModel)));
+            phases.put("auxiliary-chat-model", phase("auxiliary-chat-model", executor, () -> ping(auxiliaryChatModel)));
+        }
+        phases.put("warm-up-queries", CompletableFuture.allOf(phases.get("embedding-model"), phases.get("mongo"))
+                .thenCompose(loaded -> phase("warm-up-queries", executor, this::retrieve)));
+
+        CompletableFuture.allOf(phases.values().toArray(CompletableFuture[]::new))
+                .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .whenComplete((done, error) -> {
+                    long millis = (System.nanoTime() - start) / 1_000_000;
+                    if (error instanceof TimeoutException) {
+                        logger.warn("Warm-up did not finish within {} s, reporting ready anyway", timeoutSeconds);
+                    }
+                    List<StartupPhase> warmUp = new ArrayList<>();
+                    phases.forEach((name, phase) ->
+                            warmUp.add(phase.getNow(new StartupPhase(name, millis, "still running"))));
+                    warmUp.add(new StartupPhase("warm-up", millis, null));
+                    report(startup, warmUp);
+                    executor.shutdown();
+                });
+    }
+
+    private static void ping(ChatModel model) {
+        model.chat(ChatRequest.builder()
+                .messages(UserMessage.from("Hi"))
+                .maxOutputTokens(1)
+                .build());
+    }
+
+    private void retrieve() {
+        LexicalContentRetriever lexical = lexicalContentRetriever.getIfAvailable();
+        for (String query : queries) {
+            embeddingContentRetriever.retrieve(Query.from(query));
+            if (lexical != null) {
+                lexical.retrieve(Query.from(query));
+            }
+        }
+    }
+
+    private CompletableFuture<StartupPhase> phase(String name, ExecutorService executor, Runnable work) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            String error = null;
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+                logger.warn("Warm-up of {} failed: {}", name, e.getMessage());
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            Timer.builder("ai.startup.phase")
+                    .description("Time taken by each phase of the startup warm-up")
+                    .tag("phase", name)
+                    .register(meterRegistry)
+                    .record(millis, TimeUnit.MILLISECONDS);
+            return new StartupPhase(name, millis, error);
+        }, executor);
+    }
+
+    private void report(List<StartupPhase> startup, List<StartupPhase> warmUp) {
+        List<StartupPhase> phases = new ArrayList<>(startup);
+        phases.addAll(warmUp);
+        phases.add(new StartupPhase("ready", ManagementFactory.getRuntimeMXBean().getUptime(), null));
+        logger.info("Ready to answer: {}", phases);
+        startupReadiness.ready(phases);
+    }
+}
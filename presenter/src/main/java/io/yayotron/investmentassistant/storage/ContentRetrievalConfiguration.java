@@ -1,22 +1,45 @@
 package io.yayotron.investmentassistant.storage;
 
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.TokenCountEstimator;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.input.PromptTemplate;
 import dev.langchain4j.rag.DefaultRetrievalAugmentor;
 import dev.langchain4j.rag.RetrievalAugmentor;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.aggregator.ContentAggregator;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
 import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
 import dev.langchain4j.rag.query.router.LanguageModelQueryRouter;
+import dev.langchain4j.rag.query.router.QueryRouter;
 import dev.langchain4j.rag.query.transformer.CompressingQueryTransformer;
+import dev.langchain4j.rag.query.transformer.QueryTransformer;
 import dev.langchain4j.store.embedding.EmbeddingStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.yayotron.investmentassistant.cache.SemanticCache;
+import io.yayotron.investmentassistant.metrics.RagMetrics;
+import io.yayotron.investmentassistant.retrieval.CachingContentRetriever;
+import io.yayotron.investmentassistant.retrieval.CompactingContentAggregator;
+import io.yayotron.investmentassistant.retrieval.ConditionalQueryTransformer;
+import io.yayotron.investmentassistant.retrieval.DeadlineContentRetriever;
+import io.yayotron.investmentassistant.retrieval.EmbeddingQueryRouter;
+import io.yayotron.investmentassistant.retrieval.HybridContentRetriever;
+import io.yayotron.investmentassistant.retrieval.LatencySavings;
+import io.yayotron.investmentassistant.retrieval.LexicalContentRetriever;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 
 @Configuration
 public class ContentRetrievalConfiguration {
@@ -24,48 +47,132 @@ public class ContentRetrievalConfiguration {
     private final EmbeddingStore<TextSegment> embeddingStore;
     private final EmbeddingModel embeddingModel;
     private final ChatModel chatModel;
+    private final LatencySavings latencySavings;
+    private final RagMetrics ragMetrics;
+    private final ExecutorService retrievalExecutor;
+    private final ScheduledExecutorService retrievalHedgeScheduler;
+    private final long retrieverTimeoutMillis;
+    private final long retrieverHedgeAfterMillis;
+    private final int vectorCandidates;
 
     public ContentRetrievalConfiguration(EmbeddingStore<TextSegment> embeddingStore,
                                          EmbeddingModel embeddingModel,
-                                         ChatModel chatModel) {
+                                         @Qualifier("auxiliaryChatModel") ChatModel chatModel,
+                                         LatencySavings latencySavings,
+                                         RagMetrics ragMetrics,
+                                         ExecutorService retrievalExecutor,
+                                         ScheduledExecutorService retrievalHedgeScheduler,
+                                         @Value("${ai.rag.retriever.timeout.millis}") long retrieverTimeoutMillis,
+                                         @Value("${ai.rag.retriever.hedge.after.millis}") long retrieverHedgeAfterMillis,
+                                         @Value("${ai.rag.vector.candidates}") int vectorCandidates) {
         this.embeddingStore = embeddingStore;
-        this.embeddingModel = embeddingModel;
+        this.embeddingModel = ragMetrics.timedEmbeddingModel(embeddingModel);
         this.chatModel = chatModel;
+        this.latencySavings = latencySavings;
+        this.ragMetrics = ragMetrics;
+        this.retrievalExecutor = retrievalExecutor;
+        this.retrievalHedgeScheduler = retrievalHedgeScheduler;
+        this.retrieverTimeoutMillis = retrieverTimeoutMillis;
+        this.retrieverHedgeAfterMillis = retrieverHedgeAfterMillis;
+        this.vectorCandidates = vectorCandidates;
     }
 
     @Bean
-    public RetrievalAugmentor retrievalAugmentor(CompressingQueryTransformer searchQueryTransformer,
-                                                 Map<ContentRetriever, String> contentRetrieverUsage) {
-        return DefaultRetrievalAugmentor.builder()
-                .queryTransformer(searchQueryTransformer)
-                .queryRouter(new LanguageModelQueryRouter(chatModel, contentRetrieverUsage))
-                .executor(Executors.newFixedThreadPool(4))
-                .build();
+    public RetrievalAugmentor retrievalAugmentor(QueryTransformer searchQueryTransformer,
+                                                 QueryRouter queryRouter,
+                                                 ContentAggregator contentAggregator) {
+        return ragMetrics.timedAugmentor(DefaultRetrievalAugmentor.builder()
+                .queryTransformer(ragMetrics.timedTransformer(searchQueryTransformer))
+                .queryRouter(ragMetrics.timedRouter(queryRouter))
+                .contentAggregator(ragMetrics.timedAggregator(contentAggregator))
+                .executor(fanOutExecutor())
+                .build());
+    }
+
+    // The fan-out only waits on the retrievers, which enforce their own deadlines, so on a saturated executor it
+    // runs on the caller instead of failing the question
+    private Executor fanOutExecutor() {
+        return task -> {
+            try {
+                retrievalExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        };
+    }
+
+    @Bean
+    public QueryRouter queryRouter(Map<ContentRetriever, String> contentRetrieverUsage,
+                                   @Value("${ai.rag.routing}") String routing,
+                                   @Value("${ai.rag.routing.min.similarity}") double minSimilarity) {
+        if (routing.equalsIgnoreCase("llm")) {
+            return new LanguageModelQueryRouter(chatModel, contentRetrieverUsage);
+        }
+        return new EmbeddingQueryRouter(embeddingModel, contentRetrieverUsage, minSimilarity, latencySavings);
     }
 
     @Bean
-    public CompressingQueryTransformer searchQueryTransformer(
-            @Value("${prompt.transformer.template}") String transformerTemplate) {
-        return new CompressingQueryTransformer(
-                chatModel, new PromptTemplate(transformerTemplate)
+    public QueryTransformer searchQueryTransformer(
+            @Value("${prompt.transformer.template}") String transformerTemplate,
+            @Value("${ai.rag.compression}") String compression) {
+        return new ConditionalQueryTransformer(
+                new CompressingQueryTransformer(chatModel, new PromptTemplate(transformerTemplate)),
+                ConditionalQueryTransformer.Mode.valueOf(compression.toUpperCase().replace('-', '_')),
+                latencySavings
         );
     }
 
+    /**
+     * Only the most relevant of the fused candidates reach the prompt, without near duplicates and within the token
+     * budget.
+     */
+    @Bean
+    public ContentAggregator contentAggregator(
+            TokenCountEstimator tokenCountEstimator,
+            MeterRegistry meterRegistry,
+            @Value("${ai.rag.max.results}") int maxResults,
+            @Value("${ai.rag.context.max.tokens}") int maxTokens,
+            @Value("${ai.rag.context.relevance.weight}") double relevanceWeight,
+            @Value("${ai.rag.context.duplicate.similarity}") double duplicateSimilarity
+    ) {
+        return new CompactingContentAggregator(embeddingModel, tokenCountEstimator, maxResults, maxTokens,
+                relevanceWeight, duplicateSimilarity, meterRegistry);
+    }
+
+    /**
+     * Vector and lexical results are fused behind a single retriever, so the router keeps its single-retriever
+     * fast path and both rankings are always consulted, in parallel and each within its deadline. The fused
+     * candidates are cached by query embedding.
+     */
     @Bean
     public Map<ContentRetriever, String> contentRetrieverUsage(
-            @Value("${prompt.embedding.description}") String embeddingRetrieverDescription
+            @Value("${prompt.embedding.description}") String embeddingRetrieverDescription,
+            @Value("${ai.rag.context.candidates}") int candidates,
+            ObjectProvider<LexicalContentRetriever> lexicalContentRetriever,
+            SemanticCache<List<Content>> retrievalCache
     ) {
+        List<ContentRetriever> retrievers = new ArrayList<>(List.of(embeddingContentRetriever()));
+        lexicalContentRetriever.ifAvailable(lexical -> retrievers.add(
+                ragMetrics.timedRetriever("LexicalContentRetriever", withDeadline("LexicalContentRetriever", lexical))));
         return Map.of(
-                embeddingContentRetriever(), embeddingRetrieverDescription
+                new CachingContentRetriever(new HybridContentRetriever(retrievers, candidates, retrievalExecutor),
+                        embeddingModel, retrievalCache), embeddingRetrieverDescription
         );
     }
 
     @Bean
     public ContentRetriever embeddingContentRetriever() {
-        return EmbeddingStoreContentRetriever.builder()
-                .embeddingModel(embeddingModel)
-                .embeddingStore(embeddingStore)
-                .displayName("EmbeddingContentRetriever")
-                .build();
+        return ragMetrics.timedRetriever("EmbeddingContentRetriever", withDeadline("EmbeddingContentRetriever",
+                EmbeddingStoreContentRetriever.builder()
+                        .embeddingModel(embeddingModel)
+                        .embeddingStore(embeddingStore)
+                        .displayName("EmbeddingContentRetriever")
+                        .maxResults(vectorCandidates)
+                        .build()));
+    }
+
+    private ContentRetriever withDeadline(String name, ContentRetriever retriever) {
+        return new DeadlineContentRetriever(name, retriever, retrievalExecutor, retrievalHedgeScheduler,
+                retrieverTimeoutMillis, retrieverHedgeAfterMillis);
     }
 }
@@ -0,0 +1,54 @@
+package io.yayotron.investmentassistant.storage;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import io.yayotron.investmentassistant.index.EmbeddingSnapshot;
+import io.yayotron.investmentassistant.index.SearchMode;
+import io.yayotron.investmentassistant.index.SearchParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(name = "ai.embedding.store", havingValue = "hnsw")
+public class HnswEmbeddingStorageConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(HnswEmbeddingStorageConfiguration.class);
+
+    private final Path snapshotFile;
+    private final SearchParameters searchParameters;
+
+    public HnswEmbeddingStorageConfiguration(@Value("${ai.snapshot.file}") String snapshotFile,
+                                             @Value("${ai.snapshot.hnsw.ef.search}") int efSearch,
+                                             @Value("${ai.snapshot.search.mode}") String searchMode,
+                                             @Value("${ai.snapshot.quantization.oversampling}") int oversampling) {
+        this.snapshotFile = Path.of(snapshotFile);
+        this.searchParameters = new SearchParameters(SearchMode.valueOf(searchMode.toUpperCase()), efSearch, oversampling);
+    }
+
+    /**
+     * Mapped again after the feeder exports a new snapshot, so deleted and changed files stop being served.
+     */
+    @Bean
+    public ReloadingMappedFile<EmbeddingSnapshot> embeddingSnapshot() {
+        ReloadingMappedFile<EmbeddingSnapshot> snapshot = new ReloadingMappedFile<>(snapshotFile,
+                EmbeddingSnapshot::isCurrent, EmbeddingSnapshot::open,
+                mapped -> logger.info("Mapped snapshot of {} embeddings created at {}, searching with {}",
+                        mapped.size(), mapped.createdAt(), searchParameters));
+        if (snapshot.current().isEmpty()) {
+            throw new IllegalStateException("No current snapshot at " + snapshotFile + ", export one with the feeder");
+        }
+        return snapshot;
+    }
+
+    @Bean
+    public EmbeddingStore<TextSegment> embeddingStore(ReloadingMappedFile<EmbeddingSnapshot> embeddingSnapshot) {
+        // The first mapping is checked at startup and a later one is only ever replaced, never dropped
+        return new HnswEmbeddingStore(() -> embeddingSnapshot.current().orElseThrow(), searchParameters);
+    }
+}
@@ -0,0 +1,93 @@
+package io.yayotron.investmentassistant.storage;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import io.yayotron.investmentassistant.index.EmbeddingSnapshot;
+import io.yayotron.investmentassistant.index.HnswGraph.Neighbor;
+import io.yayotron.investmentassistant.index.SearchParameters;
+import io.yayotron.investmentassistant.index.SnapshotSegment;
+import io.yayotron.investmentassistant.index.VectorMath;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Read-only store over the snapshot the feeder exports after each ingestion. Scores follow the same
+ * {@link RelevanceScore#fromCosineSimilarity(double)} scale as the Atlas vector index, whichever
+ * {@link io.yayotron.investmentassistant.index.SearchMode} finds the candidates.
+ */
+public class HnswEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    private static final int FILTER_OVERFETCH = 4;
+
+    private final Supplier<EmbeddingSnapshot> snapshots;
+    private final SearchParameters searchParameters;
+
+    public HnswEmbeddingStore(EmbeddingSnapshot snapshot, SearchParameters searchParameters) {
+        this(() -> snapshot, searchParameters);
+    }
+
+    /**
+     * @param snapshots the snapshot to search, asked once per search so a replaced snapshot is picked up
+     */
+    public HnswEmbeddingStore(Supplier<EmbeddingSnapshot> snapshots, SearchParameters searchParameters) {
+        this.snapshots = snapshots;
+        this.searchParameters = searchParameters;
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        EmbeddingSnapshot snapshot = snapshots.get();
+        float[] query = VectorMath.normalize(request.queryEmbedding().vector());
+        int candidates = request.filter() == null ? request.maxResults() : request.maxResults() * FILTER_OVERFETCH;
+
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(request.maxResults());
+        SearchParameters parameters = new SearchParameters(searchParameters.mode(),
+                Math.max(searchParameters.ef(), candidates), searchParameters.oversampling());
+        for (Neighbor neighbor : snapshot.search(query, candidates, parameters)) {
+            double score = RelevanceScore.fromCosineSimilarity(neighbor.similarity());
+            if (score < request.minScore() || matches.size() == request.maxResults()) {
+                break;
+            }
+            SnapshotSegment segment = snapshot.segment(neighbor.node());
+            TextSegment textSegment = TextSegment.from(segment.text(), Metadata.from(segment.metadata()));
+            if (request.filter() != null && !request.filter().test(textSegment.metadata())) {
+                continue;
+            }
+            matches.add(new EmbeddingMatch<>(score, segment.id(),
+                    Embedding.from(snapshot.vector(neighbor.node())), textSegment));
+        }
+        return new EmbeddingSearchResult<>(matches);
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        throw readOnly();
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        throw readOnly();
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        throw readOnly();
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("The HNSW snapshot is read-only, ingest through the feeder");
+    }
+}
@@ -0,0 +1,45 @@
+package io.yayotron.investmentassistant.storage;
+
+import io.yayotron.investmentassistant.index.LexicalIndex;
+import io.yayotron.investmentassistant.retrieval.LexicalContentRetriever;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(name = "ai.rag.lexical.enabled", havingValue = "true")
+public class LexicalIndexConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(LexicalIndexConfiguration.class);
+
+    private final Path lexicalIndexFile;
+    private final int candidates;
+
+    public LexicalIndexConfiguration(@Value("${ai.lexical.file}") String lexicalIndexFile,
+                                     @Value("${ai.rag.lexical.candidates}") int candidates) {
+        this.lexicalIndexFile = Path.of(lexicalIndexFile);
+        this.candidates = candidates;
+    }
+
+    /**
+     * Without an index yet (the feeder has not exported one) retrieval stays vector-only instead of failing. The
+     * index is mapped again after each export, so deleted and changed files stop being served.
+     */
+    @Bean
+    public LexicalContentRetriever lexicalContentRetriever() {
+        ReloadingMappedFile<LexicalIndex> index = new ReloadingMappedFile<>(lexicalIndexFile,
+                LexicalIndex::isCurrent, LexicalIndex::open,
+                mapped -> logger.info("Mapped lexical index of {} segments and {} terms created at {}",
+                        mapped.size(), mapped.terms(), mapped.createdAt()));
+        if (index.current().isEmpty()) {
+            logger.warn("No lexical index at {}, retrieving by vectors only until the feeder exports one",
+                    lexicalIndexFile);
+        }
+        return new LexicalContentRetriever(index::current, candidates);
+    }
+}
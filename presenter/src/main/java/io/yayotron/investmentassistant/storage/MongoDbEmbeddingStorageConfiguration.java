@@ -2,34 +2,71 @@ package io.yayotron.investmentassistant.storage;
 
 import com.mongodb.client.MongoClient;
 import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.mongodb.MongoDbEmbeddingStore;
+import io.yayotron.investmentassistant.embedding.BackgroundEmbeddingModel;
+import io.yayotron.investmentassistant.embedding.CachingEmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+
 @Configuration
 public class MongoDbEmbeddingStorageConfiguration {
 
+    private static final int ALL_MINILM_L6_V2_DIMENSION = 384;
+
     private final MongoClient mongoClient;
+    private final String databaseName;
+    private final String collectionName;
+    private final int cacheMemoryEntries;
+    private final String cacheDiskFile;
+    private final int cacheDiskEntries;
+    private final boolean backgroundStartup;
 
-    public MongoDbEmbeddingStorageConfiguration(MongoClient mongoClient) {
+    public MongoDbEmbeddingStorageConfiguration(MongoClient mongoClient,
+                                                @Value("${spring.data.mongodb.database}") String databaseName,
+                                                @Value("${ai.embedding.collection}") String collectionName,
+                                                @Value("${ai.embedding.cache.memory.entries}") int cacheMemoryEntries,
+                                                @Value("${ai.embedding.cache.disk.file}") String cacheDiskFile,
+                                                @Value("${ai.embedding.cache.disk.entries}") int cacheDiskEntries,
+                                                @Value("${ai.startup.background}") boolean backgroundStartup) {
         this.mongoClient = mongoClient;
+        this.databaseName = databaseName;
+        this.collectionName = collectionName;
+        this.cacheMemoryEntries = cacheMemoryEntries;
+        this.cacheDiskFile = cacheDiskFile;
+        this.cacheDiskEntries = cacheDiskEntries;
+        this.backgroundStartup = backgroundStartup;
     }
 
     @Bean
+    @ConditionalOnProperty(name = "ai.embedding.store", havingValue = "mongo", matchIfMissing = true)
     public EmbeddingStore<TextSegment> embeddingStore() {
         return MongoDbEmbeddingStore.builder()
                 .fromClient(mongoClient)
-                .databaseName("ai")
-                .collectionName("internal_data_files")
+                .databaseName(databaseName)
+                .collectionName(collectionName)
                 .indexName("embeddings")
                 .build();
     }
 
+    /**
+     * In background startup the ONNX session is built while the rest of the context starts, the first embedding
+     * waits for it.
+     */
     @Bean
-    public EmbeddingModel embeddingModel() {
-        return new AllMiniLmL6V2EmbeddingModel();
+    public CachingEmbeddingModel embeddingModel() {
+        return CachingEmbeddingModel.of(
+                backgroundStartup
+                        ? new BackgroundEmbeddingModel(AllMiniLmL6V2EmbeddingModel::new, ALL_MINILM_L6_V2_DIMENSION)
+                        : new AllMiniLmL6V2EmbeddingModel(),
+                AllMiniLmL6V2EmbeddingModel.class.getName(),
+                cacheMemoryEntries,
+                cacheDiskFile.isBlank() ? null : Path.of(cacheDiskFile),
+                cacheDiskEntries);
     }
 }
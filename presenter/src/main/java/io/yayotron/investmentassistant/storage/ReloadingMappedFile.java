@@ -0,0 +1,88 @@
+package io.yayotron.investmentassistant.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A file the feeder replaces after each ingestion, mapped again whenever its modification time changes. The feeder
+ * moves the new file into place, so the previous mapping stays valid for the searches still running on it. While
+ * the file is missing or in a format this version does not read, the previous mapping, if any, is kept.
+ */
+public class ReloadingMappedFile<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReloadingMappedFile.class);
+
+    private static final long MISSING = -1;
+
+    private final Path file;
+    private final Predicate<Path> isCurrent;
+    private final Function<Path, T> open;
+    private final Consumer<T> onMapped;
+
+    private volatile Mapping<T> mapping = new Mapping<>(null, Long.MIN_VALUE);
+
+    public ReloadingMappedFile(Path file, Predicate<Path> isCurrent, Function<Path, T> open, Consumer<T> onMapped) {
+        this.file = file;
+        this.isCurrent = isCurrent;
+        this.open = open;
+        this.onMapped = onMapped;
+    }
+
+    public Optional<T> current() {
+        long modified = lastModified();
+        Mapping<T> current = mapping;
+        if (current.modified() != modified) {
+            current = remap(modified);
+        }
+        return Optional.ofNullable(current.value());
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    private synchronized Mapping<T> remap(long modified) {
+        Mapping<T> current = mapping;
+        if (current.modified() == modified) {
+            return current;
+        }
+        try {
+            if (modified != MISSING && isCurrent.test(file)) {
+                T value = open.apply(file);
+                onMapped.accept(value);
+                current = new Mapping<>(value, modified);
+            } else {
+                current = new Mapping<>(current.value(), modified);
+            }
+        } catch (RuntimeException e) {
+            // Probably replaced while being read, the next call tries again
+            logger.warn("Could not map {}, keeping the previous mapping: {}", file, e.getMessage());
+            return current;
+        }
+        mapping = current;
+        return current;
+    }
+
+    private long lastModified() {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (NoSuchFileException e) {
+            return MISSING;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Mapping<T>(T value, long modified) {
+    }
+}
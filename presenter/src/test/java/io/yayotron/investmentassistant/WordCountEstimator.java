@@ -0,0 +1,44 @@
+package io.yayotron.investmentassistant;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.TokenCountEstimator;
+
+/**
+ * Counts a word as a token, so tests can size their texts by eye. A tool call counts as one token.
+ */
+public class WordCountEstimator implements TokenCountEstimator {
+
+    @Override
+    public int estimateTokenCountInText(String text) {
+        return text.isBlank() ? 0 : text.strip().split("\\s+").length;
+    }
+
+    @Override
+    public int estimateTokenCountInMessage(ChatMessage message) {
+        if (message instanceof UserMessage userMessage) {
+            return estimateTokenCountInText(userMessage.singleText());
+        }
+        if (message instanceof AiMessage aiMessage) {
+            return aiMessage.hasToolExecutionRequests()
+                    ? aiMessage.toolExecutionRequests().size()
+                    : estimateTokenCountInText(aiMessage.text());
+        }
+        if (message instanceof ToolExecutionResultMessage toolExecutionResultMessage) {
+            return estimateTokenCountInText(toolExecutionResultMessage.text());
+        }
+        return estimateTokenCountInText(((SystemMessage) message).text());
+    }
+
+    @Override
+    public int estimateTokenCountInMessages(Iterable<ChatMessage> messages) {
+        int words = 0;
+        for (ChatMessage message : messages) {
+            words += estimateTokenCountInMessage(message);
+        }
+        return words;
+    }
+}
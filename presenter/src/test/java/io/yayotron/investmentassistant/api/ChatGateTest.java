@@ -0,0 +1,50 @@
+package io.yayotron.investmentassistant.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChatGateTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ChatGate chatGate;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        chatGate.close();
+    }
+
+    @Test
+    void givenFullQueue_questionIsRejected() {
+        chatGate = new ChatGate(1, 1, 60);
+        chatGate.submit(this::blockUntilReleased);
+        chatGate.submit(this::blockUntilReleased);
+
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> chatGate.submit(this::blockUntilReleased));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+    }
+
+    @Test
+    void givenSlowAnswer_deadlineIsReported() {
+        chatGate = new ChatGate(1, 1, 1);
+
+        ResponseStatusException timedOut = assertThrows(ResponseStatusException.class,
+                () -> chatGate.call(this::blockUntilReleased));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, timedOut.getStatusCode());
+    }
+
+    private String blockUntilReleased() throws InterruptedException {
+        release.await();
+        return "answer";
+    }
+}
@@ -0,0 +1,83 @@
+package io.yayotron.investmentassistant.api;
+
+import io.yayotron.investmentassistant.model.RAGConfiguration;
+import io.yayotron.investmentassistant.startup.StartupReadiness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@Timeout(30)
+@ExtendWith(MockitoExtension.class)
+class ChatServiceTest {
+
+    private final CountDownLatch answering = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ChatGate chatGate = new ChatGate(2, 1, 60);
+
+    @Mock
+    private RAGConfiguration ragConfiguration;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        chatGate.close();
+    }
+
+    @Test
+    void givenBusySession_itsNextQuestionIsRefusedWhileOtherSessionsAreAnswered() throws Exception {
+        when(ragConfiguration.ask("busy", "first")).thenAnswer(invocation -> {
+            answering.countDown();
+            release.await();
+            return "first answer";
+        });
+        when(ragConfiguration.ask("other", "question")).thenReturn("other answer");
+        ChatService chatService = new ChatService(ragConfiguration, chatGate, new StartupReadiness(false));
+
+        CompletableFuture<ChatAnswer> first = CompletableFuture.supplyAsync(() -> chatService.ask("busy", "first"));
+        answering.await();
+
+        ResponseStatusException refused = assertThrows(ResponseStatusException.class,
+                () -> chatService.ask("busy", "second"));
+        assertEquals(HttpStatus.CONFLICT, refused.getStatusCode());
+        assertEquals("other answer", chatService.ask("other", "question").answer());
+        release.countDown();
+        assertEquals("first answer", first.get().answer());
+    }
+
+    @Test
+    void givenStreamFailingBeforeItsFirstToken_theSessionIsFreed() {
+        when(ragConfiguration.askStreaming("session", "first")).thenThrow(new IllegalStateException("No model"));
+        when(ragConfiguration.ask("session", "second")).thenReturn("answer");
+        ChatService chatService = new ChatService(ragConfiguration, chatGate, new StartupReadiness(false));
+
+        chatService.stream("session", "first");
+
+        assertEquals("answer", askOnceFree(chatService, "session", "second").answer());
+    }
+
+    // The failed stream ends its turn on a gate worker, shortly after stream() returned
+    private static ChatAnswer askOnceFree(ChatService chatService, String sessionId, String question) {
+        while (true) {
+            try {
+                return chatService.ask(sessionId, question);
+            } catch (ResponseStatusException e) {
+                if (e.getStatusCode() != HttpStatus.CONFLICT) {
+                    throw e;
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.yayotron.investmentassistant.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SemanticCacheTest {
+
+    private final AtomicLong generation = new AtomicLong(1);
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final SemanticCache<String> cache = new SemanticCache<>("test", 2, Duration.ofMinutes(10), 0.95,
+            generation::get, now::get);
+
+    @Test
+    void givenCloseKey_storedValueIsServed() {
+        get(new float[]{1, 0, 0}, "WIG20 closed 2% higher");
+
+        assertEquals("WIG20 closed 2% higher", get(new float[]{2, 0.1f, 0}, "generated again"));
+        assertEquals(1, loads.get());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    void givenDistantKey_valueIsLoaded() {
+        get(new float[]{1, 0, 0}, "WIG20 closed 2% higher");
+
+        assertEquals("BTC fell 5%", get(new float[]{0.7f, 0.7f, 0}, "BTC fell 5%"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void givenNewGeneration_entriesAreDropped() {
+        get(new float[]{1, 0, 0}, "WIG20 closed 2% higher");
+        generation.incrementAndGet();
+
+        assertEquals("WIG20 closed 3% higher", get(new float[]{1, 0, 0}, "WIG20 closed 3% higher"));
+        assertEquals(1, cache.stats().invalidations());
+    }
+
+    @Test
+    void givenGenerationPublishedWhileLoading_valueIsNotStored() {
+        cache.computeIfAbsent(new float[]{1, 0, 0}, () -> {
+            generation.incrementAndGet();
+            return "built from the old data";
+        }, value -> true);
+
+        assertEquals("fresh", get(new float[]{1, 0, 0}, "fresh"));
+    }
+
+    @Test
+    void givenMissStoredLater_valueIsServed() {
+        SemanticCache.Lookup<String> miss = cache.lookup(new float[]{1, 0, 0}, value -> true);
+        miss.store("streamed answer");
+
+        assertNull(miss.value());
+        assertEquals("streamed answer", cache.lookup(new float[]{1, 0.1f, 0}, value -> true).value());
+    }
+
+    @Test
+    void givenGenerationPublishedBeforeStore_valueIsNotStored() {
+        SemanticCache.Lookup<String> miss = cache.lookup(new float[]{1, 0, 0}, value -> true);
+        generation.incrementAndGet();
+        miss.store("built from the old data");
+
+        assertNull(cache.lookup(new float[]{1, 0, 0}, value -> true).value());
+    }
+
+    @Test
+    void givenExpiredEntry_valueIsLoaded() {
+        get(new float[]{1, 0, 0}, "WIG20 closed 2% higher");
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+
+        assertEquals("WIG20 closed 3% higher", get(new float[]{1, 0, 0}, "WIG20 closed 3% higher"));
+        assertEquals(1, cache.stats().expirations());
+    }
+
+    @Test
+    void givenFullCache_leastRecentlyUsedEntryIsEvicted() {
+        get(new float[]{1, 0, 0}, "x");
+        get(new float[]{0, 1, 0}, "y");
+        get(new float[]{1, 0, 0}, "unused");
+        get(new float[]{0, 0, 1}, "z");
+
+        assertEquals("x", get(new float[]{1, 0, 0}, "unused"));
+        assertEquals("y again", get(new float[]{0, 1, 0}, "y again"));
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    private String get(float[] key, String value) {
+        return cache.computeIfAbsent(key, () -> {
+            loads.incrementAndGet();
+            return value;
+        }, loaded -> true);
+    }
+}
@@ -0,0 +1,83 @@
+package io.yayotron.investmentassistant.memory;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.input.PromptTemplate;
+import dev.langchain4j.store.memory.chat.InMemoryChatMemoryStore;
+import io.yayotron.investmentassistant.WordCountEstimator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CompactingChatMemoryTest {
+
+    @Mock
+    private ChatModel summarizer;
+
+    private final InMemoryChatMemoryStore store = new InMemoryChatMemoryStore();
+
+    @Test
+    void givenMemoryOverThreshold_olderTurnsAreSummarized() {
+        when(summarizer.chat(anyString())).thenReturn("User holds WIG20 futures");
+        CompactingChatMemory memory = memory(40, 20, summarizer);
+
+        memory.add(SystemMessage.from("You are an analyst"));
+        for (int turn = 0; turn < 4; turn++) {
+            memory.add(UserMessage.from("question number " + turn));
+            memory.add(AiMessage.from("answer number " + turn));
+        }
+
+        List<ChatMessage> messages = memory.messages();
+        assertEquals(SystemMessage.from("You are an analyst"), messages.get(0));
+        assertEquals(UserMessage.from(CompactingChatMemory.SUMMARY_PREFIX + "User holds WIG20 futures"), messages.get(1));
+        assertEquals(AiMessage.from("answer number 3"), messages.get(messages.size() - 1));
+        assertTrue(new WordCountEstimator().estimateTokenCountInMessages(messages) <= 20 + 6);
+    }
+
+    @Test
+    void givenNoSummarizer_oldestMessagesAreEvicted() {
+        CompactingChatMemory memory = memory(12, 12, null);
+
+        memory.add(SystemMessage.from("You are an analyst"));
+        for (int turn = 0; turn < 4; turn++) {
+            memory.add(UserMessage.from("question number " + turn));
+            memory.add(AiMessage.from("answer number " + turn));
+        }
+
+        assertEquals(List.of(SystemMessage.from("You are an analyst"), UserMessage.from("question number 3"),
+                AiMessage.from("answer number 3")), memory.messages());
+    }
+
+    @Test
+    void givenToolCall_itIsEvictedTogetherWithItsResults() {
+        CompactingChatMemory memory = memory(8, 8, null);
+        ToolExecutionRequest request = ToolExecutionRequest.builder().id("1").name("quote").arguments("{}").build();
+
+        memory.add(UserMessage.from("quote WIG20"));
+        memory.add(AiMessage.from(List.of(request)));
+        memory.add(ToolExecutionResultMessage.from(request, "2450 points"));
+        memory.add(AiMessage.from("WIG20 is at 2450"));
+        memory.add(UserMessage.from("and mWIG40?"));
+
+        assertEquals(List.of(AiMessage.from("WIG20 is at 2450"), UserMessage.from("and mWIG40?")), memory.messages());
+    }
+
+    private CompactingChatMemory memory(int maxTokens, int compactionThreshold, ChatModel summarizer) {
+        return new CompactingChatMemory("session", store, new WordCountEstimator(), maxTokens, compactionThreshold,
+                2, summarizer, PromptTemplate.from("Summarize {{conversation}}"));
+    }
+}
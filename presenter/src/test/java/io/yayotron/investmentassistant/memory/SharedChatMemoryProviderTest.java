@@ -0,0 +1,36 @@
+package io.yayotron.investmentassistant.memory;
+
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SharedChatMemoryProviderTest {
+
+    private final SharedChatMemoryProvider provider = new SharedChatMemoryProvider(2,
+            memoryId -> MessageWindowChatMemory.builder().id(memoryId).maxMessages(10).build());
+
+    @Test
+    void givenSameSession_theSameMemoryIsHandedOut() {
+        assertSame(provider.get("a"), provider.get("a"));
+    }
+
+    @Test
+    void givenMoreSessionsThanKept_leastRecentlyUsedIsDroppedAndReported() {
+        ChatMemory first = provider.get("a");
+        provider.get("b");
+        provider.get("a");
+        provider.get("c");
+
+        List<Object> dropped = new ArrayList<>();
+        provider.evictDropped(dropped::add);
+
+        assertEquals(List.of("b"), dropped);
+        assertSame(first, provider.get("a"));
+    }
+}
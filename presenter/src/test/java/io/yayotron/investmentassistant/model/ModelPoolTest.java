@@ -0,0 +1,122 @@
+package io.yayotron.investmentassistant.model;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelPoolTest {
+
+    private static final ChatRequest QUESTION = ChatRequest.builder()
+            .messages(UserMessage.from("How did WIG20 do last year?"))
+            .build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void givenHealthyBackends_preferredOneAnswers() {
+        ModelPool pool = pool(Duration.ZERO,
+                backend("small", answering("small")), backend("large", answering("large")));
+
+        assertEquals("small", pool.chat(QUESTION).aiMessage().text());
+    }
+
+    @Test
+    void givenFailingBackend_callFailsOverToNext() {
+        ModelPool pool = pool(Duration.ZERO, backend("small", failing()), backend("large", answering("large")));
+
+        assertEquals("large", pool.chat(QUESTION).aiMessage().text());
+        assertEquals(1, meterRegistry.counter("ai.model.failovers", "tier", "test", "from", "small", "to", "large")
+                .count());
+    }
+
+    @Test
+    void givenBackendFailingRepeatedly_itIsSkippedUntilTheSkipPeriodEnds() {
+        ModelBackend small = backend("small", failing());
+        ModelBackend large = backend("large", answering("large"));
+        ModelPool pool = pool(Duration.ZERO, small, large);
+
+        for (int i = 0; i < 5; i++) {
+            pool.chat(QUESTION);
+        }
+
+        assertFalse(small.available());
+        assertEquals(List.of(large, small), pool.candidates());
+
+        nanoTime.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertTrue(small.available());
+        assertEquals(List.of(small, large), pool.candidates());
+    }
+
+    @Test
+    void givenPreferredBackendBusy_callGoesToNext() {
+        ModelBackend small = backend("small", answering("small"));
+        ModelPool pool = pool(Duration.ZERO, small, backend("large", answering("large")));
+        assertTrue(small.tryAcquire());
+
+        assertEquals("large", pool.chat(QUESTION).aiMessage().text());
+    }
+
+    @Test
+    void givenAllBackendsBusy_callIsShed() {
+        ModelBackend small = backend("small", answering("small"));
+        ModelBackend large = backend("large", answering("large"));
+        ModelPool pool = pool(Duration.ZERO, small, large);
+        assertTrue(small.tryAcquire());
+        assertTrue(large.tryAcquire());
+
+        assertThrows(ModelUnavailableException.class, () -> pool.chat(QUESTION));
+        assertEquals(1, meterRegistry.counter("ai.model.shed", "tier", "test").count());
+    }
+
+    @Test
+    void givenPreferredBackendOverLatencyBudget_fasterOneIsTriedFirst() {
+        ModelBackend small = backend("small", answering("small"));
+        ModelBackend large = backend("large", answering("large"));
+        ModelPool pool = pool(Duration.ofSeconds(2), small, large);
+        small.recordSuccess(Duration.ofSeconds(5).toNanos());
+        large.recordSuccess(Duration.ofSeconds(1).toNanos());
+
+        assertEquals("large", pool.chat(QUESTION).aiMessage().text());
+    }
+
+    private ModelPool pool(Duration latencyBudget, ModelBackend... backends) {
+        return new ModelPool("test", List.of(backends), latencyBudget, Duration.ofMillis(50), meterRegistry);
+    }
+
+    private ModelBackend backend(String name, ChatModel chatModel) {
+        return new ModelBackend(name, chatModel, null, 1, 0.5, Duration.ofSeconds(30), nanoTime::get);
+    }
+
+    private static ChatModel answering(String answer) {
+        return new ChatModel() {
+            @Override
+            public ChatResponse doChat(ChatRequest chatRequest) {
+                return ChatResponse.builder().aiMessage(AiMessage.from(answer)).build();
+            }
+        };
+    }
+
+    private static ChatModel failing() {
+        return new ChatModel() {
+            @Override
+            public ChatResponse doChat(ChatRequest chatRequest) {
+                throw new IllegalStateException("model not found");
+            }
+        };
+    }
+}
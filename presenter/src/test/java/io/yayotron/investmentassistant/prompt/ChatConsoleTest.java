@@ -1,7 +1,13 @@
 package io.yayotron.investmentassistant.prompt;
 
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.service.tool.ToolExecution;
 import io.yayotron.investmentassistant.model.RAGConfiguration;
-import org.junit.jupiter.api.BeforeEach;
+import io.yayotron.investmentassistant.startup.StartupReadiness;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -9,21 +15,26 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.ApplicationArguments;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ChatConsoleTest {
 
+    private static final PrintStream STANDARD_OUT = System.out;
+
     @Mock
     private RAGConfiguration RAGConfiguration;
 
-    private ChatConsole chatConsole;
-
-    @BeforeEach
-    void setUp() {
-        chatConsole = new ChatConsole(RAGConfiguration);
+    @AfterEach
+    void tearDown() {
+        System.setOut(STANDARD_OUT);
     }
 
     @Test
@@ -34,8 +45,77 @@ class ChatConsoleTest {
 
         when(RAGConfiguration.ask(anyString())).thenReturn("Response from Ollama");
 
-        chatConsole.run(mock(ApplicationArguments.class));
+        new ChatConsole(RAGConfiguration, new StartupReadiness(false), false).run(mock(ApplicationArguments.class));
 
         verify(RAGConfiguration).ask("Hello Ollama\nHello Ollama2\n");
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenStreamingConsole_tokensArePrintedAsTheyArrive() {
+        System.setIn(new ByteArrayInputStream("Hello Ollama\n<<EOP>>\nexit\n".getBytes()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+
+        when(RAGConfiguration.askStreaming(anyString())).thenReturn(new FakeTokenStream("Buy ", "low"));
+
+        new ChatConsole(RAGConfiguration, new StartupReadiness(false), true).run(mock(ApplicationArguments.class));
+
+        verify(RAGConfiguration, never()).ask(anyString());
+        assertTrue(out.toString().contains("Buy low"));
+    }
+
+    private static class FakeTokenStream implements TokenStream {
+
+        private final List<String> tokens;
+        private Consumer<String> partialResponseHandler;
+        private Consumer<List<Content>> retrievedHandler = contents -> {
+        };
+        private Consumer<ChatResponse> completeResponseHandler;
+
+        private FakeTokenStream(String... tokens) {
+            this.tokens = List.of(tokens);
+        }
+
+        @Override
+        public TokenStream onPartialResponse(Consumer<String> partialResponseHandler) {
+            this.partialResponseHandler = partialResponseHandler;
+            return this;
+        }
+
+        @Override
+        public TokenStream onRetrieved(Consumer<List<Content>> retrievedHandler) {
+            this.retrievedHandler = retrievedHandler;
+            return this;
+        }
+
+        @Override
+        public TokenStream onToolExecuted(Consumer<ToolExecution> toolExecuteHandler) {
+            return this;
+        }
+
+        @Override
+        public TokenStream onCompleteResponse(Consumer<ChatResponse> completeResponseHandler) {
+            this.completeResponseHandler = completeResponseHandler;
+            return this;
+        }
+
+        @Override
+        public TokenStream onError(Consumer<Throwable> errorHandler) {
+            return this;
+        }
+
+        @Override
+        public TokenStream ignoreErrors() {
+            return this;
+        }
+
+        @Override
+        public void start() {
+            retrievedHandler.accept(List.of(Content.from("WIG20 closed higher")));
+            tokens.forEach(partialResponseHandler);
+            completeResponseHandler.accept(ChatResponse.builder()
+                    .aiMessage(AiMessage.from(String.join("", tokens)))
+                    .build());
+        }
+    }
+}
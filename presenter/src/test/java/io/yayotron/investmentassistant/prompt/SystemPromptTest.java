@@ -0,0 +1,53 @@
+package io.yayotron.investmentassistant.prompt;
+
+import io.yayotron.investmentassistant.WordCountEstimator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.Order;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SystemPromptTest {
+
+    @Test
+    void givenEnrichersInAnyOrder_thePrefixFollowsTheirDeclaredOrder() {
+        SystemPrompt systemPrompt = new SystemPrompt(List.of(new LimitationPromptEnricher(),
+                new FormatPromptEnricher(), new InvestmentAnalystPromptEnricher()), new WordCountEstimator());
+
+        String prefix = systemPrompt.prefix();
+
+        assertTrue(prefix.startsWith(new FormatPromptEnricher().staticPart()));
+        assertTrue(prefix.indexOf("investment analyst") < prefix.indexOf("Revolut or Binance"));
+        assertEquals(new WordCountEstimator().estimateTokenCountInText(prefix), systemPrompt.prefixTokens());
+    }
+
+    @Test
+    void givenDifferentSessions_thePromptsShareTheSamePrefix() {
+        SystemPrompt systemPrompt = new SystemPrompt(List.of(new SessionPromptEnricher(),
+                new FormatPromptEnricher(), new LimitationPromptEnricher()), new WordCountEstimator());
+
+        String first = systemPrompt.render("first");
+        String second = systemPrompt.render("second");
+
+        assertEquals(systemPrompt.prefix() + "\nSession first", first);
+        assertEquals(systemPrompt.prefix() + "\nSession second", second);
+        assertFalse(systemPrompt.prefix().contains("Session"));
+    }
+
+    @Order(10)
+    private static class SessionPromptEnricher implements SystemPromptEnricher {
+
+        @Override
+        public String staticPart() {
+            return "";
+        }
+
+        @Override
+        public String requestPart(Object memoryId) {
+            return "Session " + memoryId;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.query.Query;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.yayotron.investmentassistant.WordCountEstimator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompactingContentAggregatorTest {
+
+    private static final String QUESTION = "How did WIG20 do last year?";
+    private static final String WIG20 = "WIG20 closed the year 12% higher led by banks";
+    private static final String WIG20_AGAIN = "WIG20 closed the year 12% higher, led by the banks";
+    private static final String DIVIDENDS = "PKO BP paid the highest dividend of the index";
+    private static final String BITCOIN = "Bitcoin doubled while the zloty strengthened";
+
+    private static final Map<String, float[]> VECTORS = Map.of(
+            QUESTION, new float[]{1, 0, 0},
+            WIG20, new float[]{0.9f, 0.1f, 0},
+            WIG20_AGAIN, new float[]{0.89f, 0.11f, 0},
+            DIVIDENDS, new float[]{0.6f, 0.8f, 0},
+            BITCOIN, new float[]{0.5f, 0, 0.86f}
+    );
+
+    @Test
+    void givenNearDuplicates_onlyTheMostRelevantIsKept() {
+        List<Content> context = aggregator(3, 1000).aggregate(retrieved(
+                Content.from(WIG20), Content.from(WIG20_AGAIN), Content.from(DIVIDENDS)));
+
+        assertEquals(List.of(WIG20, DIVIDENDS), texts(context));
+    }
+
+    @Test
+    void givenTokenBudget_contentsBeyondItAreLeftOut() {
+        List<Content> context = aggregator(3, 18).aggregate(retrieved(
+                Content.from(WIG20), Content.from(DIVIDENDS), Content.from(BITCOIN)));
+
+        assertEquals(List.of(WIG20, DIVIDENDS), texts(context));
+    }
+
+    @Test
+    void givenConsecutiveChunksOfOneDocument_theyAreMergedWithoutTheirOverlap() {
+        Content second = chunk(DIVIDENDS, 1);
+        Content first = chunk(WIG20, 0);
+
+        List<Content> context = aggregator(3, 1000).aggregate(retrieved(second, first));
+
+        assertEquals(List.of(WIG20 + "\n" + DIVIDENDS), texts(context));
+        assertEquals("WIG20 closed the year up 12% higher", CompactingContentAggregator.join(
+                "WIG20 closed the year up", "closed the year up 12% higher"));
+    }
+
+    private static CompactingContentAggregator aggregator(int maxResults, int maxTokens) {
+        return new CompactingContentAggregator(new FixedEmbeddingModel(), new WordCountEstimator(), maxResults,
+                maxTokens, 0.7, 0.95, new SimpleMeterRegistry());
+    }
+
+    private static Map<Query, Collection<List<Content>>> retrieved(Content... contents) {
+        return Map.of(Query.from(QUESTION), List.of(List.of(contents)));
+    }
+
+    private static Content chunk(String text, int index) {
+        return Content.from(TextSegment.from(text, Metadata.from(Map.of(
+                "file_name", "wig20-2024.pdf", "absolute_directory_path", "/data", "index", String.valueOf(index)))));
+    }
+
+    private static List<String> texts(List<Content> contents) {
+        return contents.stream().map(content -> content.textSegment().text()).toList();
+    }
+
+    private static class FixedEmbeddingModel implements EmbeddingModel {
+
+        @Override
+        public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
+            return Response.from(textSegments.stream()
+                    .map(segment -> Embedding.from(VECTORS.get(segment.text())))
+                    .toList());
+        }
+
+        @Override
+        public int dimension() {
+            return 3;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.rag.query.Metadata;
+import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.rag.query.transformer.QueryTransformer;
+import io.yayotron.investmentassistant.model.ChatLatencyListener;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConditionalQueryTransformerTest {
+
+    @Mock
+    private QueryTransformer compressingTransformer;
+
+    private final LatencySavings latencySavings = new LatencySavings(new ChatLatencyListener());
+
+    @Test
+    void givenFirstTurn_compressionIsSkipped() {
+        ConditionalQueryTransformer transformer = new ConditionalQueryTransformer(
+                compressingTransformer, ConditionalQueryTransformer.Mode.FOLLOW_UP, latencySavings);
+        Query query = query("How did WIG20 do?", SystemMessage.from("You are an analyst"));
+
+        assertEquals(List.of(query), transformer.transform(query));
+        verifyNoInteractions(compressingTransformer);
+    }
+
+    @Test
+    void givenFollowUp_queryIsCompressed() {
+        ConditionalQueryTransformer transformer = new ConditionalQueryTransformer(
+                compressingTransformer, ConditionalQueryTransformer.Mode.FOLLOW_UP, latencySavings);
+        Query query = query("And last month?", SystemMessage.from("You are an analyst"),
+                UserMessage.from("How did WIG20 do?"), AiMessage.from("It rose 2%"));
+        when(compressingTransformer.transform(query)).thenReturn(List.of(Query.from("WIG20 last month")));
+
+        assertEquals(List.of(Query.from("WIG20 last month")), transformer.transform(query));
+        assertTrue(latencySavings.estimate("query compression").isPresent());
+    }
+
+    private static Query query(String text, ChatMessage... chatMemory) {
+        return Query.from(text, Metadata.from(UserMessage.from(text), "default", List.of(chatMemory)));
+    }
+}
@@ -0,0 +1,90 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineContentRetrieverTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void givenRetrieverMissingDeadline_answerGoesAheadWithoutIt() {
+        ContentRetriever stuck = query -> {
+            awaitRelease();
+            return List.of(Content.from("too late"));
+        };
+
+        List<Content> contents = new DeadlineContentRetriever("stuck", stuck, executor, scheduler, 100, 0)
+                .retrieve(Query.from("WIG20"));
+
+        assertEquals(List.of(), contents);
+        assertTrue(DegradedContents.isDegraded(contents));
+    }
+
+    @Test
+    void givenSlowFirstRequest_hedgedRequestAnswers() {
+        AtomicInteger calls = new AtomicInteger();
+        ContentRetriever slowOnce = query -> {
+            if (calls.incrementAndGet() == 1) {
+                awaitRelease();
+            }
+            return List.of(Content.from("WIG20 closed 2% higher"));
+        };
+
+        List<Content> contents = new DeadlineContentRetriever("slow", slowOnce, executor, scheduler, 2000, 50)
+                .retrieve(Query.from("WIG20"));
+
+        assertEquals(List.of(Content.from("WIG20 closed 2% higher")), contents);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void givenSaturatedExecutor_answerGoesAheadWithoutRetrievingOnTheCaller() {
+        AtomicInteger calls = new AtomicInteger();
+        ContentRetriever counting = query -> {
+            calls.incrementAndGet();
+            return List.of(Content.from("WIG20 closed 2% higher"));
+        };
+        Executor saturated = task -> {
+            throw new RejectedExecutionException("saturated");
+        };
+
+        List<Content> contents = new DeadlineContentRetriever("saturated", counting, saturated, scheduler, 2000, 50)
+                .retrieve(Query.from("WIG20"));
+
+        assertEquals(List.of(), contents);
+        assertEquals(0, calls.get());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.yayotron.investmentassistant.retrieval;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.ContentMetadata;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HybridContentRetrieverTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenSegmentFoundByBothRetrievers_itIsRankedFirst() {
+        ContentRetriever vector = query -> List.of(content("a", 0.9), content("b", 0.8), content("c", 0.7));
+        ContentRetriever lexical = query -> List.of(content("c", 12.5), content("d", 3.1));
+
+        List<Content> contents = new HybridContentRetriever(List.of(vector, lexical), 3, executor)
+                .retrieve(Query.from("CDR"));
+
+        assertEquals(List.of("c", "a", "b"), contents.stream()
+                .map(content -> content.metadata().get(ContentMetadata.EMBEDDING_ID))
+                .toList());
+    }
+
+    @Test
+    void givenTwoRetrievers_theyAreQueriedInParallel() {
+        // Each retriever waits for the other one, so queried one after the other they would time out
+        CyclicBarrier bothRetrieving = new CyclicBarrier(2);
+        ContentRetriever vector = query -> {
+            await(bothRetrieving);
+            return List.of(content("a", 0.9));
+        };
+        ContentRetriever lexical = query -> {
+            await(bothRetrieving);
+            return List.of(content("b", 3.1));
+        };
+
+        List<Content> contents = new HybridContentRetriever(List.of(vector, lexical), 3, executor)
+                .retrieve(Query.from("CDR"));
+
+        assertEquals(2, contents.size());
+    }
+
+    @Test
+    void givenDegradedRanking_fusedContentsAreDegraded() {
+        ContentRetriever vector = query -> List.of(content("a", 0.9));
+        ContentRetriever lexical = query -> DegradedContents.of(List.of());
+
+        List<Content> contents = new HybridContentRetriever(List.of(vector, lexical), 3, executor)
+                .retrieve(Query.from("CDR"));
+
+        assertEquals(1, contents.size());
+        assertTrue(DegradedContents.isDegraded(contents));
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Retrievers were not queried in parallel", e);
+        }
+    }
+
+    private static Content content(String id, double score) {
+        return Content.from(TextSegment.from("segment " + id),
+                Map.of(ContentMetadata.SCORE, score, ContentMetadata.EMBEDDING_ID, id));
+    }
+}
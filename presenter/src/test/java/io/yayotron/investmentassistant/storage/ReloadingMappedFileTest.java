@@ -0,0 +1,73 @@
+package io.yayotron.investmentassistant.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReloadingMappedFileTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger mapped = new AtomicInteger();
+
+    @Test
+    void givenReplacedFile_itIsMappedAgain() throws IOException {
+        Path file = directory.resolve("index");
+        ReloadingMappedFile<String> index = reloading(file);
+        assertEquals(Optional.empty(), index.current());
+
+        replace(file, "first", 1_000);
+        assertEquals(Optional.of("first"), index.current());
+        assertEquals(Optional.of("first"), index.current());
+
+        replace(file, "second", 2_000);
+        assertEquals(Optional.of("second"), index.current());
+        assertEquals(2, mapped.get());
+    }
+
+    @Test
+    void givenDeletedOrOutdatedFile_thePreviousMappingIsKept() throws IOException {
+        Path file = directory.resolve("index");
+        ReloadingMappedFile<String> index = reloading(file);
+        replace(file, "first", 1_000);
+        assertEquals(Optional.of("first"), index.current());
+
+        replace(file, "outdated", 2_000);
+        assertEquals(Optional.of("first"), index.current());
+
+        Files.delete(file);
+        assertEquals(Optional.of("first"), index.current());
+        assertEquals(1, mapped.get());
+    }
+
+    private ReloadingMappedFile<String> reloading(Path file) {
+        return new ReloadingMappedFile<>(file, path -> !read(path).equals("outdated"), ReloadingMappedFileTest::read,
+                value -> mapped.incrementAndGet());
+    }
+
+    // Like the feeder, written next to the file and moved into place
+    private static void replace(Path file, String content, long modified) throws IOException {
+        Path temporary = Files.writeString(file.resolveSibling(file.getFileName() + ".tmp"), content);
+        Files.setLastModifiedTime(temporary, FileTime.fromMillis(modified));
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}